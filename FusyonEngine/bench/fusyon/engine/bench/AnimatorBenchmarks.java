@@ -0,0 +1,63 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.component.Animator;
+import fusyon.engine.gameobject.component.SpriteRenderer;
+import fusyon.engine.gfx.AnimatedImage;
+import fusyon.engine.gfx.RenderModel;
+import fusyon.engine.util.AnimationClip;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the Animator, updating many animated GameObjects with a few clips each. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AnimatorBenchmarks {
+
+    /** The amount of animated GameObjects. */
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private Animator[] animatorArray;
+
+    @Setup
+    public void setup(){
+        BenchmarkScene scene = BenchmarkScene.create();
+        AnimatedImage animatedImage = new AnimatedImage(BenchmarkScene.createSprite(16, 16, 0xffff0000), BenchmarkScene.createSprite(16, 16, 0xff0000ff));
+
+        animatorArray = new Animator[size];
+
+        for(int i = 0; i < size; i++){
+            GameObject object = new GameObject("Animated");
+            Animator animator = new Animator();
+
+            for(int j = 0; j < 4; j++){
+                AnimationClip animationClip = new AnimationClip(animatedImage, 0.1f);
+
+                animationClip.addEntryCondition("state", j);
+                animator.addAnimationClip(animationClip);
+            }
+
+            animator.setCondition("state", i % 4);
+            object.addComponent(new SpriteRenderer(new RenderModel(0, new Vector2f(0, 0), new Vector2f(1, 1), null)));
+            object.addComponent(animator);
+            scene.addObject(object, new Vector2f(0, 0));
+
+            animatorArray[i] = animator;
+        }
+    }
+
+    /** Updates every Animator once, which only changes their state, so nothing is left to be consumed. */
+    @Benchmark
+    public void update(){
+        for(Animator animator : animatorArray){
+            animator.update(1 / 60f);
+        }
+    }
+}
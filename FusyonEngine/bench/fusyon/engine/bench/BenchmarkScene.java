@@ -0,0 +1,59 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gfx.RendererHandler;
+import fusyon.engine.main.Display;
+import fusyon.engine.main.Scene;
+
+import java.awt.image.BufferedImage;
+
+import static fusyon.engine.main.Engine.engine;
+
+/** An empty Scene on a headless Display, used by the benchmarks that need a running engine. */
+public class BenchmarkScene extends Scene {
+
+    public BenchmarkScene() {
+        super("Benchmark");
+    }
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void destroy() {}
+
+    /** Sets a new BenchmarkScene as the engine's current scene, with a headless Display and a ready RendererHandler.
+     *
+     * @return  The new scene.
+     */
+    public static BenchmarkScene create(){
+        BenchmarkScene scene = new BenchmarkScene();
+
+        if(engine.getDisplay() == null){
+            engine.setDisplay(new Display(Display.baseWidth, Display.baseHeight));
+            RendererHandler.setup();
+        }
+
+        engine.setScene(scene);
+
+        return scene;
+    }
+
+    /** Creates an opaque sprite filled with a single color.
+     *
+     * @param width     The sprite's width.
+     * @param height    The sprite's height.
+     * @param color     A color in the format 'argb'.
+     * @return          A new sprite.
+     */
+    public static BufferedImage createSprite(int width, int height, int color){
+        BufferedImage sprite = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        for(int x = 0; x < width; x++){
+            for(int y = 0; y < height; y++){
+                sprite.setRGB(x, y, color);
+            }
+        }
+
+        return sprite;
+    }
+}
@@ -0,0 +1,121 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.component.Collider;
+import fusyon.engine.gameobject.component.RectangleCollider;
+import fusyon.engine.util.ColliderQuadTree;
+import fusyon.engine.util.FloatRectangle;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the ColliderQuadTree operations, with colliders spread over a world of a fixed size. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ColliderQuadTreeBenchmarks {
+
+    /** The size of the area in which the colliders are placed. */
+    private static final float worldSize = 16384;
+    /** The size of each collider. */
+    private static final float colliderSize = 16;
+
+    /** The amount of colliders. */
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    private Collider[] colliderArray;
+    /** The tree holding every collider, for the query and remove benchmarks. */
+    private ColliderQuadTree colliderTree;
+    private FloatRectangle[] queryArray;
+    private int index;
+
+    @Setup
+    public void setup(){
+        colliderArray = createColliders(size, 0);
+        colliderTree = createTree();
+
+        for(Collider collider : colliderArray){
+            colliderTree.insert(collider);
+        }
+
+        queryArray = createQueries(worldSize);
+    }
+
+    @Benchmark
+    public ColliderQuadTree insert(Blackhole blackhole){
+        ColliderQuadTree colliderTree = createTree();
+
+        for(Collider collider : colliderArray){
+            blackhole.consume(colliderTree.insert(collider));
+        }
+
+        return colliderTree;
+    }
+
+    @Benchmark
+    public int query(){
+        index = (index + 1) & (queryArray.length - 1);
+
+        return colliderTree.query(queryArray[index]).size();
+    }
+
+    @Benchmark
+    public boolean remove(){
+        Collider collider = colliderArray[index];
+
+        index = (index + 1) % colliderArray.length;
+
+        // Reinserts the collider, so the tree keeps the same size between operations.
+        boolean isRemoved = colliderTree.remove(collider);
+
+        colliderTree.insert(collider);
+
+        return isRemoved;
+    }
+
+    /** Creates a ColliderQuadTree with the bounds and capacity Physics used before its DynamicAABBTree. */
+    static ColliderQuadTree createTree(){
+        return new ColliderQuadTree(new FloatRectangle(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE, Integer.MAX_VALUE), 16);
+    }
+
+    /** Creates colliders at random positions, without a parent.
+     *
+     * @param amount    The amount of colliders.
+     * @param seed      A seed for their positions.
+     * @return          An array containing the colliders.
+     */
+    static Collider[] createColliders(int amount, long seed){
+        Random random = new Random(seed);
+        Collider[] colliderArray = new Collider[amount];
+
+        for(int i = 0; i < amount; i++){
+            Vector2f position = new Vector2f(random.nextFloat() * worldSize, random.nextFloat() * worldSize);
+
+            colliderArray[i] = new RectangleCollider(position, new Vector2f(0, 0), new Vector2f(colliderSize, colliderSize));
+        }
+
+        return colliderArray;
+    }
+
+    /** Creates the areas queried by the query benchmarks, 256 units wide, at random positions.
+     *
+     * @param worldSize The size of the area in which the queries are placed.
+     * @return          An array containing 1024 areas (a power of two, so it can be cycled through with a mask).
+     */
+    static FloatRectangle[] createQueries(float worldSize){
+        Random random = new Random(1);
+        FloatRectangle[] queryArray = new FloatRectangle[1024];
+
+        for(int i = 0; i < queryArray.length; i++){
+            queryArray[i] = new FloatRectangle(random.nextFloat() * worldSize, random.nextFloat() * worldSize, 256, 256);
+        }
+
+        return queryArray;
+    }
+}
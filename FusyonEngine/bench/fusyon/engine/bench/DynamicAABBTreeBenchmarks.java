@@ -0,0 +1,85 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.component.Collider;
+import fusyon.engine.main.Physics;
+import fusyon.engine.util.DynamicAABBTree;
+import fusyon.engine.util.FloatRectangle;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the DynamicAABBTree operations, with the same colliders as the ColliderQuadTree benchmarks. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DynamicAABBTreeBenchmarks {
+
+    /** The size of the area in which the colliders are placed. */
+    private static final float worldSize = 16384;
+
+    /** The amount of colliders. */
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    private Collider[] colliderArray;
+    /** The tree holding every collider, for the query and move benchmarks. */
+    private DynamicAABBTree colliderTree;
+    private int[] proxyArray;
+    private FloatRectangle[] queryArray;
+    private int index;
+    private int step;
+
+    @Setup
+    public void setup(){
+        colliderArray = ColliderQuadTreeBenchmarks.createColliders(size, 0);
+        colliderTree = new DynamicAABBTree(Physics.colliderMargin);
+        proxyArray = new int[size];
+
+        for(int i = 0; i < size; i++){
+            proxyArray[i] = colliderTree.insert(colliderArray[i]);
+        }
+
+        queryArray = ColliderQuadTreeBenchmarks.createQueries(worldSize);
+    }
+
+    @Benchmark
+    public DynamicAABBTree insert(Blackhole blackhole){
+        // The colliders already have proxies in the setup's tree, which this one doesn't use.
+        DynamicAABBTree colliderTree = new DynamicAABBTree(Physics.colliderMargin);
+
+        for(Collider collider : colliderArray){
+            blackhole.consume(colliderTree.insert(collider));
+        }
+
+        return colliderTree;
+    }
+
+    @Benchmark
+    public int query(){
+        index = (index + 1) & (queryArray.length - 1);
+
+        return colliderTree.query(queryArray[index]).size();
+    }
+
+    @Benchmark
+    public boolean move(){
+        Collider collider = colliderArray[index];
+
+        // Each collider moves back and forth a few units at a time, as a walking character would.
+        collider.position = new Vector2f(collider.position.x + ((step & 8) == 0 ? 2 : -2), collider.position.y);
+
+        boolean isReinserted = colliderTree.move(proxyArray[index]);
+
+        if(++index == colliderArray.length){
+            index = 0;
+            step++;
+        }
+
+        return isReinserted;
+    }
+}
@@ -0,0 +1,42 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.util.OpenSimplexNoise;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the OpenSimplexNoise, sampling a square area of size * size points. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NoiseBenchmarks {
+
+    /** The amount of points sampled on each axis. */
+    @Param({"64", "256"})
+    public int size;
+
+    private final OpenSimplexNoise evalNoise = new OpenSimplexNoise(5);
+    private final OpenSimplexNoise octaveNoise = new OpenSimplexNoise(6);
+
+    @Benchmark
+    public void eval(Blackhole blackhole){
+        for(int x = 0; x < size; x++){
+            for(int y = 0; y < size; y++){
+                blackhole.consume(evalNoise.eval(x * 0.05, y * 0.05));
+            }
+        }
+    }
+
+    @Benchmark
+    public void sumOctaves(Blackhole blackhole){
+        for(int x = 0; x < size; x++){
+            for(int y = 0; y < size; y++){
+                blackhole.consume(octaveNoise.sumOctaves(x, y, 4, 0.5f, 2, 0.01f, 0, 255));
+            }
+        }
+    }
+}
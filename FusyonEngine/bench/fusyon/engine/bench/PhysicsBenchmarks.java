@@ -0,0 +1,75 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.component.RectangleCollider;
+import fusyon.engine.main.Physics;
+import fusyon.engine.util.SweepHit;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the Physics queries, over a scene filled with GameObjects holding a RectangleCollider. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PhysicsBenchmarks {
+
+    /** The size of the area in which the objects are placed. */
+    private static final float worldSize = 8192;
+
+    /** The amount of objects. */
+    @Param({"1000", "10000"})
+    public int size;
+
+    private Vector2f[] positionArray;
+    private final Vector2f querySize = new Vector2f(128, 128);
+    /** The swept Collider, which is not in the scene. */
+    private RectangleCollider sweptCollider;
+    private final Vector2f destination = new Vector2f(0, 0);
+    private int index;
+
+    @Setup
+    public void setup(){
+        BenchmarkScene scene = BenchmarkScene.create();
+        Random random = new Random(2);
+
+        for(int i = 0; i < size; i++){
+            GameObject object = new GameObject("Body");
+            Vector2f position = new Vector2f(random.nextFloat() * worldSize, random.nextFloat() * worldSize);
+
+            // Colliders are inserted at their initial position, so it must be set before they start.
+            object.addComponent(new RectangleCollider(position, new Vector2f(0, 0), new Vector2f(16, 16)));
+            scene.addObject(object, position);
+        }
+
+        positionArray = new Vector2f[1024];
+
+        for(int i = 0; i < positionArray.length; i++){
+            positionArray[i] = new Vector2f(random.nextFloat() * worldSize, random.nextFloat() * worldSize);
+        }
+
+        sweptCollider = new RectangleCollider(new Vector2f(0, 0), new Vector2f(16, 16));
+    }
+
+    @Benchmark
+    public int overlapRectangleAll(){
+        index = (index + 1) & (positionArray.length - 1);
+
+        return Physics.overlapRectangleAll(positionArray[index], querySize).size();
+    }
+
+    /** Moves the swept Collider 64 units from each position, each time towards another direction. */
+    @Benchmark
+    public SweepHit sweepCollider(){
+        index = (index + 1) & (positionArray.length - 1);
+
+        float angle = index * 0.61803398875f * (float) Math.PI * 2;
+
+        return Physics.sweepCollider(sweptCollider, positionArray[index], (float) Math.cos(angle) * 64, (float) Math.sin(angle) * 64, destination);
+    }
+}
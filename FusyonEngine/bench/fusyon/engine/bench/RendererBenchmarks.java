@@ -0,0 +1,120 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.Light;
+import fusyon.engine.gameobject.component.LightScript;
+import fusyon.engine.gameobject.component.SpriteRenderer;
+import fusyon.engine.gfx.RenderModel;
+import fusyon.engine.gfx.RendererHandler;
+import fusyon.engine.main.Display;
+import fusyon.engine.main.Settings;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of a whole frame drawn into a headless Display, and of the light computations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RendererBenchmarks {
+
+    /** A scene filled with sprites of a few colors, spread over the Display and across its layers. */
+    @State(Scope.Thread)
+    public static class SpriteScene {
+
+        /** The amount of sprites. */
+        @Param({"100", "1000", "10000"})
+        public int size;
+
+        @Setup
+        public void setup(){
+            BenchmarkScene scene = BenchmarkScene.create();
+            Random random = new Random(3);
+            BufferedImage[] spriteArray = new BufferedImage[8];
+
+            for(int i = 0; i < spriteArray.length; i++){
+                spriteArray[i] = BenchmarkScene.createSprite(16, 16, 0xff000000 | random.nextInt(0xffffff));
+            }
+
+            for(int i = 0; i < size; i++){
+                GameObject object = new GameObject("Sprite");
+                RenderModel renderModel = new RenderModel(i % 4, Settings.SortingLayers.values()[i % Settings.SortingLayers.values().length], new Vector2f(0, 0), new Vector2f(1, 1), spriteArray[i % spriteArray.length]);
+
+                object.addComponent(new SpriteRenderer(renderModel));
+                scene.addObject(object, new Vector2f(random.nextFloat() * Display.baseWidth, random.nextFloat() * Display.baseHeight));
+            }
+        }
+    }
+
+    /** A scene with lights of random colors, spread over the Display. */
+    @State(Scope.Thread)
+    public static class LightScene {
+
+        /** The amount of lights. */
+        @Param({"1", "16", "64"})
+        public int size;
+
+        @Setup
+        public void setup(){
+            BenchmarkScene scene = BenchmarkScene.create();
+            Random random = new Random(4);
+
+            for(int i = 0; i < size; i++){
+                Light light = new Light(32, 128, new Color(random.nextInt(0xffffff)), 1);
+
+                scene.addObject(light, new Vector2f(random.nextFloat() * Display.baseWidth, random.nextFloat() * Display.baseHeight));
+            }
+        }
+    }
+
+    /** A single light, whose map is computed on its own. */
+    @State(Scope.Thread)
+    public static class SingleLight {
+
+        /** The light's diameter (its outer radius is half of it, and its inner radius a quarter). */
+        @Param({"64", "256", "1024"})
+        public int size;
+
+        private LightScript lightScript;
+
+        @Setup
+        public void setup(){
+            lightScript = new LightScript(size / 4, size / 2, Color.ORANGE, 1);
+        }
+    }
+
+    @Benchmark
+    public int frameSprites(SpriteScene scene){
+        return renderFrame();
+    }
+
+    @Benchmark
+    public int frameLights(LightScene scene){
+        return renderFrame();
+    }
+
+    @Benchmark
+    public int[] updateLight(SingleLight light){
+        light.lightScript.updateLight();
+
+        return light.lightScript.getLightMapArray();
+    }
+
+    /** Draws a frame of the current scene into the headless display.
+     *
+     * @return  The color of the frame's first pixel.
+     */
+    static int renderFrame(){
+        RendererHandler.prepare();
+        RendererHandler.render();
+        RendererHandler.display();
+
+        return RendererHandler.getFrameBufferArray()[0];
+    }
+}
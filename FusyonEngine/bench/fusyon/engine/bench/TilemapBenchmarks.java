@@ -0,0 +1,79 @@
+package fusyon.engine.bench;
+
+import fusyon.engine.gameobject.Tile;
+import fusyon.engine.gameobject.Tilemap;
+import fusyon.engine.gfx.RendererHandler;
+import fusyon.engine.util.Vector2;
+import fusyon.engine.util.Vector2f;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the TilemapRenderer, with square tilemaps of size * size tiles. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TilemapBenchmarks {
+
+    /** The sprite given to the tiles added by each operation. */
+    @State(Scope.Thread)
+    public static class TileSprite {
+
+        /** The amount of tiles on each axis. */
+        @Param({"16", "64"})
+        public int size;
+
+        private final BufferedImage sprite = BenchmarkScene.createSprite(16, 16, 0xff00ff00);
+    }
+
+    /** A scene holding a Tilemap filled with tiles. */
+    @State(Scope.Thread)
+    public static class FilledTilemap {
+
+        /** The amount of tiles on each axis. */
+        @Param({"16", "64", "256"})
+        public int size;
+
+        @Setup
+        public void setup(){
+            createTilemap(size, BenchmarkScene.createSprite(16, 16, 0xff00ff00));
+        }
+    }
+
+    @Benchmark
+    public int addTile(TileSprite tileSprite){
+        Tilemap tilemap = createTilemap(tileSprite.size, tileSprite.sprite);
+
+        return tilemap.tilemapRenderer.getTileChunkMap().size();
+    }
+
+    /** Captures the scene, requesting every tile, without drawing it. */
+    @Benchmark
+    public void renderTileChunks(FilledTilemap tilemap){
+        RendererHandler.capture(null);
+    }
+
+    /** Creates a Tilemap on a new BenchmarkScene, filled with tiles.
+     *
+     * @param size      The amount of tiles on each axis.
+     * @param sprite    The sprite of every tile.
+     * @return          The new Tilemap.
+     */
+    static Tilemap createTilemap(int size, BufferedImage sprite){
+        BenchmarkScene scene = BenchmarkScene.create();
+        Tilemap tilemap = new Tilemap();
+
+        scene.addObject(tilemap, new Vector2f(0, 0));
+
+        for(int x = 0; x < size; x++){
+            for(int y = 0; y < size; y++){
+                tilemap.tilemapRenderer.addTile(new Tile("Tile", sprite, false), new Vector2(x, y));
+            }
+        }
+
+        return tilemap;
+    }
+}
@@ -0,0 +1,67 @@
+package fusyon.engine.event;
+
+import fusyon.engine.gameobject.component.Collider;
+
+/** Published by the Physics when a contact between two Colliders starts, goes on, or ends.
+ *
+ * Both Colliders receive it through onCollisionEnter, onCollisionStay or onCollisionExit, depending on its state, each
+ * seeing the other one as the hit Collider.
+ */
+public class CollisionEvent {
+
+	/** The stages of a contact. */
+	public enum State{
+		/** The Colliders have started touching on this tick. */
+		ENTER,
+		/** The Colliders were already touching on the previous tick. */
+		STAY,
+		/** The Colliders have stopped touching on this tick. */
+		EXIT
+	}
+
+	public static final EventType<CollisionEvent> TYPE = new EventType<CollisionEvent>("Collision", CollisionEvent::new);
+
+	/** The first Collider of the contact. */
+	private Collider collider;
+	/** The second Collider of the contact. */
+	private Collider other;
+	/** The normalized direction from the center of the collider to the center of the other. */
+	private float directionX, directionY;
+	private State state;
+
+	/** Fills the event, after it has been published.
+	 *
+	 * @param collider		The first Collider of the contact.
+	 * @param other			The second Collider of the contact.
+	 * @param directionX	The normalized direction from the collider to the other (x axis).
+	 * @param directionY	The normalized direction from the collider to the other (y axis).
+	 * @param state			The stage of the contact.
+	 */
+	public void set(Collider collider, Collider other, float directionX, float directionY, State state) {
+		this.collider = collider;
+		this.other = other;
+		this.directionX = directionX;
+		this.directionY = directionY;
+		this.state = state;
+	}
+
+	public Collider getCollider() {
+		return collider;
+	}
+
+	public Collider getOther() {
+		return other;
+	}
+
+	public float getDirectionX() {
+		return directionX;
+	}
+
+	public float getDirectionY() {
+		return directionY;
+	}
+
+	public State getState() {
+		return state;
+	}
+}
@@ -0,0 +1,210 @@
+package fusyon.engine.event;
+
+import java.util.Arrays;
+
+/** Queues the events published during a tick, and dispatches them to their listeners in a single batch.
+ *
+ * Each EventType has its own queue of pooled events: publishing takes the next free event from the pool (creating it
+ * only if the pool has run out) and returns it to be filled, so producers don't allocate once the pools have grown to
+ * their usual size. The engine dispatches all queued events once per tick, after the scene has been updated and the
+ * mouse picking is done, and before the released keys and buttons are cleared. Listeners are subscribed per type and
+ * called directly, without reflection.
+ *
+ * Events published while dispatching (e.g. by a listener) are dispatched in the same batch, after the current ones.
+ * Publishing is thread safe; subscribing and dispatching must only be done from the game thread.
+ */
+public class EventBus {
+
+	/** The maximum amount of times the queues are dispatched on a single batch, so listeners that keep publishing
+	 * events to each other can't block the tick. The remaining events are dispatched on the next batch.
+	 */
+	private static final int maxDispatchRounds = 16;
+
+	/** The queue of each EventType, indexed by the type's id (null if the type has not been used yet). */
+	private volatile EventQueue<?>[] queueArray = new EventQueue<?>[8];
+
+	/** Subscribes a listener to the events of a type.
+	 *
+	 * @param type		An EventType.
+	 * @param listener	The listener, called for each event of the type on every dispatch.
+	 * @param <E>		The class of the events.
+	 */
+	public <E> void subscribe(EventType<E> type, IEventListener<? super E> listener) {
+		getQueue(type).subscribe(listener);
+	}
+
+	/** Unsubscribes a listener from the events of a type. It is still called until the end of the current dispatch.
+	 *
+	 * @param type		An EventType.
+	 * @param listener	A subscribed listener.
+	 * @param <E>		The class of the events.
+	 */
+	public <E> void unsubscribe(EventType<E> type, IEventListener<? super E> listener) {
+		getQueue(type).unsubscribe(listener);
+	}
+
+	/** Checks if a type has any listener, so producers can skip building events nobody receives.
+	 *
+	 * @param type	An EventType.
+	 * @return		True if at least one listener is subscribed to it.
+	 */
+	public boolean hasListeners(EventType<?> type) {
+		EventQueue<?> queue = type.getId() < queueArray.length ? queueArray[type.getId()] : null;
+
+		return queue != null && queue.hasListeners();
+	}
+
+	/** Queues an event to be dispatched on the next batch.
+	 *
+	 * @param type	An EventType.
+	 * @param <E>	The class of the events.
+	 * @return		A pooled event, which must be filled by the caller right away. It is reused after being dispatched.
+	 */
+	public <E> E publish(EventType<E> type) {
+		return getQueue(type).obtain();
+	}
+
+	/** Dispatches every queued event to the listeners of its type, type by type, in the order the types were first
+	 * used. Called by the engine once per tick.
+	 */
+	public void dispatch() {
+		for(int round = 0; round < maxDispatchRounds; round++) {
+			boolean isDispatched = false;
+
+			for(EventQueue<?> queue : queueArray) {
+				if(queue != null && queue.dispatch()) isDispatched = true;
+			}
+
+			if(!isDispatched) return;
+		}
+
+		System.err.println("[ENGINE ERROR]: Events kept being published while dispatching, the remaining ones will be dispatched on the next tick.");
+	}
+
+	/** Discards every queued event, without dispatching it. */
+	public void clear() {
+		for(EventQueue<?> queue : queueArray) {
+			if(queue != null) queue.clear();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <E> EventQueue<E> getQueue(EventType<E> type) {
+		EventQueue<?>[] queues = queueArray;
+		int id = type.getId();
+
+		if(id < queues.length && queues[id] != null) return (EventQueue<E>) queues[id];
+
+		return createQueue(type);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized <E> EventQueue<E> createQueue(EventType<E> type) {
+		int id = type.getId();
+
+		if(id >= queueArray.length) queueArray = Arrays.copyOf(queueArray, Math.max(id + 1, queueArray.length * 2));
+
+		if(queueArray[id] == null) queueArray[id] = new EventQueue<E>(type);
+
+		return (EventQueue<E>) queueArray[id];
+	}
+
+	/** The listeners and the pooled events of an EventType.
+	 *
+	 * The events are kept in two arrays, swapped on each dispatch: one receives the events being published while the
+	 * other is dispatched. Both arrays keep their events after use, being the type's pool.
+	 */
+	private static class EventQueue<E> {
+
+		private final EventType<E> type;
+		/** The listeners, replaced by a new array whenever one is subscribed or unsubscribed. */
+		private IEventListener<? super E>[] listenerArray = createListenerArray(0);
+
+		private Object[] pendingArray = new Object[16];
+		private int pendingCount;
+		private Object[] dispatchArray = new Object[16];
+
+		EventQueue(EventType<E> type) {
+			this.type = type;
+		}
+
+		void subscribe(IEventListener<? super E> listener) {
+			IEventListener<? super E>[] newListenerArray = Arrays.copyOf(listenerArray, listenerArray.length + 1);
+
+			newListenerArray[listenerArray.length] = listener;
+			listenerArray = newListenerArray;
+		}
+
+		void unsubscribe(IEventListener<? super E> listener) {
+			for(int i = 0; i < listenerArray.length; i++) {
+				if(listenerArray[i] != listener) continue;
+
+				IEventListener<? super E>[] newListenerArray = createListenerArray(listenerArray.length - 1);
+
+				System.arraycopy(listenerArray, 0, newListenerArray, 0, i);
+				System.arraycopy(listenerArray, i + 1, newListenerArray, i, listenerArray.length - i - 1);
+				listenerArray = newListenerArray;
+
+				return;
+			}
+		}
+
+		boolean hasListeners() {
+			return listenerArray.length > 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized E obtain() {
+			if(pendingCount == pendingArray.length) pendingArray = Arrays.copyOf(pendingArray, pendingCount * 2);
+
+			E event = (E) pendingArray[pendingCount];
+
+			if(event == null) {
+				event = type.getFactory().get();
+				pendingArray[pendingCount] = event;
+			}
+
+			pendingCount++;
+
+			return event;
+		}
+
+		/** Dispatches the events published so far. Returns false if there were none. */
+		@SuppressWarnings("unchecked")
+		boolean dispatch() {
+			Object[] eventArray;
+			int count;
+
+			synchronized(this) {
+				if(pendingCount == 0) return false;
+
+				eventArray = pendingArray;
+				count = pendingCount;
+				pendingArray = dispatchArray;
+				pendingCount = 0;
+				dispatchArray = eventArray;
+			}
+
+			IEventListener<? super E>[] listeners = listenerArray;
+
+			for(int i = 0; i < count; i++) {
+				E event = (E) eventArray[i];
+
+				for(IEventListener<? super E> listener : listeners) {
+					listener.onEvent(event);
+				}
+			}
+
+			return true;
+		}
+
+		synchronized void clear() {
+			pendingCount = 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <E> IEventListener<? super E>[] createListenerArray(int length) {
+			return (IEventListener<? super E>[]) new IEventListener<?>[length];
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package fusyon.engine.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** A type of event published through the EventBus.
+ *
+ * Each type has its own queue of pooled events within the bus, which are created by the type's factory only when the
+ * pool runs out. Types are usually declared once, as constants of their event class.
+ *
+ * @param <E>	The class of the events.
+ */
+public final class EventType<E> {
+
+	/** The amount of types declared so far. */
+	private static final AtomicInteger typeCount = new AtomicInteger();
+
+	/** The index of the type's queue within the EventBus. */
+	private final int id;
+	/** The name of the type, for debugging. */
+	private final String name;
+	/** Creates the events of the type's pool. */
+	private final Supplier<E> factory;
+
+	/** Declares a new EventType.
+	 *
+	 * @param name		A name for the type.
+	 * @param factory	Creates an empty event (e.g. a constructor reference).
+	 */
+	public EventType(String name, Supplier<E> factory) {
+		this.id = typeCount.getAndIncrement();
+		this.name = name;
+		this.factory = factory;
+	}
+
+	int getId() {
+		return id;
+	}
+
+	Supplier<E> getFactory() {
+		return factory;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
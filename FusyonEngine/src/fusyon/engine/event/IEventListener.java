@@ -0,0 +1,14 @@
+package fusyon.engine.event;
+
+/** Receives the events of a type, when the EventBus dispatches them.
+ *
+ * @param <E>	The class of the events.
+ */
+public interface IEventListener<E> {
+
+	/** Called for each event of the subscribed type, in the order they were published.
+	 *
+	 * @param event	The event. It is reused after the call, so it must not be kept.
+	 */
+	void onEvent(E event);
+}
@@ -0,0 +1,219 @@
+package fusyon.engine.event;
+
+import fusyon.engine.util.Vector2f;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static fusyon.engine.main.Engine.engine;
+
+/** Records the inputs of every tick into a compact binary file, which can be fed back by an InputReplay.
+ *
+ * The file starts with a header (a magic number, the tick rate and the initial mouse position), followed by one frame
+ * per tick. Each frame starts with a byte of flags telling which sections follow, so a tick without inputs takes a
+ * single byte. Only changes are stored: the keys and buttons pressed since the last tick, the ones released in the tick,
+ * the wheel rotation and the mouse position, if it moved before the tick (e.g. set synthetically) or when the pointer
+ * was polled at the end of the tick.
+ *
+ * Usage: {@code engine.setInputRecorder(new InputRecorder("session.input"));}, and set it to null when done.
+ */
+public class InputRecorder {
+
+	/** The first bytes of every recording ('FIR' and the version). */
+	static final int magic = 0x46495231;
+
+	static final int keysPressedFlag = 1;
+	static final int keysReleasedFlag = 1 << 1;
+	static final int buttonsPressedFlag = 1 << 2;
+	static final int buttonsReleasedFlag = 1 << 3;
+	static final int wheelFlag = 1 << 4;
+	static final int mouseMovedFlag = 1 << 5;
+	static final int mousePolledFlag = 1 << 6;
+
+	/** The stream where the frames are written. */
+	private DataOutputStream output;
+
+	/** The keys pressed at the last recorded tick. */
+	private final TreeSet<Integer> previousKeySet = new TreeSet<Integer>();
+	/** The buttons pressed at the last recorded tick. */
+	private final TreeSet<Integer> previousButtonSet = new TreeSet<Integer>();
+
+	/** The keys pressed at the current tick that were not pressed at the last one. */
+	private final List<Integer> pressedKeyList = new ArrayList<Integer>();
+	/** The buttons pressed at the current tick that were not pressed at the last one. */
+	private final List<Integer> pressedButtonList = new ArrayList<Integer>();
+	/** The keys released at the current tick. */
+	private final List<Integer> releasedKeyList = new ArrayList<Integer>();
+	/** The buttons released at the current tick. */
+	private final List<Integer> releasedButtonList = new ArrayList<Integer>();
+
+	private int mouseWheelValue;
+	private boolean isMouseMoved;
+	private float mouseX, mouseY;
+
+	/** The amount of ticks recorded. */
+	private int tickCount;
+
+	/** Initializes a new InputRecorder, creating (or overwriting) a recording file.
+	 *
+	 * @param path			The path where the recording will be written.
+	 * @throws IOException	If the file can't be created.
+	 */
+	public InputRecorder(String path) throws IOException {
+		Vector2f mousePosition = MouseHandler.getMousePosition();
+
+		if(mousePosition != null) {
+			mouseX = mousePosition.x;
+			mouseY = mousePosition.y;
+		}
+
+		previousKeySet.addAll(KeyboardHandler.getPressedKeyList());
+		previousButtonSet.addAll(MouseHandler.getPressedButtonList());
+
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+		output.writeInt(magic);
+		output.writeDouble(engine.getTickRate());
+		output.writeFloat(mouseX);
+		output.writeFloat(mouseY);
+		writeSet(previousKeySet);
+		writeSet(previousButtonSet);
+	}
+
+	/** Captures the keys, buttons and wheel state. Called by the engine before the scene is updated. */
+	public void beginTick() {
+		if(output == null) return;
+
+		collectPressed(KeyboardHandler.getPressedKeyList(), previousKeySet, pressedKeyList);
+		collectPressed(MouseHandler.getPressedButtonList(), previousButtonSet, pressedButtonList);
+
+		releasedKeyList.clear();
+		releasedKeyList.addAll(KeyboardHandler.getReleasedKeyList());
+		releasedButtonList.clear();
+		releasedButtonList.addAll(MouseHandler.getReleasedButtonList());
+
+		mouseWheelValue = MouseHandler.getMouseWheelValue();
+		isMouseMoved = isMouseMoved();
+
+		if(isMouseMoved) {
+			mouseX = MouseHandler.getMousePosition().x;
+			mouseY = MouseHandler.getMousePosition().y;
+		}
+	}
+
+	/** Captures the mouse position, polled at the end of the tick, and writes the tick's frame. Called by the engine
+	 * after the input handlers are updated.
+	 */
+	public void endTick() {
+		if(output == null) return;
+
+		int flags = 0;
+
+		if(!pressedKeyList.isEmpty()) flags |= keysPressedFlag;
+		if(!releasedKeyList.isEmpty()) flags |= keysReleasedFlag;
+		if(!pressedButtonList.isEmpty()) flags |= buttonsPressedFlag;
+		if(!releasedButtonList.isEmpty()) flags |= buttonsReleasedFlag;
+		if(mouseWheelValue != 0) flags |= wheelFlag;
+		if(isMouseMoved) flags |= mouseMovedFlag;
+		if(isMouseMoved()) flags |= mousePolledFlag;
+
+		try {
+			output.writeByte(flags);
+
+			if((flags & keysPressedFlag) != 0) writeList(pressedKeyList);
+			if((flags & keysReleasedFlag) != 0) writeList(releasedKeyList);
+			if((flags & buttonsPressedFlag) != 0) writeList(pressedButtonList);
+			if((flags & buttonsReleasedFlag) != 0) writeList(releasedButtonList);
+			if((flags & wheelFlag) != 0) writeVarInt((mouseWheelValue << 1) ^ (mouseWheelValue >> 31));
+
+			if((flags & mouseMovedFlag) != 0) {
+				output.writeFloat(mouseX);
+				output.writeFloat(mouseY);
+			}
+
+			if((flags & mousePolledFlag) != 0) {
+				mouseX = MouseHandler.getMousePosition().x;
+				mouseY = MouseHandler.getMousePosition().y;
+
+				output.writeFloat(mouseX);
+				output.writeFloat(mouseY);
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+
+		previousKeySet.clear();
+		previousKeySet.addAll(KeyboardHandler.getPressedKeyList());
+		previousButtonSet.clear();
+		previousButtonSet.addAll(MouseHandler.getPressedButtonList());
+
+		tickCount++;
+	}
+
+	/** Flushes and closes the recording file. Called by the engine when the recorder is replaced. */
+	public void close() {
+		if(output == null) return;
+
+		try {
+			output.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		output = null;
+	}
+
+	private boolean isMouseMoved() {
+		Vector2f mousePosition = MouseHandler.getMousePosition();
+
+		return mousePosition != null && (mousePosition.x != mouseX || mousePosition.y != mouseY);
+	}
+
+	private void collectPressed(TreeSet<Integer> pressedSet, TreeSet<Integer> previousSet, List<Integer> pressedList) {
+		pressedList.clear();
+
+		for(Integer value : pressedSet) {
+			if(!previousSet.contains(value)) pressedList.add(value);
+		}
+	}
+
+	private void writeSet(TreeSet<Integer> set) throws IOException {
+		writeVarInt(set.size());
+
+		for(Integer value : set) {
+			writeVarInt(value);
+		}
+	}
+
+	private void writeList(List<Integer> list) throws IOException {
+		writeVarInt(list.size());
+
+		for(int i = 0; i < list.size(); i++) {
+			writeVarInt(list.get(i));
+		}
+	}
+
+	/** Writes an integer using 7 bits per byte, so small values (like key codes) take one or two bytes. */
+	private void writeVarInt(int value) throws IOException {
+		while((value & ~0x7f) != 0) {
+			output.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+
+		output.writeByte(value);
+	}
+
+	private void fail(IOException e) {
+		System.err.println("[ENGINE ERROR]: Couldn't write the input recording, it was stopped at tick " + tickCount + ".");
+		e.printStackTrace();
+		close();
+	}
+
+	public int getTickCount() {
+		return tickCount;
+	}
+}
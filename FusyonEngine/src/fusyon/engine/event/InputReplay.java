@@ -0,0 +1,219 @@
+package fusyon.engine.event;
+
+import fusyon.engine.util.Vector2f;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/** Feeds the inputs recorded by an InputRecorder back into the KeyboardHandler and MouseHandler, tick by tick.
+ *
+ * While a replay is set on the engine, live keyboard and mouse events are discarded and the pointer is not polled, so
+ * the scene receives exactly the same inputs on the same ticks as when they were recorded. The whole recording is read
+ * into memory when the replay is created, so no I/O is made during the ticks. When the last tick is replayed, the engine
+ * removes the replay and goes back to live inputs.
+ *
+ * Usage: {@code InputReplay replay = new InputReplay("session.input"); engine.setInputReplay(replay);
+ * engine.step(replay.getTickCount());}
+ */
+public class InputReplay {
+
+	/** The recording's frames. */
+	private final DataInputStream input;
+
+	/** The tick rate of the engine when the inputs were recorded. */
+	private final double tickRate;
+	/** The amount of ticks recorded. */
+	private final int tickCount;
+	/** The amount of ticks replayed. */
+	private int tick;
+
+	private final float initialMouseX, initialMouseY;
+	private final int[] initialKeyArray, initialButtonArray;
+
+	private boolean isMouseMoved, isMousePolled;
+	private float mouseX, mouseY;
+	private float polledMouseX, polledMouseY;
+
+	/** Initializes a new InputReplay, reading a recording file.
+	 *
+	 * @param path			The path of a file written by an InputRecorder.
+	 * @throws IOException	If the file can't be read or is not a valid recording.
+	 */
+	public InputReplay(String path) throws IOException {
+		byte[] data = Files.readAllBytes(Paths.get(path));
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+
+		if(data.length < 4 || input.readInt() != InputRecorder.magic) {
+			throw new IOException("Not an input recording: " + path);
+		}
+
+		tickRate = input.readDouble();
+		initialMouseX = input.readFloat();
+		initialMouseY = input.readFloat();
+		initialKeyArray = readArray(input);
+		initialButtonArray = readArray(input);
+
+		int headerSize = data.length - input.available();
+		int tickCount = 0;
+
+		// Counts the frames up front, which also validates the whole file before anything is replayed.
+		while(input.available() > 0) {
+			readFrame(input, false);
+			tickCount++;
+		}
+
+		this.tickCount = tickCount;
+		this.input = new DataInputStream(new ByteArrayInputStream(data, headerSize, data.length - headerSize));
+	}
+
+	/** Applies the recorded keys, buttons, wheel and mouse position of the current tick. Called by the engine before the
+	 * scene is updated.
+	 */
+	public void beginTick() {
+		if(isFinished()) return;
+
+		if(tick == 0) {
+			KeyboardHandler.getPressedKeyList().clear();
+			MouseHandler.getPressedButtonList().clear();
+
+			for(int key : initialKeyArray) {
+				KeyboardHandler.pressKey(key);
+			}
+
+			for(int button : initialButtonArray) {
+				MouseHandler.pressButton(button);
+			}
+
+			KeyboardHandler.getReleasedKeyList().clear();
+			MouseHandler.getReleasedButtonList().clear();
+			MouseHandler.setMousePosition(new Vector2f(initialMouseX, initialMouseY));
+		}
+
+		try {
+			readFrame(input, true);
+		} catch (IOException e) {
+			// The frames were validated when the file was read, so this can't happen.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** Applies the mouse position polled at the end of the current tick and advances to the next one. Called by the engine
+	 * before the input handlers are updated.
+	 */
+	public void endTick() {
+		if(isFinished()) return;
+
+		if(isMousePolled) MouseHandler.setMousePosition(new Vector2f(polledMouseX, polledMouseY));
+
+		tick++;
+	}
+
+	/** Reads a frame, applying it to the input handlers if requested.
+	 *
+	 * Released keys are applied before the pressed ones, which rebuilds the exact state seen when recording: a key
+	 * pressed and released in the same tick ends up released, while a key released and pressed again ends up pressed.
+	 *
+	 * @param input			The stream to read from.
+	 * @param apply			A flag to apply the frame (false only checks it).
+	 * @throws IOException	If the frame is truncated.
+	 */
+	private void readFrame(DataInputStream input, boolean apply) throws IOException {
+		int flags = input.readUnsignedByte();
+		int[] pressedKeyArray = (flags & InputRecorder.keysPressedFlag) != 0 ? readArray(input) : null;
+		int[] releasedKeyArray = (flags & InputRecorder.keysReleasedFlag) != 0 ? readArray(input) : null;
+		int[] pressedButtonArray = (flags & InputRecorder.buttonsPressedFlag) != 0 ? readArray(input) : null;
+		int[] releasedButtonArray = (flags & InputRecorder.buttonsReleasedFlag) != 0 ? readArray(input) : null;
+		int wheel = 0;
+
+		if((flags & InputRecorder.wheelFlag) != 0) {
+			int value = readVarInt(input);
+
+			wheel = (value >>> 1) ^ -(value & 1);
+		}
+
+		isMouseMoved = (flags & InputRecorder.mouseMovedFlag) != 0;
+
+		if(isMouseMoved) {
+			mouseX = input.readFloat();
+			mouseY = input.readFloat();
+		}
+
+		isMousePolled = (flags & InputRecorder.mousePolledFlag) != 0;
+
+		if(isMousePolled) {
+			polledMouseX = input.readFloat();
+			polledMouseY = input.readFloat();
+		}
+
+		if(!apply) return;
+
+		if(isMouseMoved) MouseHandler.setMousePosition(new Vector2f(mouseX, mouseY));
+
+		if(releasedKeyArray != null) {
+			for(int key : releasedKeyArray) KeyboardHandler.releaseKey(key);
+		}
+
+		if(pressedKeyArray != null) {
+			for(int key : pressedKeyArray) KeyboardHandler.pressKey(key);
+		}
+
+		if(releasedButtonArray != null) {
+			for(int button : releasedButtonArray) MouseHandler.releaseButton(button);
+		}
+
+		if(pressedButtonArray != null) {
+			for(int button : pressedButtonArray) MouseHandler.pressButton(button);
+		}
+
+		MouseHandler.scrollWheel(wheel);
+	}
+
+	private static int[] readArray(DataInputStream input) throws IOException {
+		int[] array = new int[readVarInt(input)];
+
+		for(int i = 0; i < array.length; i++) {
+			array[i] = readVarInt(input);
+		}
+
+		return array;
+	}
+
+	private static int readVarInt(DataInputStream input) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			if(shift > 28) throw new IOException("Malformed input recording.");
+
+			b = input.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+
+		return value;
+	}
+
+	/** Checks if every recorded tick has been replayed.
+	 *
+	 * @return	True if there are no ticks left.
+	 */
+	public boolean isFinished() {
+		return tick >= tickCount;
+	}
+
+	public double getTickRate() {
+		return tickRate;
+	}
+
+	public int getTickCount() {
+		return tickCount;
+	}
+
+	public int getTick() {
+		return tick;
+	}
+}
@@ -4,26 +4,63 @@ import fusyon.engine.main.Settings;
 
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.Queue;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class KeyboardHandler extends KeyAdapter{
 
 	private static TreeSet<Integer> pressedKeyList = new TreeSet<Integer>();
 	private static TreeSet<Integer> releasedKeyList = new TreeSet<Integer>();
+
+	/** Keyboard events received from AWT, waiting to be applied at the start of the next tick. */
+	private static final Queue<Runnable> eventQueue = new ConcurrentLinkedQueue<Runnable>();
 	
 	public void keyPressed(KeyEvent e) {
 		int key = e.getKeyCode();
-		
+
+		eventQueue.add(() -> pressKey(key));
+	}
+	
+	public void keyReleased(KeyEvent e) {
+		int key = e.getKeyCode();
+
+		eventQueue.add(() -> releaseKey(key));
+	}
+
+	/** Applies all the keyboard events received since the last call. Called by the engine at the start of each tick,
+	 * so the keys only change between ticks.
+	 */
+	public static void pollEvents() {
+		Runnable event;
+
+		while((event = eventQueue.poll()) != null) {
+			event.run();
+		}
+	}
+
+	/** Discards all the keyboard events received since the last call (e.g. while replaying recorded inputs). */
+	public static void clearEvents() {
+		eventQueue.clear();
+	}
+
+	/** Presses a key, as if it came from the keyboard. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param key	A key code.
+	 */
+	public static void pressKey(int key) {
 		pressedKeyList.add(key);
 		
 		if(releasedKeyList.contains(key)) {
 			releasedKeyList.remove(key);
 		}
 	}
-	
-	public void keyReleased(KeyEvent e) {
-		int key = e.getKeyCode();
-		
+
+	/** Releases a key, as if it came from the keyboard. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param key	A key code.
+	 */
+	public static void releaseKey(int key) {
 		pressedKeyList.remove(key);
 		releasedKeyList.add(key);
 	}
@@ -52,6 +89,14 @@ public class KeyboardHandler extends KeyAdapter{
 		return getKeyUp(Settings.getInput(name));
 	}
 	
+	public static TreeSet<Integer> getPressedKeyList() {
+		return pressedKeyList;
+	}
+
+	public static TreeSet<Integer> getReleasedKeyList() {
+		return releasedKeyList;
+	}
+	
 	public void update() {
 		releasedKeyList.clear();
 	}
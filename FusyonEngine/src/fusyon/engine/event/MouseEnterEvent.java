@@ -0,0 +1,22 @@
+package fusyon.engine.event;
+
+import fusyon.engine.gameobject.component.Collider;
+
+/** Published when the mouse is found over a Collider by the mouse picking. The Collider receives it through
+ * onMouseEnter.
+ */
+public class MouseEnterEvent {
+
+	public static final EventType<MouseEnterEvent> TYPE = new EventType<MouseEnterEvent>("MouseEnter", MouseEnterEvent::new);
+
+	/** The Collider under the mouse. */
+	private Collider collider;
+
+	public Collider getCollider() {
+		return collider;
+	}
+
+	public void setCollider(Collider collider) {
+		this.collider = collider;
+	}
+}
@@ -5,13 +5,16 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.util.Queue;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import fusyon.engine.gameobject.Camera;
 import fusyon.engine.gfx.RendererHandler;
 import fusyon.engine.main.Display;
 import fusyon.engine.main.Engine;
 import fusyon.engine.main.Physics;
+import fusyon.engine.main.Profiler;
 import fusyon.engine.util.Vector2f;
 
 public class MouseHandler extends MouseAdapter implements MouseWheelListener{
@@ -26,23 +29,58 @@ public class MouseHandler extends MouseAdapter implements MouseWheelListener{
 	private static TreeSet<Integer> pressedButtonList = new TreeSet<Integer>();
 	private static TreeSet<Integer> releasedButtonList = new TreeSet<Integer>();
 
+	/** Mouse events received from AWT, waiting to be applied at the start of the next tick. */
+	private static final Queue<Runnable> eventQueue = new ConcurrentLinkedQueue<Runnable>();
+
 	public MouseHandler(){
-		mousePosition = Vector2f.zero;
+		mousePosition = new Vector2f(0, 0);
 	}
 	
 	public void mousePressed(MouseEvent e) {
 		int button = e.getButton();
-		
+
+		eventQueue.add(() -> pressButton(button));
+	}
+	
+	public void mouseReleased(MouseEvent e)	{
+		int button = e.getButton();
+
+		eventQueue.add(() -> releaseButton(button));
+	}
+
+	/** Applies all the mouse events received since the last call. Called by the engine at the start of each tick, so
+	 * the buttons and the wheel only change between ticks.
+	 */
+	public static void pollEvents() {
+		Runnable event;
+
+		while((event = eventQueue.poll()) != null) {
+			event.run();
+		}
+	}
+
+	/** Discards all the mouse events received since the last call (e.g. while replaying recorded inputs). */
+	public static void clearEvents() {
+		eventQueue.clear();
+	}
+
+	/** Presses a button, as if it came from the mouse. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param button	A mouse button.
+	 */
+	public static void pressButton(int button) {
 		pressedButtonList.add(button);
 		
 		if(releasedButtonList.contains(button)) {
 			releasedButtonList.remove(button);
 		}
 	}
-	
-	public void mouseReleased(MouseEvent e)	{
-		int button = e.getButton();
-		
+
+	/** Releases a button, as if it came from the mouse. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param button	A mouse button.
+	 */
+	public static void releaseButton(int button) {
 		pressedButtonList.remove(button);
 		releasedButtonList.add(button);
 	}
@@ -64,7 +102,17 @@ public class MouseHandler extends MouseAdapter implements MouseWheelListener{
 	}
 	
 	public void mouseWheelMoved(MouseWheelEvent e) {
-		mouseWheelValue = e.getWheelRotation();
+		int rotation = e.getWheelRotation();
+
+		eventQueue.add(() -> scrollWheel(rotation));
+	}
+
+	/** Rotates the mouse wheel. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param rotation	The amount of notches rotated (negative values mean up/away from the user).
+	 */
+	public static void scrollWheel(int rotation) {
+		mouseWheelValue = rotation;
 	}
 	
 	public static boolean getMouseWheelUp(){
@@ -75,30 +123,64 @@ public class MouseHandler extends MouseAdapter implements MouseWheelListener{
 		return mouseWheelValue < 0;
 	}
 
+	public static int getMouseWheelValue() {
+		return mouseWheelValue;
+	}
+
+	/** Updates the mouse position and checks which colliders are under the mouse.
+	 *
+	 * On headless displays, or while recorded inputs are replayed, the pointer is not polled, so the position set
+	 * through setMousePosition is kept.
+	 */
 	public void update(){
 		Display display = Engine.engine.getDisplay();
 
 		if(display != null){
-			if(display.getCanvas().isShowing()){
+			if(display.isHeadless() || Engine.engine.getInputReplay() != null){
+				isMouseOverCanvas = false;
+
+				updateMousePicking();
+			}else if(display.getCanvas().isShowing()){
 				float mouseX = (float) (MouseInfo.getPointerInfo().getLocation().getX() - display.getCanvas().getLocationOnScreen().getX());
 				float mouseY = (float) (MouseInfo.getPointerInfo().getLocation().getY() - display.getCanvas().getLocationOnScreen().getY());
 				
 				mousePosition = new Vector2f(mouseX, mouseY);
 				isMouseOverCanvas = false;
 
-				Physics.mouseCanvasOverlapAll();
-				Physics.mouseOverlapAll();
+				updateMousePicking();
 			}
 		}
+	}
 
+	/** Clears the wheel rotation and the buttons released during the tick. Called by the engine at the end of each
+	 * tick, after the events have been dispatched.
+	 */
+	public void endTick(){
 		mouseWheelValue = 0;
 		releasedButtonList.clear();
 	}
 
+	/** Checks which canvas and world colliders are under the mouse. */
+	private void updateMousePicking(){
+		long time = Profiler.start();
+
+		Physics.mouseCanvasOverlapAll();
+		Physics.mouseOverlapAll();
+		Profiler.stop(Profiler.Phase.MOUSE_PICKING, time);
+	}
+
 	public static Vector2f getMousePosition() {
 		return mousePosition;
 	}
 
+	/** Moves the mouse to a position on the display. Used to feed synthetic inputs (e.g. on headless displays).
+	 *
+	 * @param mousePosition	A position relative to the display's top left corner.
+	 */
+	public static void setMousePosition(Vector2f mousePosition) {
+		MouseHandler.mousePosition = mousePosition;
+	}
+
 	public static Vector2f getMouseWorldPosition(){
 		Camera camera = Engine.engine.getScene().getCamera();
 
@@ -110,19 +192,22 @@ public class MouseHandler extends MouseAdapter implements MouseWheelListener{
 
 		float cameraDistance = camera.distance;
 
-		Vector2f cameraPosition = camera.getPosition().multiply(cameraDistance);
-		Vector2f stretch = RendererHandler.getStretch();
-		Vector2f stretchFactor = RendererHandler.getStretchFactor();
-
-		cameraPosition.x *= stretchFactor.x;
-		cameraPosition.y *= stretchFactor.y;
-
-		float mousePositionX =  mousePosition.x / stretch.x;
-		float mousePositionY =  mousePosition.y / stretch.y;
-		float cameraPositionX = (cameraPosition.x + camera.offset.x - display.getWidth() / 2f) / stretch.x;
-		float cameraPositionY = (cameraPosition.y + camera.offset.y - display.getHeight() / 2f) / stretch.y;
-
-		return new Vector2f(mousePositionX + cameraPositionX, mousePositionY + cameraPositionY);
+		// The returned vector is the only one allocated, holding the stretch factor until the result is written.
+		Vector2f mouseWorldPosition = RendererHandler.getStretchFactor(new Vector2f(0, 0));
+		Vector2f position = camera.getPosition();
+		float stretchFactorX = mouseWorldPosition.x;
+		float stretchFactorY = mouseWorldPosition.y;
+		float stretchX = stretchFactorX * cameraDistance;
+		float stretchY = stretchFactorY * cameraDistance;
+		float cameraPositionX = position.x * cameraDistance * stretchFactorX;
+		float cameraPositionY = position.y * cameraDistance * stretchFactorY;
+
+		float mousePositionX =  mousePosition.x / stretchX;
+		float mousePositionY =  mousePosition.y / stretchY;
+		cameraPositionX = (cameraPositionX + camera.offset.x - display.getWidth() / 2f) / stretchX;
+		cameraPositionY = (cameraPositionY + camera.offset.y - display.getHeight() / 2f) / stretchY;
+
+		return mouseWorldPosition.set(mousePositionX + cameraPositionX, mousePositionY + cameraPositionY);
 	}
 
 	public static TreeSet<Integer> getPressedButtonList() {
@@ -8,7 +8,7 @@ public class Camera extends GameObject {
 
     public float distance = 1;
 
-    public Vector2 offset = Vector2.zero;
+    public Vector2 offset = new Vector2(0, 0);
     public Color backgroundColor = new Color(255, 255, 255);
 
     public Camera() {
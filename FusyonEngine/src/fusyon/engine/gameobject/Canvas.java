@@ -27,7 +27,7 @@ public class Canvas extends GameObject {
             new Vector2(2, 2)
     };
 
-    private Vector2f size = Vector2f.zero;
+    private Vector2f size = new Vector2f(0, 0);
     private AnchorPoint anchorPoint = AnchorPoint.TOP_LEFT;
 
     public Canvas(String name, RenderModel renderModel, AnchorPoint anchorPoint) {
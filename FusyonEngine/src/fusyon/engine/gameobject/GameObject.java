@@ -1,10 +1,19 @@
 package fusyon.engine.gameobject;
 
 import fusyon.engine.gameobject.component.Component;
+import fusyon.engine.gameobject.component.ComponentType;
+import fusyon.engine.main.EntityStorage;
+import fusyon.engine.main.Scene;
+import fusyon.engine.main.Settings;
+import fusyon.engine.main.SimulationLod;
+import fusyon.engine.util.GameMath;
 import fusyon.engine.util.Vector2;
 import fusyon.engine.util.Vector2f;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static fusyon.engine.main.Engine.engine;
@@ -17,21 +26,53 @@ public class GameObject {
 
     /** Its world position. */
     protected Vector2f position;
+    /** Its world position at the start of the current tick, used to interpolate renders between ticks. */
+    protected Vector2f previousPosition;
+    /** The Scene's tick on which the previous position was stored (-1 if it wasn't stored within a Scene). */
+    private long previousPositionTick = -1;
     /** Its local position (relative to the parent's). */
     protected Vector2f localPosition;
+    /** A flag that indicates if the world position is outdated, due to a parent's move. */
+    private boolean isPositionDirty;
+    /** A flag that indicates if the GameObject is queued to notify its transform listeners. */
+    private boolean isTransformChanged;
+    /** The last Scene notification pass on which its transform listeners were notified. */
+    private int transformPass;
     /** A refenrece to the parent, if it exists. */
     protected GameObject parent;
+    /** The Scene the GameObject was added to (null if it is not within a Scene). */
+    private Scene scene;
+    /** The prefab the GameObject was created from by a PrefabPool (null if it wasn't). */
+    private IPrefab prefab;
 
     /** A flag that indicates if the GameObject's Component are able to be updated and rendered or not. */
     private boolean isActive;
 
     /** The name of the GameObject. */
     private String name;
+    /** Its tags, one bit for each tag registered in the Settings. */
+    private int tags;
+    /** Its layer, as registered in the Settings. */
+    private int layer = Settings.defaultLayer;
 
     /** A list containing all its children. */
     protected List<GameObject> childrenList;
     /** A list containing all its components. */
     private List<Component> componentList;
+    /** The first of its Components of each type, indexed by the type id of the Component's class and superclasses. */
+    private Component[] componentTable = emptyComponentTable;
+    /** The results of getComponentsInChildren, indexed by type id (null if not cached). */
+    private List<?>[] componentsInChildrenCache = emptyComponentsInChildrenCache;
+
+    private static final Component[] emptyComponentTable = new Component[0];
+    private static final List<?>[] emptyComponentsInChildrenCache = new List<?>[0];
+
+    /** The storage keeping a copy of its position, if its RigidBody is stored (null otherwise). */
+    private EntityStorage entityStorage;
+    /** Its index within the storage. */
+    private int entityIndex = -1;
+    /** Its state within the Scene's SimulationLod (null if the Scene doesn't use it). */
+    private SimulationLod.Entry simulationEntry;
 
     /** Initializes a new GameObject.
      *
@@ -41,7 +82,8 @@ public class GameObject {
         this.name = name;
 
         isActive = true;
-        position = Vector2f.zero;
+        position = new Vector2f(0, 0);
+        previousPosition = position;
         localPosition = position;
         childrenList = new ArrayList<GameObject>();
         componentList = new ArrayList<Component>();
@@ -60,66 +102,197 @@ public class GameObject {
      * @param vector    Amount to increase.
      */
     public void increasePosition(Vector2f vector){
+        Vector2f position = getPosition();
+
         setPosition(new Vector2f(position.x + vector.x, position.y + vector.y));
     }
 
+    /** Gets the GameObject's world position.
+     *
+     * If the position is dirty (a parent has moved since it was last read), it is recalculated from the parent's world
+     * position and the local one, and kept until the next move.
+     *
+     * @return  A world position.
+     */
     public Vector2f getPosition() {
+        if(isPositionDirty){
+            Vector2f parentPosition = parent.getPosition();
+
+            position = new Vector2f(parentPosition.x + localPosition.x, parentPosition.y + localPosition.y);
+            isPositionDirty = false;
+        }
+
         return position;
     }
 
     /** Changes the GameObject's world position.
      *
-     * If the GameObject has any children, then their position are modified in relation to their parent's. The
-     * GameObject's local position relative to its parent (if any) is also calculated.
+     * The GameObject's local position relative to its parent (if any) is calculated. Its children are only marked as
+     * dirty, so their world positions are recalculated when they are read, no matter how many times the GameObject
+     * moves before that. The Components listening to transform changes are notified once, at the end of the tick.
      *
      * @param position  A world position.
      */
     public void setPosition(Vector2f position) {
+        storeOutdatedPreviousPosition();
+
         this.position = position;
+        isPositionDirty = false;
 
-        for(GameObject children : childrenList){
-            children.setPosition(new Vector2f(position.x + children.localPosition.x, position.y + children.localPosition.y));
+        if(parent != null){
+            Vector2f parentPosition = parent.getPosition();
+
+            localPosition = new Vector2f(position.x - parentPosition.x, position.y - parentPosition.y);
+        }else{
+            localPosition = position;
         }
 
-        if(parent != null){
-            localPosition = new Vector2f(position.x - parent.getPosition().x, position.y - parent.getPosition().y);
+        if(entityStorage != null) entityStorage.setPosition(entityIndex, position);
+
+        markChildrenDirty();
+        markTransformChanged();
+    }
+
+    /** Stores the current world position as the previous one. Called by the Scene at the start of every tick, for
+     * the GameObjects that are awake.
+     */
+    public void storePreviousPosition(){
+        previousPosition = getPosition();
+        previousPositionTick = scene != null ? scene.getTimerWheel().getTick() : -1;
+    }
+
+    /** Stores the previous position before a move, if it wasn't stored on the current tick, in the GameObject and in
+     * all of its children.
+     *
+     * GameObjects skipped by the Scene (e.g. sleeping in the SimulationLod) can still be moved by scripts or by the
+     * EntityStorage, and would otherwise be interpolated from the position they had when they fell asleep.
+     */
+    private void storeOutdatedPreviousPosition(){
+        if(scene == null || previousPositionTick == scene.getTimerWheel().getTick()) return;
+
+        storePreviousPosition();
+
+        for(GameObject children : childrenList){
+            children.storeOutdatedPreviousPosition();
         }
     }
 
+    /** Gets the world position at the start of the current tick.
+     *
+     * @return  The previous world position, or the current one if the previous wasn't stored on the current tick
+     *          (the GameObject hasn't moved since).
+     */
+    public Vector2f getPreviousPosition() {
+        if(scene != null && previousPositionTick != scene.getTimerWheel().getTick()) return getPosition();
+
+        return previousPosition;
+    }
+
+    /** Gets the world position interpolated between the previous tick and the current one.
+     *
+     * @param alpha How far (between 0 and 1) to interpolate from the previous position to the current one.
+     * @return      An interpolated world position.
+     */
+    public Vector2f getInterpolatedPosition(float alpha){
+        Vector2f position = getPosition();
+        Vector2f previousPosition = getPreviousPosition();
+
+        if(alpha >= 1 || previousPosition == position) return position;
+
+        return GameMath.lerp(previousPosition, position, alpha);
+    }
+
     public Vector2f getLocalPosition() {
         return localPosition;
     }
 
     /** Change the GameObject's local position.
      *
-     * If the GameObject doesn't has a parent, its world position will be modified instead. Otherwise, a new world
-     * position will be calculated in relation with the new local position and all its children will have a new world
-     * position calculated in relation with the new local position.
+     * If the GameObject doesn't has a parent, its world position will be modified instead. Otherwise, its world
+     * position and its children's are marked as dirty, to be recalculated when they are read.
      *
      * @param localPosition A local position (relative to the parent).
      */
     public void setLocalPosition(Vector2f localPosition) {
-        if(parent != null){
-            position = new Vector2f(parent.getPosition().x + localPosition.x, parent.getPosition().y + localPosition.y);
-        }else{
+        if(parent == null){
             setPosition(localPosition);
             return;
         }
 
+        storeOutdatedPreviousPosition();
+        this.localPosition = localPosition;
+
+        if(!isPositionDirty){
+            isPositionDirty = true;
+            markChildrenDirty();
+        }
+
+        markTransformChanged();
+    }
+
+    /** Marks the world position of all children as dirty, at any depth.
+     *
+     * A dirty children's own children are already dirty, so they are skipped.
+     */
+    private void markChildrenDirty(){
         for(GameObject children : childrenList){
-            children.setPosition(new Vector2f(position.x + children.localPosition.x, position.y + children.localPosition.y));
+            if(!children.isPositionDirty){
+                children.isPositionDirty = true;
+                children.markChildrenDirty();
+            }
         }
+    }
 
-        this.localPosition = localPosition;
+    /** Queues the GameObject to have its transform listeners notified at the end of the tick (once per tick). */
+    private void markTransformChanged(){
+        if(isTransformChanged || scene == null) return;
+
+        isTransformChanged = true;
+        scene.queueTransformChange(this);
+    }
+
+    /** Notifies the Components that implement ITransformListener, in the GameObject and in all of its children.
+     * Called by the Scene once per tick, for each GameObject moved during it.
+     *
+     * @param pass  The Scene's notification pass. A GameObject already notified on the pass (e.g. because it has moved
+     *              along with its parent) is skipped.
+     */
+    public void notifyTransformChanged(int pass){
+        isTransformChanged = false;
+
+        if(transformPass == pass || scene == null) return;
+
+        transformPass = pass;
+
+        if(simulationEntry != null) scene.getSimulationLod().move(this);
+
+        for(Component component : componentList){
+            if(component instanceof ITransformListener) ((ITransformListener) component).onTransformChanged();
+        }
+
+        for(GameObject children : childrenList){
+            children.notifyTransformChanged(pass);
+        }
     }
 
     public GameObject getParent() {
         return parent;
     }
 
+    /** Changes the GameObject's parent, keeping its world position.
+     *
+     * A GameObject whose RigidBody is kept by an EntityStorage is taken out of it, since the storage only keeps root
+     * GameObjects.
+     *
+     * @param parent    The new parent (null to make it a root GameObject).
+     */
     public void setParent(GameObject parent) {
+        Vector2f position = getPosition();
+
         this.parent = parent;
 
+        if(parent != null && entityStorage != null) entityStorage.remove(entityIndex);
+
         setPosition(position);
     }
 
@@ -131,6 +304,7 @@ public class GameObject {
         if(!childrenList.contains(children)){
             children.setParent(this);
             childrenList.add(children);
+            clearComponentsInChildrenCache();
         }
     }
 
@@ -139,6 +313,7 @@ public class GameObject {
             children.setParent(this);
             children.setPosition(position);
             childrenList.add(children);
+            clearComponentsInChildrenCache();
         }
     }
 
@@ -149,12 +324,99 @@ public class GameObject {
     public void removeChildren(GameObject children){
         children.setParent(null);
         childrenList.remove(children);
+        clearComponentsInChildrenCache();
+    }
+
+    /** Gets a GameObject's Component by type.
+     *
+     * The lookup is made in constant time and doesn't allocate, through a table indexed by type id. Subclasses are
+     * matched as well (e.g. a RectangleCollider is returned for Collider).
+     *
+     * @param type  A Component class.
+     * @param <T>   The Component type.
+     * @return      The first added Component of the type (null if nothing was found).
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T getComponent(Class<T> type){
+        int id = ComponentType.getId(type);
+
+        return id < componentTable.length ? (T) componentTable[id] : null;
+    }
+
+    /** Gets all Components of a type within the GameObject and its children, at any depth.
+     *
+     * The result is cached until a Component or children is added or removed anywhere down the hierarchy, so repeated
+     * calls don't allocate. Must be called from the game thread.
+     *
+     * @param type  A Component class.
+     * @param <T>   The Component type.
+     * @return      An unmodifiable list of the Components, the GameObject's first and then each children's, in order.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> List<T> getComponentsInChildren(Class<T> type){
+        int id = ComponentType.getId(type);
+
+        if(id >= componentsInChildrenCache.length){
+            componentsInChildrenCache = Arrays.copyOf(componentsInChildrenCache, ComponentType.getCount());
+        }
+
+        List<T> componentList = (List<T>) componentsInChildrenCache[id];
+
+        if(componentList == null){
+            List<T> foundList = new ArrayList<>();
+
+            collectComponents(type, foundList);
+            componentList = Collections.unmodifiableList(foundList);
+            componentsInChildrenCache[id] = componentList;
+        }
+
+        return componentList;
+    }
+
+    private <T extends Component> void collectComponents(Class<T> type, List<T> foundList){
+        for(Component component : componentList){
+            if(type.isInstance(component)) foundList.add(type.cast(component));
+        }
+
+        for(GameObject children : childrenList){
+            children.collectComponents(type, foundList);
+        }
+    }
+
+    /** Clears the cached results of getComponentsInChildren, in the GameObject and in all of its parents. */
+    private void clearComponentsInChildrenCache(){
+        for(GameObject object = this; object != null; object = object.parent){
+            Arrays.fill(object.componentsInChildrenCache, null);
+        }
+    }
+
+    /** Adds a Component to the type table, under its class and each of its superclasses up to Component.
+     *
+     * @param component A Component within the GameObject.
+     */
+    private void indexComponent(Component component){
+        Class<?> type = component.getClass();
+
+        while(true){
+            int id = ComponentType.getId(type);
+
+            if(id >= componentTable.length){
+                componentTable = Arrays.copyOf(componentTable, Math.max(id + 1, ComponentType.getCount()));
+            }
+
+            if(componentTable[id] == null) componentTable[id] = component;
+
+            if(type == Component.class) break;
+
+            type = type.getSuperclass();
+        }
     }
 
     /** Gets a GameObject's Component by name (case sensitive).
      *
      * The method will firstly search for a Component name equal to the provided. If it hasn't found any,
-     * then it will search for Components names containing the provided one.
+     * then it will search for Components names containing the provided one. Both searches are linear, so
+     * getComponent(Class) should be preferred on hot paths.
      *
      * @param name  A Component name.
      * @return      The first found Component (null if nothing was found).
@@ -203,6 +465,10 @@ public class GameObject {
         if(!componentList.contains(component)){
             component.setParent(this);
             componentList.add(component);
+            indexComponent(component);
+            clearComponentsInChildrenCache();
+
+            if(scene != null) scene.refreshDispatch(component);
         }
     }
 
@@ -210,13 +476,205 @@ public class GameObject {
         engine.getScene().addObject(gameObject, gameObject.getPosition());
     }
 
+    /** Spawns a GameObject from a prefab into the current Scene, reusing a parked one if there is any.
+     *
+     * @param prefab    A prefab.
+     * @param position  A world position.
+     * @return          The spawned GameObject.
+     */
+    public static GameObject instantiate(IPrefab prefab, Vector2f position){
+        return engine.getScene().getPrefabPool().spawn(prefab, position);
+    }
+
+    /** Adds many GameObjects to the current Scene at once, each at its current position.
+     *
+     * @param gameObjects   The GameObjects to add.
+     */
+    public static void instantiateAll(Collection<GameObject> gameObjects){
+        engine.getScene().addObjects(gameObjects);
+    }
+
+    /** Removes a GameObject from the Scene it was added to (or from the current one, if it wasn't added to any).
+     *
+     * GameObjects spawned from a prefab are parked by the Scene's PrefabPool instead, to be reused.
+     *
+     * @param gameObject    The GameObject to remove.
+     */
     public static void destroy(GameObject gameObject){
-        engine.getScene().removeObject(gameObject);
+        Scene scene = gameObject.getScene();
+
+        if(scene == null) scene = engine.getScene();
+
+        if(gameObject.prefab != null){
+            scene.getPrefabPool().despawn(gameObject);
+        }else{
+            scene.removeObject(gameObject);
+        }
+    }
+
+    /** Removes many GameObjects from the current Scene at once.
+     *
+     * GameObjects spawned from a prefab are parked by the PrefabPool of their Scene instead, as in destroy.
+     *
+     * @param gameObjects   The GameObjects to remove.
+     */
+    public static void destroyAll(Collection<GameObject> gameObjects){
+        Scene scene = engine.getScene();
+        List<GameObject> removedList = new ArrayList<>(gameObjects.size());
+
+        for(GameObject gameObject : gameObjects){
+            if(gameObject.prefab == null){
+                removedList.add(gameObject);
+            }else{
+                Scene objectScene = gameObject.getScene();
+
+                (objectScene != null ? objectScene : scene).getPrefabPool().despawn(gameObject);
+            }
+        }
+
+        scene.removeObjects(removedList);
     }
 
     public void removeComponent(Component component){
         component.setParent(null);
-        componentList.remove(component);
+
+        if(componentList.remove(component)){
+            Arrays.fill(componentTable, null);
+
+            for(Component remainingComponent : componentList){
+                indexComponent(remainingComponent);
+            }
+
+            clearComponentsInChildrenCache();
+
+            if(scene != null) scene.refreshDispatch(component);
+        }
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    /** Sets the Scene the GameObject is within. Called by the Scene when the GameObject is added or removed.
+     *
+     * @param scene The Scene (null if the GameObject was removed).
+     */
+    public void setScene(Scene scene) {
+        this.scene = scene;
+    }
+
+    public SimulationLod.Entry getSimulationEntry() {
+        return simulationEntry;
+    }
+
+    public void setSimulationEntry(SimulationLod.Entry simulationEntry) {
+        this.simulationEntry = simulationEntry;
+    }
+
+    public IPrefab getPrefab() {
+        return prefab;
+    }
+
+    public void setPrefab(IPrefab prefab) {
+        this.prefab = prefab;
+    }
+
+    public EntityStorage getEntityStorage() {
+        return entityStorage;
+    }
+
+    public int getEntityIndex() {
+        return entityIndex;
+    }
+
+    /** Sets where a copy of the position is kept. Called by the EntityStorage when its RigidBody is stored or moved.
+     *
+     * @param entityStorage The storage (null if the RigidBody was removed from it).
+     * @param entityIndex   The index within the storage.
+     */
+    public void setEntityStorage(EntityStorage entityStorage, int entityIndex) {
+        this.entityStorage = entityStorage;
+        this.entityIndex = entityIndex;
+    }
+
+    /** Adds tags to the GameObject, updating the Scene's index.
+     *
+     * @param tags  A mask of tags, as returned by Settings.addTag.
+     */
+    public void addTag(int tags){
+        setTags(this.tags | tags);
+    }
+
+    public void addTag(String tag){
+        addTag(Settings.getTag(tag));
+    }
+
+    /** Removes tags from the GameObject, updating the Scene's index.
+     *
+     * @param tags  A mask of tags, as returned by Settings.addTag.
+     */
+    public void removeTag(int tags){
+        setTags(this.tags & ~tags);
+    }
+
+    public void removeTag(String tag){
+        removeTag(Settings.getTag(tag));
+    }
+
+    /** Checks if the GameObject has all tags of a mask.
+     *
+     * @param tags  A mask of tags.
+     * @return      True if it has every one of them.
+     */
+    public boolean hasTag(int tags){
+        return (this.tags & tags) == tags;
+    }
+
+    public boolean hasTag(String tag){
+        int tags = Settings.getTag(tag);
+
+        return tags != 0 && hasTag(tags);
+    }
+
+    public int getTags() {
+        return tags;
+    }
+
+    public void setTags(int tags) {
+        int oldTags = this.tags;
+
+        if(oldTags == tags) return;
+
+        this.tags = tags;
+
+        if(scene != null) scene.reindexTags(this, oldTags);
+    }
+
+    public int getLayer() {
+        return layer;
+    }
+
+    /** Moves the GameObject to a layer, updating the Scene's index.
+     *
+     * @param layer A layer's index, as returned by Settings.addLayer.
+     */
+    public void setLayer(int layer) {
+        int oldLayer = this.layer;
+
+        if(layer < 0 || layer >= Settings.maxTagCount){
+            System.err.println("[ENGINE ERROR]: The layer " + layer + " of " + name + " is out of bounds.");
+            return;
+        }
+
+        if(oldLayer == layer) return;
+
+        this.layer = layer;
+
+        if(scene != null) scene.reindexLayer(this, oldLayer);
+    }
+
+    public void setLayer(String layer) {
+        setLayer(Settings.getLayer(layer));
     }
 
     public boolean isActive() {
@@ -0,0 +1,11 @@
+package fusyon.engine.gameobject;
+
+/** Marks a Component as safe to be updated in parallel with other Components.
+ *
+ * The Scene updates all active parallel Components across the engine's worker threads before updating the other ones.
+ * Every update call finishes before any lateUpdate call starts, and every lateUpdate call finishes before the serial
+ * Components are updated. Thus, a parallel Component must only change its own state and its own GameObject's, and
+ * must not add or remove GameObjects, Components or Colliders, nor request renders.
+ */
+public interface IParallelUpdatable {
+}
@@ -0,0 +1,15 @@
+package fusyon.engine.gameobject;
+
+/** A template from which GameObjects are created, usually a lambda or a method reference to a factory method.
+ *
+ * The prefab instance itself is the key of its pool within the Scene's PrefabPool, so the same instance must be used
+ * every time (e.g. kept in a static field).
+ */
+public interface IPrefab {
+
+    /** Creates a new GameObject, with all its Components and children.
+     *
+     * @return  A GameObject that was never added to a Scene.
+     */
+    GameObject create();
+}
@@ -0,0 +1,12 @@
+package fusyon.engine.gameobject;
+
+/** Marks a Component as interested in the moves of its GameObject.
+ *
+ * The Scene notifies the listeners once per tick, at the end of it, for each GameObject that has moved during the tick,
+ * either by itself or along with a parent. The notification is not repeated for each assignment of the position.
+ */
+public interface ITransformListener {
+
+    /** Called at the end of a tick on which the GameObject's world position has changed. */
+    void onTransformChanged();
+}
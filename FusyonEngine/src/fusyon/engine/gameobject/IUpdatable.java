@@ -15,7 +15,7 @@ public interface IUpdatable {
 
     /** Render method that ill be called whenever possible.
      *
-     * @param g A reference to Graphics, instantiated in the RendererHandler.
+     * @param g A reference to Graphics, instantiated in the RendererHandler (null when rendering is pipelined).
      */
     void render(Graphics g);
 
@@ -19,8 +19,8 @@ public class Tile extends GameObject {
     public Tile(String name, BufferedImage sprite, boolean isCollidable) {
         super(name);
 
-        addComponent(spriteRenderer = new SpriteRenderer(new RenderModel(0, Settings.SortingLayers.BACKGROUND, Vector2f.zero, Vector2f.one, sprite)));
-        addComponent(rectangleCollider = new RectangleCollider(Vector2f.zero, new Vector2f(sprite.getWidth(), sprite.getHeight())));
+        addComponent(spriteRenderer = new SpriteRenderer(new RenderModel(0, Settings.SortingLayers.BACKGROUND, new Vector2f(0, 0), new Vector2f(1, 1), sprite)));
+        addComponent(rectangleCollider = new RectangleCollider(new Vector2f(0, 0), new Vector2f(sprite.getWidth(), sprite.getHeight())));
         addComponent(animator = new Animator());
 
         rectangleCollider.setActive(isCollidable);
@@ -51,4 +51,4 @@ public class Tile extends GameObject {
     public void setAnimator(Animator animator) {
         this.animator = animator;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
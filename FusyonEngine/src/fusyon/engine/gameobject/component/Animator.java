@@ -2,7 +2,6 @@ package fusyon.engine.gameobject.component;
 
 import fusyon.engine.util.AnimationClip;
 
-import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +20,7 @@ public class Animator extends Component {
 
     @Override
     public void start() {
-        spriteRenderer = (SpriteRenderer) getParent().getComponent("SpriteRenderer");
+        spriteRenderer = getParent().getComponent(SpriteRenderer.class);
     }
 
     @Override
@@ -47,8 +46,10 @@ public class Animator extends Component {
     }
 
     @Override
-    public void render(Graphics g) {
-
+    public void reset() {
+        for(AnimationClip animationClip : animationClipList){
+            if(animationClip.isPlaying()) animationClip.stop();
+        }
     }
 
     @Override
@@ -8,17 +8,15 @@ import fusyon.engine.util.IButton;
 import fusyon.engine.util.ICollider;
 import fusyon.engine.util.Vector2f;
 
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.TreeSet;
 import java.awt.image.BufferedImage;
 
 import static fusyon.engine.main.Engine.engine;
 
 public class ButtonScript extends Component {
 
-    public Vector2f offset = Vector2f.zero;
-    public Vector2f size = Vector2f.zero;
+    public Vector2f offset = new Vector2f(0, 0);
+    public Vector2f size = new Vector2f(0, 0);
 
     private RectangleCollider rectangleCollider;
     private SpriteRenderer spriteRenderer;
@@ -44,7 +42,7 @@ public class ButtonScript extends Component {
 
     @Override
     public void start() {
-        spriteRenderer = (SpriteRenderer) getParent().getComponent("SpriteRenderer");
+        spriteRenderer = getParent().getComponent(SpriteRenderer.class);
 
         rectangleCollider.setParent(getParent());
         rectangleCollider.setCanvasCollider(true);
@@ -57,19 +55,19 @@ public class ButtonScript extends Component {
 
             @Override
             public void onMouseEnter() {
-                List<Integer> mousePressedButtonList = new ArrayList<>(MouseHandler.getPressedButtonList());
-                List<Integer> mouseReleasedButtonList = new ArrayList<>(MouseHandler.getReleasedButtonList());
+                TreeSet<Integer> mousePressedButtonList = MouseHandler.getPressedButtonList();
+                TreeSet<Integer> mouseReleasedButtonList = MouseHandler.getReleasedButtonList();
 
                 spriteRenderer.renderModel.setSprite(hoveredSprite);
 
-                if(mousePressedButtonList.size() > 0){
+                if(!mousePressedButtonList.isEmpty()){
                     spriteRenderer.renderModel.setSprite(pressedSprite);
 
-                    if(iButton != null) iButton.onMousePress(mousePressedButtonList.get(0));
-                }else if(mouseReleasedButtonList.size() > 0){
+                    if(iButton != null) iButton.onMousePress(mousePressedButtonList.first());
+                }else if(!mouseReleasedButtonList.isEmpty()){
                     spriteRenderer.renderModel.setSprite(pressedSprite);
 
-                    if(iButton != null) iButton.onMouseClick(mouseReleasedButtonList.get(0));
+                    if(iButton != null) iButton.onMouseClick(mouseReleasedButtonList.first());
                 }
 
                 if(iButton != null) iButton.onMouseEnter();
@@ -83,11 +81,6 @@ public class ButtonScript extends Component {
         rectangleCollider.update(delta);
     }
 
-    @Override
-    public void render(Graphics g) {
-
-    }
-
     @Override
     public void destroy() {
 
@@ -1,16 +1,22 @@
 package fusyon.engine.gameobject.component;
 
+import fusyon.engine.gameobject.ITransformListener;
 import fusyon.engine.util.ColliderHit;
 import fusyon.engine.main.Physics;
 import fusyon.engine.util.ICollider;
 import fusyon.engine.util.Vector2f;
 
-import java.awt.*;
 import java.util.List;
 
-public abstract class Collider extends Component{
+/** A shape attached to a GameObject, kept in the Scene's broad-phase to be found by the Physics queries.
+ *
+ * The Collider follows its GameObject through transform notifications: it is moved within the broad-phase once per
+ * tick in which the GameObject has moved, instead of checking the position on every update. Moving it only changes the
+ * broad-phase when it leaves its fat box.
+ */
+public abstract class Collider extends Component implements ITransformListener {
 
-    public Vector2f position = Vector2f.zero;
+    public Vector2f position = new Vector2f(0, 0);
     public Vector2f offset;
     public Vector2f size;
 
@@ -21,6 +27,9 @@ public abstract class Collider extends Component{
     private Vector2f lastPosition;
     private ICollider iCollider;
 
+    /** The id of the Collider's leaf within the broad-phase (-1 if it is not in it). */
+    private int proxyId = -1;
+
     public Collider(String name, Vector2f offset, Vector2f size) {
         super(name);
 
@@ -41,21 +50,18 @@ public abstract class Collider extends Component{
 
     @Override
     public void start() {
+        if(getParent() != null) position = getParent().getPosition();
+
         Physics.addCollider(this);
 
         lastPosition = position;
     }
 
     @Override
-    public void update(float delta) {
+    public void onTransformChanged() {
         updatePosition();
     }
 
-    @Override
-    public void render(Graphics g) {
-
-    }
-
     @Override
     public void destroy() {
         Physics.removeCollider(this);
@@ -70,12 +76,26 @@ public abstract class Collider extends Component{
             return;
         }
 
-        if(!newPosition.compare(lastPosition)){
-            if(Physics.removeCollider(this)) {
-                position = newPosition;
-                Physics.addCollider(this);
-                lastPosition = position;
-            }
+        if(!newPosition.compare(lastPosition) && proxyId != -1){
+            position = newPosition;
+            Physics.moveCollider(this);
+            lastPosition = position;
+        }
+    }
+
+    /** Takes the Collider out of the broad-phase while its GameObject is parked by a PrefabPool, or puts it back at
+     * its GameObject's position when it is spawned again.
+     *
+     * @param parked    A flag to park the Collider.
+     */
+    public void setParked(boolean parked){
+        if(parked){
+            Physics.removeCollider(this);
+        }else{
+            if(getParent() != null) position = getParent().getPosition();
+
+            Physics.addCollider(this);
+            lastPosition = position;
         }
     }
 
@@ -83,10 +103,31 @@ public abstract class Collider extends Component{
         return getParent().getPosition().add(offset);
     }
 
+    /** Called when the Collider starts touching another one (overlapping it, or being blocked by it while moved by a
+     * RigidBody), once the engine's EventBus is dispatched at the end of the tick.
+     *
+     * @param colliderHit   The other Collider's data. It is reused after the call, so it must not be kept.
+     */
     public void onCollisionEnter(ColliderHit colliderHit){
         if(iCollider != null) iCollider.onCollisionEnter(colliderHit);
     }
 
+    /** Called on each tick after the first one in which the Collider keeps touching another one.
+     *
+     * @param colliderHit   The other Collider's data. It is reused after the call, so it must not be kept.
+     */
+    public void onCollisionStay(ColliderHit colliderHit){
+        if(iCollider != null) iCollider.onCollisionStay(colliderHit);
+    }
+
+    /** Called on the tick in which the Collider stops touching another one, or either of them is removed.
+     *
+     * @param colliderHit   The other Collider's data. It is reused after the call, so it must not be kept.
+     */
+    public void onCollisionExit(ColliderHit colliderHit){
+        if(iCollider != null) iCollider.onCollisionExit(colliderHit);
+    }
+
     public void onMouseEnter(){
         if(iCollider != null) iCollider.onMouseEnter();
     }
@@ -111,6 +152,14 @@ public abstract class Collider extends Component{
         this.ignoreMouseRaycast = ignoreMouseRaycast;
     }
 
+    public int getProxyId() {
+        return proxyId;
+    }
+
+    public void setProxyId(int proxyId) {
+        this.proxyId = proxyId;
+    }
+
     public boolean isTrigger() {
         return isTrigger;
     }
@@ -3,6 +3,12 @@ package fusyon.engine.gameobject.component;
 import fusyon.engine.gameobject.GameObject;
 import fusyon.engine.gameobject.IUpdatable;
 import fusyon.engine.main.Engine;
+import fusyon.engine.main.Job;
+
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 import static fusyon.engine.main.Engine.engine;
 
@@ -15,6 +21,9 @@ public abstract class Component implements IUpdatable {
     /** A flag that indicates if the Component is able to be updated and rendered or not. */
     private boolean isActive;
 
+    /** The amount of ticks between its updates. */
+    private int tickInterval = 1;
+
     /** The name of the Component. */
     private String name;
     /** The GameObject that contains the Component. */
@@ -33,12 +42,72 @@ public abstract class Component implements IUpdatable {
     /** Called before the start method. */
     public void awake(){}
 
-    /** Called after a regular update.
+    /** Called when a pooled GameObject is spawned again, before it is activated, to restore the Component's initial
+     * state. The awake and start methods are not called again.
+     */
+    public void reset(){}
+
+    /** Called once per tick. Components that don't override it are left out of the Scene's update phase.
+     *
+     * @param delta The time passed (>= 1) since the last frame.
+     */
+    @Override
+    public void update(float delta){}
+
+    /** Called after a regular update. Components that don't override it are left out of the Scene's late update phase.
      *
      * @param delta The time passed (>= 1) since the last frame.
      */
     public void lateUpdate(float delta){}
 
+    /** Called once per frame. Components that don't override it are left out of the Scene's render phase.
+     *
+     * @param g A reference to Graphics, instantiated in the RendererHandler (null when rendering is pipelined).
+     */
+    @Override
+    public void render(Graphics g){}
+
+    /** Gets the phases the Component is called on by the Scene. By default, the phases whose method its class
+     * overrides. Components may override it to leave phases they don't need at the moment, calling
+     * {@code refreshDispatch} on the Scene whenever the result changes.
+     *
+     * @return  A mask of ComponentType.UPDATE, ComponentType.LATE_UPDATE and ComponentType.RENDER.
+     */
+    public int getDispatchPhases(){
+        return ComponentType.getPhases(getClass());
+    }
+
+    /** Runs work in the background, owned by the parent GameObject, delivering its result on the game thread.
+     *
+     * @param work          The work to be run on a background thread. It must not access the Scene.
+     * @param onComplete    Called on the game thread with the work's result, before a tick's update.
+     * @param <T>           The type of the result.
+     * @return              A handle to the job, cancelled if the parent is removed from the Scene.
+     */
+    protected <T> Job<T> runJob(Callable<T> work, Consumer<T> onComplete){
+        return engine.getJobScheduler().submit(parent, work, onComplete);
+    }
+
+    /** Waits for an amount of simulated time, owned by the parent GameObject.
+     *
+     * @param seconds   The time to wait (in seconds).
+     * @param callback  Called on the game thread when the time is over.
+     * @return          A handle to the wait, cancelled if the parent is removed from the Scene.
+     */
+    protected Job<Void> waitSeconds(float seconds, Runnable callback){
+        return engine.getJobScheduler().waitSeconds(parent, seconds, callback);
+    }
+
+    /** Waits until a condition is met, owned by the parent GameObject.
+     *
+     * @param condition The condition to wait for, checked once per tick.
+     * @param callback  Called on the game thread when the condition is met.
+     * @return          A handle to the wait, cancelled if the parent is removed from the Scene.
+     */
+    protected Job<Void> waitUntil(BooleanSupplier condition, Runnable callback){
+        return engine.getJobScheduler().waitUntil(parent, condition, callback);
+    }
+
     public boolean isActive() {
         return isActive;
     }
@@ -47,6 +116,22 @@ public abstract class Component implements IUpdatable {
         isActive = active;
     }
 
+    public int getTickInterval() {
+        return tickInterval;
+    }
+
+    /** Sets how often the Component is updated. A Component with an interval of N is updated (and late updated) once
+     * every N ticks, receiving the time accumulated since its last update. The Scene spreads the Components sharing an
+     * interval evenly across its ticks, so they don't all update on the same one.
+     *
+     * @param tickInterval  The amount of ticks between updates (1 to update on every tick).
+     */
+    public void setTickInterval(int tickInterval) {
+        this.tickInterval = Math.max(1, tickInterval);
+
+        if(parent != null && parent.getScene() != null) parent.getScene().refreshDispatch(this);
+    }
+
     public GameObject getParent() {
         return parent;
     }
@@ -0,0 +1,80 @@
+package fusyon.engine.gameobject.component;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Gives each Component class a dense type id, starting at 0, in the order the classes are first seen.
+ *
+ * The ids index the small per-GameObject lookup tables used by {@code GameObject.getComponent(Class)}, as well as the
+ * per-type timings of the Profiler. Ids are shared by all threads, and never change once given.
+ */
+public final class ComponentType {
+
+    /** The phase of the tick on which update is called. */
+    public static final int UPDATE = 1;
+    /** The phase of the tick on which lateUpdate is called. */
+    public static final int LATE_UPDATE = 2;
+    /** The phase of the frame on which render is called. */
+    public static final int RENDER = 4;
+
+    /** The amount of ids given so far. */
+    private static final AtomicInteger typeCount = new AtomicInteger();
+    /** Relates each class with its type id. */
+    private static final ClassValue<Integer> typeId = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return typeCount.getAndIncrement();
+        }
+    };
+
+    /** Relates each class with the phases it overrides. */
+    private static final ClassValue<Integer> typePhases = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int phases = 0;
+
+            if(isOverridden(type, "update", float.class)) phases |= UPDATE;
+            if(isOverridden(type, "lateUpdate", float.class)) phases |= LATE_UPDATE;
+            if(isOverridden(type, "render", Graphics.class)) phases |= RENDER;
+
+            return phases;
+        }
+    };
+
+    private ComponentType(){}
+
+    /** Gets the type id of a class, giving it a new one if it has none yet.
+     *
+     * @param type  A class (usually a Component subclass).
+     * @return      Its type id.
+     */
+    public static int getId(Class<?> type){
+        return typeId.get(type);
+    }
+
+    /** Gets the amount of ids given so far.
+     *
+     * @return  One more than the greatest id.
+     */
+    public static int getCount(){
+        return typeCount.get();
+    }
+
+    /** Gets the phases whose methods (update, lateUpdate and render) a Component class overrides, found once per
+     * class by reflection. The empty methods declared by Component itself are not dispatched.
+     *
+     * @param type  A Component subclass.
+     * @return      A mask of UPDATE, LATE_UPDATE and RENDER.
+     */
+    public static int getPhases(Class<? extends Component> type){
+        return typePhases.get(type);
+    }
+
+    private static boolean isOverridden(Class<?> type, String name, Class<?> parameterType){
+        try{
+            return type.getMethod(name, parameterType).getDeclaringClass() != Component.class;
+        }catch(NoSuchMethodException e){
+            return false;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package fusyon.engine.gameobject.component;
 
 import fusyon.engine.gameobject.GameObject;
 
-import java.awt.*;
 import java.util.List;
 
 public class GridLayout extends Component{
@@ -18,16 +17,6 @@ public class GridLayout extends Component{
         childrenList = getParent().getChildrenList();
     }
 
-    @Override
-    public void update(float delta) {
-
-    }
-
-    @Override
-    public void render(Graphics g) {
-
-    }
-
     @Override
     public void destroy() {
 
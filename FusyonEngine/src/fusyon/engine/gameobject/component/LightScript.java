@@ -40,12 +40,9 @@ public class LightScript extends Component{
 
     Random random = new Random();
 
-    @Override
-    public void update(float delta) {}
-
     @Override
     public void render(Graphics g) {
-        RendererHandler.renderLight(this, getParent().getPosition());
+        RendererHandler.renderLight(this, getParent());
     }
 
     @Override
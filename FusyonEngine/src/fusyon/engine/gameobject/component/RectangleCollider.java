@@ -27,6 +27,15 @@ public class RectangleCollider extends Collider{
     }
 
     public Vector2f getCenter(){
-        return position.add(offset).add(size.divide(2));
+        return getCenter(new Vector2f(0, 0));
+    }
+
+    /** Writes the center of the rectangle into a vector.
+     *
+     * @param out   The vector to write into.
+     * @return      The given vector.
+     */
+    public Vector2f getCenter(Vector2f out){
+        return out.set(position.x + offset.x + size.x / 2, position.y + offset.y + size.y / 2);
     }
 }
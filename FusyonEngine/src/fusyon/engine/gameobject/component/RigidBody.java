@@ -1,20 +1,33 @@
 package fusyon.engine.gameobject.component;
 
-import fusyon.engine.util.ColliderHit;
+import fusyon.engine.main.EntityStorage;
+import fusyon.engine.main.Physics;
 import fusyon.engine.util.GameMath;
+import fusyon.engine.util.SweepHit;
 import fusyon.engine.util.Vector2f;
 
-import java.awt.*;
-import java.util.List;
+import static fusyon.engine.main.Engine.engine;
 
+/** Moves its GameObject by a velocity, which is reduced by a drag every tick.
+ *
+ * If the Scene has an EntityStorage, and neither the body has a Collider nor its GameObject has a parent, its velocity
+ * and drag are kept in the storage's arrays and it is moved by the Scene along with all the other stored bodies,
+ * instead of by its own update. The accessors below work the same way in both cases.
+ */
 public class RigidBody extends Component{
 
     public float mass = 1;
-    public float linearDrag = 0.3f;
+    private float linearDrag = 0.3f;
 
-    public Vector2f linearVelocity = Vector2f.zero;
+    /** The velocity, changed in place (a copy is kept by the EntityStorage while the body is stored). */
+    private final Vector2f linearVelocity = new Vector2f(0, 0);
     public Collider collider;
 
+    /** The storage where the body's motion is kept (null if the body is updated on its own). */
+    private EntityStorage entityStorage;
+    /** The body's index within the storage. */
+    private int entityIndex = -1;
+
     public RigidBody(float mass, float linearDrag) {
         super("RigidBody");
 
@@ -28,77 +41,168 @@ public class RigidBody extends Component{
 
     @Override
     public void start() {
-        collider = (Collider) getParent().getComponent("Collider");
+        collider = getParent().getComponent(Collider.class);
+
+        EntityStorage sceneStorage = engine.getScene() != null ? engine.getScene().getEntityStorage() : null;
+
+        if(collider == null && getParent().getParent() == null && sceneStorage != null && entityStorage == null){
+            entityIndex = sceneStorage.add(this);
+            entityStorage = sceneStorage;
+            refreshDispatch();
+        }
     }
 
     @Override
     public void update(float delta) {
-        linearVelocity = linearVelocity.multiply(GameMath.clamp(1 - linearDrag, 0, 1));
+        // Stored bodies are moved by the Scene, through the EntityStorage.
+        if(entityStorage != null) return;
+
+        linearVelocity.multiplyLocal(GameMath.clamp(1 - linearDrag, 0, 1));
+
+        Vector2f position = getParent().getPosition();
 
-        movePosition(getParent().getPosition().add(linearVelocity.multiply(delta)));
+        movePosition(position.x + linearVelocity.x * delta, position.y + linearVelocity.y * delta);
     }
 
     @Override
-    public void render(Graphics g) {
-
+    public void reset() {
+        setLinearVelocity(Vector2f.zero);
     }
 
     @Override
     public void destroy() {
-
+        if(entityStorage != null) entityStorage.remove(entityIndex);
     }
 
+    /** Applies a force to the body, changing its velocity according to its mass.
+     *
+     * Each component of the force is scaled by the absolute value of the force's direction on that axis. The given
+     * vector is not modified.
+     *
+     * @param force A force.
+     */
     public void applyForce(Vector2f force){
-        Vector2f forceDirection = force.normalize();
-        force.x *= Math.abs(forceDirection.x);
-        force.y *= Math.abs(forceDirection.y);
-        Vector2f linearAcceleration = force.divide(mass);
-        linearVelocity = linearVelocity.add(linearAcceleration);
-    }
-
-    public void movePosition(Vector2f position){
-        float stepX = position.x - getParent().getPosition().x;
-        float stepY = position.y - getParent().getPosition().y;
-
-        if(stepX == 0 && stepY == 0) return;
-
-        if(collider != null) {
-            boolean canMove = true;
-
-            List<ColliderHit> colliderHitList;
-
-            collider.offset.x += stepX;
-            colliderHitList = collider.overlapColliderAll();
-            collider.offset.x -= stepX;
-
-            for(ColliderHit colliderHit : colliderHitList) {
-                if (collider.isTrigger() || colliderHit == null || colliderHit.getCollider().isTrigger()){
-                    continue;
-                }else{
-                    canMove = false;
-                    break;
-                }
-            }
-
-            if(canMove) getParent().setPosition(new Vector2f(position.x, getParent().getPosition().y));
-
-            canMove = true;
-            collider.offset.y += stepY;
-            colliderHitList = collider.overlapColliderAll();
-            collider.offset.y -= stepY;
-
-            for(ColliderHit colliderHit : colliderHitList) {
-                if (collider.isTrigger() || colliderHit == null || colliderHit.getCollider().isTrigger()){
-                    continue;
-                }else{
-                    canMove = false;
-                    break;
-                }
-            }
-
-            if(canMove) getParent().setPosition(new Vector2f(getParent().getPosition().x, position.y));
+        float magnitude = force.magnitude();
+        float forceX = force.x * (magnitude == 0 ? 0 : Math.abs(force.x / magnitude));
+        float forceY = force.y * (magnitude == 0 ? 0 : Math.abs(force.y / magnitude));
+
+        if(entityStorage != null){
+            entityStorage.addLinearVelocity(entityIndex, forceX / mass, forceY / mass);
+        }else{
+            linearVelocity.set(linearVelocity.x + forceX / mass, linearVelocity.y + forceY / mass);
+        }
+    }
+
+    public SweepHit movePosition(Vector2f position){
+        return movePosition(position.x, position.y);
+    }
+
+    /** Moves the GameObject towards a world position, stopping where its Collider touches a non-trigger Collider, and
+     * sliding along it for the rest of the move. The touched Collider is recorded as touching the body's one, since
+     * they never overlap.
+     *
+     * The Collider is swept along the whole move at once, so it doesn't pass through thin Colliders at any speed.
+     *
+     * @param x The target x position.
+     * @param y The target y position.
+     * @return  The first Collider touched, with the fraction of the move made before touching it and the normal of its
+     *          touched side (null if nothing was touched, or if the body has no Collider).
+     */
+    public SweepHit movePosition(float x, float y){
+        Vector2f currentPosition = getParent().getPosition();
+        float stepX = x - currentPosition.x;
+        float stepY = y - currentPosition.y;
+
+        if(stepX == 0 && stepY == 0) return null;
+
+        if(collider == null){
+            getParent().setPosition(new Vector2f(x, y));
+            return null;
+        }
+
+        Vector2f destination = new Vector2f(0, 0);
+        SweepHit sweepHit = Physics.sweepCollider(collider, currentPosition, stepX, stepY, destination);
+
+        if(sweepHit != null) Physics.addContact(collider, sweepHit.getCollider());
+
+        if(!destination.compare(currentPosition)) getParent().setPosition(destination);
+
+        return sweepHit;
+    }
+
+    /** Copies the motion kept by the EntityStorage back into the body. Called by the storage when the body is removed.
+     *
+     * @param linearVelocity    The stored velocity.
+     * @param linearDrag        The stored drag.
+     */
+    public void unstore(Vector2f linearVelocity, float linearDrag){
+        this.linearVelocity.set(linearVelocity);
+        this.linearDrag = linearDrag;
+
+        entityStorage = null;
+        entityIndex = -1;
+        refreshDispatch();
+    }
+
+    /** Leaves the update phase while the body is kept by the EntityStorage, which moves it instead.
+     *
+     * @return  The phases of the RigidBody.
+     */
+    @Override
+    public int getDispatchPhases() {
+        int phases = super.getDispatchPhases();
+
+        return entityStorage != null ? phases & ~ComponentType.UPDATE : phases;
+    }
+
+    private void refreshDispatch(){
+        if(getParent() != null && getParent().getScene() != null) getParent().getScene().refreshDispatch(this);
+    }
+
+    /** Gets the body's velocity.
+     *
+     * @return  The body's own vector, changed in place on every update (a copy, if the body is stored).
+     */
+    public Vector2f getLinearVelocity() {
+        return entityStorage != null ? entityStorage.getLinearVelocity(entityIndex) : linearVelocity;
+    }
+
+    /** Sets the body's velocity, copying the given vector.
+     *
+     * @param linearVelocity    A velocity.
+     */
+    public void setLinearVelocity(Vector2f linearVelocity) {
+        if(entityStorage != null){
+            entityStorage.setLinearVelocity(entityIndex, linearVelocity);
+        }else{
+            this.linearVelocity.set(linearVelocity);
+        }
+    }
+
+    public float getLinearDrag() {
+        return entityStorage != null ? entityStorage.getLinearDrag(entityIndex) : linearDrag;
+    }
+
+    public void setLinearDrag(float linearDrag) {
+        if(entityStorage != null){
+            entityStorage.setLinearDrag(entityIndex, linearDrag);
         }else{
-            getParent().setPosition(position);
+            this.linearDrag = linearDrag;
         }
     }
+
+    @Override
+    public void setActive(boolean active) {
+        super.setActive(active);
+
+        if(entityStorage != null) entityStorage.setActive(entityIndex, active);
+    }
+
+    public int getEntityIndex() {
+        return entityIndex;
+    }
+
+    public void setEntityIndex(int entityIndex) {
+        this.entityIndex = entityIndex;
+    }
 }
@@ -25,11 +25,6 @@ public class SpriteRenderer extends Component{
 
     }
 
-    @Override
-    public void update(float delta) {
-
-    }
-
     @Override
     public void render(Graphics g) {
         RendererHandler.request(renderModel, getParent());
@@ -35,12 +35,7 @@ public class TextRenderer extends Component{
 
     @Override
     public void start() {
-        spriteRenderer = (SpriteRenderer) getParent().getComponent("SpriteRenderer");
-    }
-
-    @Override
-    public void update(float delta) {
-
+        spriteRenderer = getParent().getComponent(SpriteRenderer.class);
     }
 
     @Override
@@ -25,7 +25,7 @@ public class TilemapCollider extends Component {
 
     @Override
     public void start() {
-        tilemapRenderer = (TilemapRenderer) getParent().getComponent("TilemapRenderer");
+        tilemapRenderer = getParent().getComponent(TilemapRenderer.class);
 
         List<TileChunk> tileChunkList = new ArrayList<>(tilemapRenderer.getTileChunkMap().values());
 
@@ -38,16 +38,6 @@ public class TilemapCollider extends Component {
         }
     }
 
-    @Override
-    public void update(float delta) {
-
-    }
-
-    @Override
-    public void render(Graphics g) {
-
-    }
-
     @Override
     public void destroy() {
 
@@ -26,7 +26,7 @@ public class TilemapRenderer extends Component{
     private boolean needUpdate;
 
     private TilemapCollider tilemapCollider;
-    private RenderModel renderModel = new RenderModel(renderLayer, sortingLayer, Vector2f.zero, Vector2f.one, null);
+    private RenderModel renderModel = new RenderModel(renderLayer, sortingLayer, new Vector2f(0, 0), new Vector2f(1, 1), null);
 
     private Map<BufferedImage, BufferedImage> animationSpriteBufferMap = new HashMap<>();
     private Map<Dimension, TileChunk> tileChunkMap = new HashMap<>();
@@ -41,7 +41,7 @@ public class TilemapRenderer extends Component{
 
     @Override
     public void start() {
-        tilemapCollider = (TilemapCollider) getParent().getComponent("TilemapCollider");
+        tilemapCollider = getParent().getComponent(TilemapCollider.class);
 
         for(Tile tile : tileSet){
             tile.getAnimator().setSpriteRenderer(tile.getSpriteRenderer());
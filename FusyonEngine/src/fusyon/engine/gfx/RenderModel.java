@@ -25,11 +25,11 @@ public class RenderModel {
     private int instanceID;
 
     /** Default offset relative to the GameObject's position. */
-    private Vector2f offset = Vector2f.zero;
+    private Vector2f offset = new Vector2f(0, 0);
     /** Default scale of the sprite. */
-    private Vector2f scale = Vector2f.one;
-    private Vector2f origin = Vector2f.zero;
-    private Vector2f lastSize = Vector2f.zero;
+    private Vector2f scale = new Vector2f(1, 1);
+    private Vector2f origin = new Vector2f(0, 0);
+    private Vector2f lastSize = new Vector2f(0, 0);
     /** Default sprite that will be rendered. */
     private BufferedImage sprite;
     /** The sorting layer used to organize render layer order into groups. */
@@ -224,7 +224,7 @@ public class RenderModel {
     }
 
     public Vector2f getSize() {
-        return sprite == null ? Vector2f.zero : new Vector2f(sprite.getWidth(), sprite.getHeight());
+        return sprite == null ? new Vector2f(0, 0) : new Vector2f(sprite.getWidth(), sprite.getHeight());
     }
 
     public Vector2f getOrigin() {
@@ -0,0 +1,247 @@
+package fusyon.engine.gfx;
+
+import fusyon.engine.gameobject.Camera;
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.component.LightScript;
+import fusyon.engine.main.Settings;
+import fusyon.engine.util.Vector2f;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A copy of everything needed to draw a frame, recorded from a Scene.
+ *
+ * The snapshot holds plain values (positions, sprites, offsets, scales and light instances) instead of references to
+ * live GameObjects, so once recorded it can be drawn by another thread while the Scene keeps being updated. Both the
+ * previous and the current tick positions are stored, so the frame can be interpolated when drawn. All buffers are
+ * reused between frames to avoid garbage.
+ */
+public class RenderSnapshot {
+
+    /** The time (as given by System.nanoTime) at which the snapshot was recorded. */
+    long captureTime;
+
+    /** The camera distance at the time of the record. */
+    float cameraDistance;
+    /** The camera world position at the previous tick. */
+    float previousCameraX, previousCameraY;
+    /** The camera world position at the current tick. */
+    float cameraX, cameraY;
+    /** The camera offset already subtracted by half the display's size. */
+    int cameraOffsetX, cameraOffsetY;
+    /** The stretch factor of the display at the time of the record. */
+    float stretchFactorX = 1, stretchFactorY = 1;
+
+    /** The color that will be painted when cleaning the screen. */
+    Color backgroundColor;
+
+    /** All batches requested in this frame, in the order they were first requested. */
+    final List<Batch> batchList = new ArrayList<>();
+    /** Relates each RenderModel with its batch. */
+    private final Map<RenderModel, Batch> batchMap = new IdentityHashMap<>();
+    /** Batches from previous frames that can be reused. */
+    private final List<Batch> batchPool = new ArrayList<>();
+
+    /** The amount of lights requested in this frame. */
+    int lightCount;
+    /** All lights requested in this frame (only the first lightCount are valid). */
+    Light[] lightArray = new Light[16];
+
+    /** Clears all the recorded data, keeping the buffers for reuse. */
+    void clear(){
+        for(Batch batch : batchList){
+            batch.clear();
+            batchPool.add(batch);
+        }
+
+        batchList.clear();
+        batchMap.clear();
+
+        for(int i = 0; i < lightCount; i++){
+            lightArray[i].lightMapArray = null;
+        }
+
+        lightCount = 0;
+        backgroundColor = null;
+    }
+
+    /** Records the camera state.
+     *
+     * @param camera            The scene's camera (null if there is none).
+     * @param stretchFactor     The display's stretch factor.
+     * @param displayWidth      The display's width.
+     * @param displayHeight     The display's height.
+     */
+    void recordCamera(Camera camera, Vector2f stretchFactor, int displayWidth, int displayHeight){
+        stretchFactorX = stretchFactor.x;
+        stretchFactorY = stretchFactor.y;
+
+        if(camera == null){
+            cameraDistance = 1f;
+            previousCameraX = previousCameraY = cameraX = cameraY = 0;
+            cameraOffsetX = cameraOffsetY = 0;
+
+            return;
+        }
+
+        Vector2f previousPosition = camera.getPreviousPosition();
+        Vector2f position = camera.getPosition();
+
+        cameraDistance = camera.distance;
+        previousCameraX = previousPosition.x;
+        previousCameraY = previousPosition.y;
+        cameraX = position.x;
+        cameraY = position.y;
+        cameraOffsetX = camera.offset.x - displayWidth / 2;
+        cameraOffsetY = camera.offset.y - displayHeight / 2;
+        backgroundColor = camera.backgroundColor;
+    }
+
+    /** Records a RenderModel being drawn for a GameObject.
+     *
+     * The RenderModel's instance data is resolved at this moment, based on how many times the model has already been
+     * requested in this frame.
+     *
+     * @param renderModel   A valid RenderModel.
+     * @param object        A valid GameObject.
+     */
+    void recordSprite(RenderModel renderModel, GameObject object){
+        Batch batch = batchMap.get(renderModel);
+
+        if(batch == null){
+            batch = batchPool.isEmpty() ? new Batch() : batchPool.remove(batchPool.size() - 1);
+            batch.set(renderModel);
+            batchMap.put(renderModel, batch);
+            batchList.add(batch);
+        }
+
+        renderModel.setInstanceID(batch.requestCount++);
+
+        BufferedImage sprite = renderModel.getSprite();
+
+        if(sprite == null) return;
+
+        Vector2f offset = renderModel.getOffset();
+        Vector2f scale = renderModel.getScale();
+        Vector2f position = object.getPosition();
+        Vector2f previousPosition = batch.useLocalPosition ? position : object.getPreviousPosition();
+
+        batch.add(sprite, offset.x, offset.y, scale.x, scale.y, previousPosition.x, previousPosition.y, position.x, position.y);
+    }
+
+    /** Records a light being drawn.
+     *
+     * @param lightScript       The script on which the light attributes are stored.
+     * @param previousPosition  The light's world position at the previous tick.
+     * @param position          The light's world position at the current tick.
+     */
+    void recordLight(LightScript lightScript, Vector2f previousPosition, Vector2f position){
+        if(lightCount == lightArray.length){
+            lightArray = Arrays.copyOf(lightArray, lightCount * 2);
+        }
+
+        Light light = lightArray[lightCount];
+
+        if(light == null){
+            light = lightArray[lightCount] = new Light();
+        }
+
+        light.useLightmap = lightScript.useLightmap;
+        light.outerRadius = lightScript.outerRadius;
+        light.diameter = lightScript.getDiameter();
+        light.color = lightScript.color.getRGB();
+        light.blendSmoothness = lightScript.blendSmoothness;
+        light.lightMapArray = lightScript.getLightMapArray();
+        light.previousX = previousPosition.x;
+        light.previousY = previousPosition.y;
+        light.x = position.x;
+        light.y = position.y;
+
+        lightCount++;
+    }
+
+    /** All the instances of a RenderModel requested in a frame, stored as parallel arrays. */
+    static class Batch {
+
+        boolean useLocalPosition;
+        boolean keepProportion;
+        boolean isOverlay;
+
+        int layerOrder;
+        Settings.SortingLayers sortingLayer;
+
+        /** The amount of times the RenderModel was requested, including the ones without a sprite. */
+        int requestCount;
+        /** The amount of instances stored. */
+        int count;
+
+        BufferedImage[] sprites = new BufferedImage[4];
+        float[] offsetX = new float[4], offsetY = new float[4];
+        float[] scaleX = new float[4], scaleY = new float[4];
+        float[] previousX = new float[4], previousY = new float[4];
+        float[] x = new float[4], y = new float[4];
+
+        void set(RenderModel renderModel){
+            useLocalPosition = renderModel.isUseLocalPosition();
+            keepProportion = renderModel.isKeepProportion();
+            isOverlay = renderModel.isOverlay();
+            layerOrder = renderModel.getLayerOrder();
+            sortingLayer = renderModel.getSortingLayer();
+        }
+
+        void add(BufferedImage sprite, float offsetX, float offsetY, float scaleX, float scaleY, float previousX, float previousY, float x, float y){
+            if(count == sprites.length){
+                int capacity = count * 2;
+
+                sprites = Arrays.copyOf(sprites, capacity);
+                this.offsetX = Arrays.copyOf(this.offsetX, capacity);
+                this.offsetY = Arrays.copyOf(this.offsetY, capacity);
+                this.scaleX = Arrays.copyOf(this.scaleX, capacity);
+                this.scaleY = Arrays.copyOf(this.scaleY, capacity);
+                this.previousX = Arrays.copyOf(this.previousX, capacity);
+                this.previousY = Arrays.copyOf(this.previousY, capacity);
+                this.x = Arrays.copyOf(this.x, capacity);
+                this.y = Arrays.copyOf(this.y, capacity);
+            }
+
+            sprites[count] = sprite;
+            this.offsetX[count] = offsetX;
+            this.offsetY[count] = offsetY;
+            this.scaleX[count] = scaleX;
+            this.scaleY[count] = scaleY;
+            this.previousX[count] = previousX;
+            this.previousY[count] = previousY;
+            this.x[count] = x;
+            this.y[count] = y;
+
+            count++;
+        }
+
+        void clear(){
+            Arrays.fill(sprites, 0, count, null);
+            requestCount = 0;
+            count = 0;
+        }
+    }
+
+    /** A light instance requested in a frame. */
+    static class Light {
+
+        boolean useLightmap;
+
+        int outerRadius;
+        int diameter;
+        int color;
+
+        float blendSmoothness;
+        float previousX, previousY;
+        float x, y;
+
+        int[] lightMapArray;
+    }
+}
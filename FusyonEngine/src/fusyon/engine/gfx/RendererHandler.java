@@ -1,10 +1,11 @@
 package fusyon.engine.gfx;
 
-import fusyon.engine.gameobject.Camera;
 import fusyon.engine.gameobject.GameObject;
 import fusyon.engine.gameobject.Canvas;
 import fusyon.engine.gameobject.component.LightScript;
 import fusyon.engine.main.Display;
+import fusyon.engine.main.Profiler;
+import fusyon.engine.main.Scene;
 import fusyon.engine.util.GameMath;
 import fusyon.engine.util.Vector2;
 import fusyon.engine.util.Vector2f;
@@ -45,46 +46,80 @@ public class RendererHandler {
     private static float ambientLightIntensity = 0f;
     /**  */
     private static float cameraDistance;
+    /** How far (between 0 and 1) the current frame is between the last tick and the next one. */
+    private static float interpolationAlpha = 1f;
 
     /** Stores the light map bits as an array of integers. Used by all lights for the calculation process. */
     private static int lightMapArray[];
 
     /** Image that contains all the outputs from light calculation. */
     private static BufferedImage lightMap;
-    /** Holds a reference for the CameraScript to get some attributes, like distance and background color. */
-    private static Camera camera;
-    private static Vector2f cameraPosition;
-    private static Vector2 cameraOffset;
-    private static Vector2f stretchFactor;
+    /** The camera position (already scaled by distance and stretch factor) of the frame being drawn. */
+    private static float cameraPositionX, cameraPositionY;
     /** Manages all drawing stuff. */
     private static Graphics2D graphics2D;
     /** Deals with all graphic's memory. */
     private static BufferStrategy bufferStrategy;
+    /** Offscreen image where everything is drawn when the Display is headless. */
+    private static BufferedImage frameBuffer;
+    /** Stores the frame buffer's pixels as an array of integers (in the format 'rgb'). */
+    private static int frameBufferArray[];
     /** Used for subpixel rendering with float point precision. */
     private static AffineTransform affineTransform;
     /** Reference for the current running Display. **/
     private static Display display;
 
+    /** Orders batches by sorting layer and then by layer order. */
+    private static final Comparator<RenderSnapshot.Batch> batchComparator = (a, b) -> {
+        if(a.sortingLayer == b.sortingLayer){
+            return a.layerOrder - b.layerOrder;
+        }else{
+            return a.sortingLayer.ordinal() - b.sortingLayer.ordinal();
+        }
+    };
+
     /** Number of buffers that will be used by the BufferStrategy. Caution is advised when modifying this number.*/
     private static final int numBuffers = 2;
 
     /** The color that will be painted when cleaning the screen. */
     private static final Color defaultBackgroundColor = Color.WHITE;
 
-    /** Keep tracks of all the relations between RenderModels and GameObjects for memory save. */
-    private static Map<RenderModel, List<GameObject>> batchMap = new HashMap<RenderModel, List<GameObject>>();
+    /** A flag that indicates if the Scene is recorded by the update thread and drawn by a separate render thread. */
+    private static boolean isPipelined;
+    /** A flag that indicates if the pending snapshot has been published and not yet taken by the render thread. */
+    private static boolean isPendingSnapshotFresh;
+
+    /** The snapshot that render requests are recorded into. */
+    private static RenderSnapshot recordSnapshot = new RenderSnapshot();
+    /** The last published snapshot, waiting to be taken by the render thread (only used when pipelined). */
+    private static RenderSnapshot pendingSnapshot = new RenderSnapshot();
+    /** The snapshot being drawn. */
+    private static RenderSnapshot drawSnapshot = recordSnapshot;
+    /** Guards the exchange of snapshots between the update and the render thread. */
+    private static final Object snapshotLock = new Object();
+    /** The stretch factor written on each capture, reused to avoid garbage. */
+    private static final Vector2f stretchFactor = new Vector2f(0, 0);
+    /** Reused list to sort the snapshot's batches. */
+    private static final List<RenderSnapshot.Batch> sortedBatchList = new ArrayList<>();
 
     /** Set things up when starting the engine.
      *
-     * It creates a new BufferStrategy with the desired number of buffers. If using dynamic lights, it will also create
-     * the light map and store all the pixel data in the array.
+     * It creates a new BufferStrategy with the desired number of buffers or, if the Display is headless, an offscreen
+     * frame buffer with the Display's size. If using dynamic lights, it will also create the light map and store all
+     * the pixel data in the array.
      */
     public static void setup(){
         affineTransform = new AffineTransform();
         display = engine.getDisplay();
 
-        System.setProperty("sun.java2d.opengl", "true");
-        display.getCanvas().createBufferStrategy(numBuffers);
+        if(display.isHeadless()){
+            bufferStrategy = null;
+            frameBuffer = new BufferedImage(display.getWidth(), display.getHeight(), BufferedImage.TYPE_INT_RGB);
+            frameBufferArray = ((DataBufferInt) frameBuffer.getRaster().getDataBuffer()).getData();
+        }else{
+            System.setProperty("sun.java2d.opengl", "true");
+            display.getCanvas().createBufferStrategy(numBuffers);
+        }
 
         if(useDynamicLights) {
             lightMapWidth = (Display.baseWidth / lightMapScale) + 1;
@@ -98,9 +133,8 @@ public class RendererHandler {
      * Makes a request for the RendererHandler to draw.
      *
      * When calling this method, it will initially check for a valid RenderModel and GameObject. With both being valid,
-     * the method will check for other GameObjects being rendered with the same RenderModel. In the case of other
-     * GameObjects existing, the new GameObject will be added to the list, thus using the same RenderModel for rendering.
-     * This can save memory for many objects trying to render similar RenderModels over and over.
+     * the request is recorded into the current RenderSnapshot, grouped with the other requests made with the same
+     * RenderModel. The RenderModel's instance data, as well as the GameObject's position, are copied at this moment.
      *
      * @param renderModel   A valid RenderModel to be rendered.
      * @param object        A valid object that is trying to be rendered.
@@ -108,17 +142,53 @@ public class RendererHandler {
     public static void request(RenderModel renderModel, GameObject object){
         if(renderModel == null || object == null) return;
 
-        List<GameObject> objectList = batchMap.get(renderModel);
+        recordSnapshot.recordSprite(renderModel, object);
+    }
+
+    /** Records the current Scene into the record snapshot.
+     *
+     * Render calls are made to get render requests across all objects in the Scene. When pipelined, this must be called
+     * from the update thread, and Graphics is not available to the components (null is given instead).
+     *
+     * @param g A reference to Graphics (null if the scene is not being drawn right now).
+     */
+    public static void capture(Graphics g){
+        Scene scene = engine.getScene();
+
+        recordSnapshot.clear();
+        recordSnapshot.captureTime = System.nanoTime();
+        recordSnapshot.recordCamera(scene == null ? null : scene.getCamera(), getStretchFactor(stretchFactor), display.getWidth(), display.getHeight());
+        cameraDistance = recordSnapshot.cameraDistance;
 
-        if(objectList != null){
-            objectList.add(object);
-        }else{
-            objectList = new ArrayList<>();
+        if(scene != null) scene.render(g);
+    }
+
+    /** Hands the record snapshot to the render thread, which will draw it on its next frame.
+     *
+     * The record snapshot is exchanged with the pending one, so the update thread never writes into a snapshot that
+     * is being drawn.
+     */
+    public static void publish(){
+        synchronized(snapshotLock){
+            RenderSnapshot snapshot = pendingSnapshot;
 
-            objectList.add(object);
+            pendingSnapshot = recordSnapshot;
+            recordSnapshot = snapshot;
+            isPendingSnapshotFresh = true;
         }
+    }
+
+    /** Takes the last published snapshot to be drawn. If nothing new was published, the last drawn one is kept. */
+    private static void takeSnapshot(){
+        synchronized(snapshotLock){
+            if(isPendingSnapshotFresh){
+                RenderSnapshot snapshot = drawSnapshot;
 
-        batchMap.put(renderModel, objectList);
+                drawSnapshot = pendingSnapshot;
+                pendingSnapshot = snapshot;
+                isPendingSnapshotFresh = false;
+            }
+        }
     }
 
     /** Apply some rendering settings to make things looks better. */
@@ -132,29 +202,39 @@ public class RendererHandler {
      * Prepare for render.
      *
      * Initial setup for BufferStrategy and Graphics, including the apply of graphical settings and screen clearing.
-     * It will also clear the light map if using dynamic lights. In the end, render calls will be made to get
-     * render requests across all objects in the Scene.
+     * If not pipelined, the Scene is recorded right now; otherwise, the last snapshot published by the update thread
+     * is taken, and the interpolation alpha is calculated from the time passed since it was recorded. The camera
+     * position is interpolated by the interpolation alpha. It will also clear the light map and calculate all the
+     * snapshot's lights if using dynamic lights.
      */
     public static void prepare() {
-        bufferStrategy = display.getCanvas().getBufferStrategy();
-        graphics2D = (Graphics2D) bufferStrategy.getDrawGraphics();
-        cameraDistance = 1f;
-        cameraPosition = Vector2f.zero;
-        cameraOffset = Vector2.zero;
+        if(display.isHeadless()){
+            graphics2D = frameBuffer.createGraphics();
+        }else{
+            bufferStrategy = display.getCanvas().getBufferStrategy();
+            graphics2D = (Graphics2D) bufferStrategy.getDrawGraphics();
+        }
 
         applyRenderingSettings();
 
-        if (engine.getScene().getCamera() != null){
-            camera = engine.getScene().getCamera();
-            cameraDistance = camera.distance;
-            cameraPosition = camera.getPosition().multiply(cameraDistance);
-            stretchFactor = getStretchFactor();
-            cameraPosition.x *= stretchFactor.x;
-            cameraPosition.y *= stretchFactor.y;
-            cameraOffset = camera.offset.subtract(new Vector2(display.getWidth() / 2, display.getHeight() / 2));
+        if(isPipelined){
+            takeSnapshot();
+        }else{
+            capture(graphics2D);
+            drawSnapshot = recordSnapshot;
         }
 
-        graphics2D.setColor(camera == null ? defaultBackgroundColor : camera.backgroundColor);
+        RenderSnapshot snapshot = drawSnapshot;
+        float cameraDistance = snapshot.cameraDistance;
+
+        if(isPipelined){
+            setInterpolationAlpha((float) ((System.nanoTime() - snapshot.captureTime) * engine.getTickRate() / 1000000000));
+        }
+
+        cameraPositionX = GameMath.lerp(snapshot.previousCameraX, snapshot.cameraX, interpolationAlpha) * cameraDistance * snapshot.stretchFactorX;
+        cameraPositionY = GameMath.lerp(snapshot.previousCameraY, snapshot.cameraY, interpolationAlpha) * cameraDistance * snapshot.stretchFactorY;
+
+        graphics2D.setColor(snapshot.backgroundColor == null ? defaultBackgroundColor : snapshot.backgroundColor);
         graphics2D.fillRect(0, 0, display.getWidth(), display.getHeight());
 
         if (useDynamicLights){
@@ -163,100 +243,109 @@ public class RendererHandler {
                     setLightMap(x, y, ((int) (255 * ambientLightIntensity) << 24) | ambientLightColor);
                 }
             }
-        }
 
-        if(engine.getScene() != null) engine.getScene().render(graphics2D);
+            for(int i = 0; i < snapshot.lightCount; i++){
+                drawLight(snapshot, snapshot.lightArray[i]);
+            }
+        }
     }
 
     /** Where everything is actually rendered.
      *
-     * When called, all the RenderModels from the batch map are ordered by their layer order. The camera distance is
-     * used to calculate the camera position. Then, all RenderModels are iterated over along with their corresponding
-     * GameObjects. The appropriate instance data is get based on the object's instance id and the model is rendered
-     * with subpixel rendering provided by AffineTransform. Only the sprites that are inside the portview are rendered.
-     * The light map is renderer afterwards.
+     * When called, all the batches from the snapshot are ordered by their layer order. Then, all batches are iterated
+     * over along with their instances, which are rendered with subpixel rendering provided by AffineTransform. Only
+     * the sprites that are inside the portview are rendered. The light map is renderer afterwards, followed by the
+     * overlay batches.
      */
     public static void render(){
-        List<RenderModel> renderModelList = new ArrayList<>(batchMap.keySet());
-        List<RenderModel> overlayRenderModelList = new ArrayList<>();
+        RenderSnapshot snapshot = drawSnapshot;
 
-        sortRenderModelListByLayerOrder(renderModelList);
+        sortedBatchList.clear();
+        sortedBatchList.addAll(snapshot.batchList);
+        sortBatchListByLayerOrder(sortedBatchList);
 
-        for(RenderModel renderModel : renderModelList){
-            if(renderModel.isOverlay()){
-                overlayRenderModelList.add(renderModel);
-                continue;
-            }
-
-            drawRenderModel(renderModel);
+        for(RenderSnapshot.Batch batch : sortedBatchList){
+            if(!batch.isOverlay) drawBatch(snapshot, batch);
         }
 
-        drawLightMap();
-
-        for(RenderModel renderModel : overlayRenderModelList){
-            drawRenderModel(renderModel);
-        }
-    }
+        long time = Profiler.start();
 
-    private static void drawRenderModel(RenderModel renderModel){
-        List<GameObject> objectList = batchMap.get(renderModel);
+        drawLightMap(snapshot);
+        Profiler.stop(Profiler.Phase.LIGHT_MAP, time);
 
-        renderModel.setInstanceID(0);
+        for(RenderSnapshot.Batch batch : sortedBatchList){
+            if(batch.isOverlay) drawBatch(snapshot, batch);
+        }
 
-        for(GameObject object : objectList) {
-            BufferedImage sprite = renderModel.getSprite();
-            Vector2f offset = renderModel.getOffset();
-            Vector2f scale = renderModel.getScale();
+        sortedBatchList.clear();
+    }
 
-            renderModel.increaseInstanceID();
+    /** Draws all the instances of a batch.
+     *
+     * Positions are interpolated between the previous and the current tick, except for those which use local
+     * positions.
+     *
+     * @param snapshot  The snapshot being drawn.
+     * @param batch     A batch from the snapshot.
+     */
+    private static void drawBatch(RenderSnapshot snapshot, RenderSnapshot.Batch batch){
+        float stretchFactorX = snapshot.stretchFactorX;
+        float stretchFactorY = snapshot.stretchFactorY;
+        float stretchX = stretchFactorX * snapshot.cameraDistance;
+        float stretchY = stretchFactorY * snapshot.cameraDistance;
+        int displayWidth = display.getWidth();
+        int displayHeight = display.getHeight();
 
-            if(sprite == null) continue;
+        for(int i = 0; i < batch.count; i++) {
+            BufferedImage sprite = batch.sprites[i];
 
             int spriteWidth = sprite.getWidth();
             int spriteHeight = sprite.getHeight();
 
-            double width = (double) spriteWidth * scale.x;;
-            double height = (double) spriteHeight * scale.y;;
-            double x = object.getPosition().x;
-            double y = object.getPosition().y;
-
-            Vector2f stretchFactor = getStretchFactor();
-            Vector2f stretch = getStretch();
-            Vector2f cameraPosition;
-
-            if(renderModel.isUseLocalPosition()){
-                cameraPosition = Vector2f.zero;
-
-                if(renderModel.isKeepProportion()) {
-                    width *= stretchFactor.x;
-                    height *= stretchFactor.y;
-                    x += offset.x * stretchFactor.x;
-                    y += offset.y * stretchFactor.y;
+            double width = (double) spriteWidth * batch.scaleX[i];
+            double height = (double) spriteHeight * batch.scaleY[i];
+            double x, y;
+            double cameraPositionX, cameraPositionY;
+
+            if(batch.useLocalPosition){
+                cameraPositionX = 0;
+                cameraPositionY = 0;
+                x = batch.x[i];
+                y = batch.y[i];
+
+                if(batch.keepProportion) {
+                    width *= stretchFactorX;
+                    height *= stretchFactorY;
+                    x += batch.offsetX[i] * stretchFactorX;
+                    y += batch.offsetY[i] * stretchFactorY;
                 }else{
-                    x += offset.x;
-                    y += offset.y;
+                    x += batch.offsetX[i];
+                    y += batch.offsetY[i];
                 }
             }else{
-                cameraPosition = RendererHandler.cameraPosition;
-                width *= stretch.x;
-                height *= stretch.y;
-                x = (x + offset.x) * stretch.x - cameraOffset.x;
-                y = (y + offset.y) * stretch.y - cameraOffset.y;
+                cameraPositionX = RendererHandler.cameraPositionX;
+                cameraPositionY = RendererHandler.cameraPositionY;
+                x = GameMath.lerp(batch.previousX[i], batch.x[i], interpolationAlpha);
+                y = GameMath.lerp(batch.previousY[i], batch.y[i], interpolationAlpha);
+                width *= stretchX;
+                height *= stretchY;
+                x = (x + batch.offsetX[i]) * stretchX - snapshot.cameraOffsetX;
+                y = (y + batch.offsetY[i]) * stretchY - snapshot.cameraOffsetY;
             }
 
-            if (x + width >= cameraPosition.x && y + height >= cameraPosition.y && x < cameraPosition.x + display.getWidth() && y < cameraPosition.y + display.getHeight()) {
+            if (x + width >= cameraPositionX && y + height >= cameraPositionY && x < cameraPositionX + displayWidth && y < cameraPositionY + displayHeight) {
                 affineTransform.setToIdentity();
-                affineTransform.translate(x - cameraPosition.x, y - cameraPosition.y);
+                affineTransform.translate(x - cameraPositionX, y - cameraPositionY);
                 affineTransform.scale(width / spriteWidth, height / spriteHeight);
                 graphics2D.drawImage(sprite, affineTransform, null);
             }
         }
     }
 
-    private static void drawLightMap(){
+    private static void drawLightMap(RenderSnapshot snapshot){
         if(useDynamicLights){
-            float scaleX = lightMapScale * stretchFactor.x;
-            float scaleY = lightMapScale * stretchFactor.y;
+            float scaleX = lightMapScale * snapshot.stretchFactorX;
+            float scaleY = lightMapScale * snapshot.stretchFactorY;
 
             affineTransform.setToIdentity();
             affineTransform.translate(
@@ -268,35 +357,58 @@ public class RendererHandler {
         }
     }
 
-    /** Displays all the render on the screen, disposing from all data held. */
+    /** Displays all the render on the screen, disposing from all data held.
+     *
+     * When the Display is headless, the render is kept in the frame buffer instead.
+     */
     public static void display(){
+        if(Profiler.isOverlayEnabled()) Profiler.renderOverlay(graphics2D);
+
         graphics2D.dispose();
-        bufferStrategy.show();
-        batchMap.clear();
+
+        if(bufferStrategy != null) bufferStrategy.show();
     }
 
-    /** Renders a light in a determined position.
-     *
-     * This method, like the render method, utilizes the camera distance to calculate the camera position and, thus,
-     * predicting whether the light will be shown on portview or not, before making all the calculations.
+    /** Requests a light to be rendered in a determined position.
      *
      * @param lightScript   The script on which the light attributes are stored.
      * @param position      The world position to be rendered at.
      */
     public static void renderLight(LightScript lightScript, Vector2f position){
-        if(useDynamicLights) {
-            int outerRadius = lightScript.outerRadius;
-            int positionX = (int) ((position.x * cameraDistance - cameraPosition.x / stretchFactor.x - -display.baseWidth / 2 - outerRadius) / lightMapScale);
-            int positionY = (int) ((position.y * cameraDistance - cameraPosition.y / stretchFactor.y - -display.baseHeight / 2 - outerRadius) / lightMapScale);
-
-            if (positionX >= -outerRadius && positionX < lightMapWidth && positionY >= -outerRadius && positionY < lightMapHeight) {
-                int diameter = lightScript.getDiameter() / lightMapScale;
-                int color = lightScript.color.getRGB();
-
-                for (int i = 0; i < diameter; i++) {
-                    for (int j = 0; j < diameter; j++) {
-                        processLight(lightScript, color, positionX, positionY, i, j);
-                    }
+        if(useDynamicLights) recordSnapshot.recordLight(lightScript, position, position);
+    }
+
+    /** Requests a light to be rendered at a GameObject's position, interpolated between ticks.
+     *
+     * @param lightScript   The script on which the light attributes are stored.
+     * @param object        The GameObject to be rendered at.
+     */
+    public static void renderLight(LightScript lightScript, GameObject object){
+        if(useDynamicLights) recordSnapshot.recordLight(lightScript, object.getPreviousPosition(), object.getPosition());
+    }
+
+    /** Renders a light from a snapshot into the light map.
+     *
+     * This method, like the render method, utilizes the camera distance to calculate the camera position and, thus,
+     * predicting whether the light will be shown on portview or not, before making all the calculations.
+     *
+     * @param snapshot  The snapshot being drawn.
+     * @param light     A light from the snapshot.
+     */
+    private static void drawLight(RenderSnapshot snapshot, RenderSnapshot.Light light){
+        int outerRadius = light.outerRadius;
+        float cameraDistance = snapshot.cameraDistance;
+        float x = GameMath.lerp(light.previousX, light.x, interpolationAlpha);
+        float y = GameMath.lerp(light.previousY, light.y, interpolationAlpha);
+        int positionX = (int) ((x * cameraDistance - cameraPositionX / snapshot.stretchFactorX - -Display.baseWidth / 2 - outerRadius) / lightMapScale);
+        int positionY = (int) ((y * cameraDistance - cameraPositionY / snapshot.stretchFactorY - -Display.baseHeight / 2 - outerRadius) / lightMapScale);
+
+        if (light.lightMapArray != null && positionX >= -outerRadius && positionX < lightMapWidth && positionY >= -outerRadius && positionY < lightMapHeight) {
+            int diameter = light.diameter / lightMapScale;
+
+            for (int i = 0; i < diameter; i++) {
+                for (int j = 0; j < diameter; j++) {
+                    processLight(light, positionX, positionY, i, j);
                 }
             }
         }
@@ -308,12 +420,13 @@ public class RendererHandler {
      * the maximum (brightest) values and draws the corresponding pixel into the lightmap. Both alpha channels are just
      * multiplied.
      *
-     * @param lightScript   The script on which the light attributes are stored.
-     * @param x             The light's pixel x position component.
-     * @param y             The light's pixel y position component.
+     * @param light     The light on which the attributes are stored.
+     * @param x         The light's pixel x position component.
+     * @param y         The light's pixel y position component.
      */
-    private static void processLight(LightScript lightScript, int color, int positionX, int positionY, int x, int y){
-        int diameter = lightScript.getDiameter() / lightMapScale;
+    private static void processLight(RenderSnapshot.Light light, int positionX, int positionY, int x, int y){
+        int diameter = light.diameter / lightMapScale;
+        int color = light.color;
         int lightMapValue = getLightMap(x + positionX, y + positionY);
 
         int ambientPixelIntensity = ((lightMapValue & 0xff000000) >> 24) & 0x000000ff;
@@ -323,15 +436,15 @@ public class RendererHandler {
         int ag = (ambientPixelColor & 0x0000ff00) >> 8;
         int ab = ambientPixelColor & 0x000000ff;
 
-        lightMapValue = lightScript.getLightMapArray()[x + y * diameter];
+        lightMapValue = light.lightMapArray[x + y * diameter];
 
         int lightPixelIntensity = ((lightMapValue & 0xff000000) >> 24) & 0x000000ff;
-        int lightPixelColor = lightScript.useLightmap ? lightMapValue & 0x00ffffff : color & 0x00ffffff;
+        int lightPixelColor = light.useLightmap ? lightMapValue & 0x00ffffff : color & 0x00ffffff;
         int lr = (lightPixelColor & 0x00ff0000) >> 16;
         int lg = (lightPixelColor & 0x0000ff00) >> 8;
         int lb = lightPixelColor & 0x000000ff;
 
-        float biasFunctionValue = GameMath.biasFunction((lightPixelIntensity / 255f), GameMath.clamp(lightScript.blendSmoothness, 0, 1));
+        float biasFunctionValue = GameMath.biasFunction((lightPixelIntensity / 255f), GameMath.clamp(light.blendSmoothness, 0, 1));
 
         int a = (ambientPixelIntensity * lightPixelIntensity) / 255;
         int r = lr + (int) ((ar - lr) * biasFunctionValue);
@@ -341,18 +454,12 @@ public class RendererHandler {
         setLightMap(x + positionX, y + positionY, (a << 24) | (r << 16) | (g << 8) | b);
     }
 
-    /** Sort a RenderModel list by layer order.
+    /** Sort a batch list by layer order.
      *
-     * @param renderModelList   A list containing RenderModels.
+     * @param batchList A list containing batches.
      */
-    private static void sortRenderModelListByLayerOrder(List<RenderModel> renderModelList) {
-        Collections.sort(renderModelList, (a, b) -> {
-            if(a.getSortingLayer() == b.getSortingLayer()){
-                return a.getLayerOrder() - b.getLayerOrder();
-            }else{
-                return a.getSortingLayer().ordinal() - b.getSortingLayer().ordinal();
-            }
-        });
+    private static void sortBatchListByLayerOrder(List<RenderSnapshot.Batch> batchList) {
+        Collections.sort(batchList, batchComparator);
     }
 
     /** Gets a specific pixel's color as an int.
@@ -420,11 +527,65 @@ public class RendererHandler {
         ambientLightIntensity = value;
     }
 
+    public static boolean isPipelined() {
+        return isPipelined;
+    }
+
+    /** Sets whether the Scene is recorded by the update thread (through capture and publish) and drawn by a separate
+     * render thread, or both recorded and drawn on prepare.
+     *
+     * @param pipelined A flag to enable pipelined rendering.
+     */
+    public static void setPipelined(boolean pipelined) {
+        synchronized(snapshotLock){
+            isPipelined = pipelined;
+            drawSnapshot = pipelined ? new RenderSnapshot() : recordSnapshot;
+            isPendingSnapshotFresh = false;
+        }
+    }
+
+    public static float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    /** Sets how far the frame being rendered is between the last tick and the next one.
+     *
+     * @param alpha A value between 0 (last tick) and 1 (next tick).
+     */
+    public static void setInterpolationAlpha(float alpha) {
+        interpolationAlpha = GameMath.clamp(alpha, 0, 1);
+    }
+
+    /** Gets the offscreen image where a headless Display is rendered into.
+     *
+     * @return  The frame buffer (null if the Display is not headless).
+     */
+    public static BufferedImage getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    /** Gets the pixels of the offscreen image where a headless Display is rendered into.
+     *
+     * @return  The frame buffer pixels in the format 'rgb', row by row (null if the Display is not headless).
+     */
+    public static int[] getFrameBufferArray() {
+        return frameBufferArray;
+    }
+
     public static int getLightMapScale() {
         return lightMapScale;
     }
 
     public static Vector2f getStretchFactor(){
+        return getStretchFactor(new Vector2f(0, 0));
+    }
+
+    /** Writes the factor by which the frame is stretched to fill the screen into a vector.
+     *
+     * @param out   The vector to write into.
+     * @return      The given vector.
+     */
+    public static Vector2f getStretchFactor(Vector2f out){
         float horizontalStretchFactor = display.getScreenWidthRatio();
         float verticalStretchFactor = display.getScreenHeightRatio();
 
@@ -434,10 +595,14 @@ public class RendererHandler {
             verticalStretchFactor = horizontalStretchFactor;
         }
 
-        return new Vector2f(horizontalStretchFactor, verticalStretchFactor);
+        return out.set(horizontalStretchFactor, verticalStretchFactor);
     }
 
     public static Vector2f getStretch(){
-        return getStretchFactor().multiply(cameraDistance);
+        return getStretch(new Vector2f(0, 0));
+    }
+
+    public static Vector2f getStretch(Vector2f out){
+        return getStretchFactor(out).multiplyLocal(cameraDistance);
     }
 }
@@ -0,0 +1,442 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.IParallelUpdatable;
+import fusyon.engine.gameobject.component.Component;
+import fusyon.engine.gameobject.component.ComponentType;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+
+import static fusyon.engine.main.Engine.engine;
+
+/** Keeps a dense list of the Components of a Scene for each phase of the tick, holding only the Components that
+ * implement that phase.
+ *
+ * The phases of a Component are given by {@code Component.getDispatchPhases()}, which by default tells which of the
+ * update, lateUpdate and render methods its class overrides. A Component whose update is empty is therefore never
+ * called on the update phase. Changes (Components added, removed or with new phases) are only marked, and applied all
+ * at once on the next sync, keeping the order in which Components were registered.
+ *
+ * Components with a tick interval above 1 are called once every that many ticks, receiving the time accumulated since
+ * their last call. Each of them is given the least loaded offset within its interval when registered, and frees it
+ * when unregistered, so the Components sharing an interval stay spread evenly across its ticks as they come and go.
+ */
+class ComponentDispatcher {
+
+    /** The Components updated in parallel. */
+    private final DispatchList parallelUpdateList = new DispatchList();
+    /** The Components late updated in parallel. */
+    private final DispatchList parallelLateUpdateList = new DispatchList();
+    /** The Components updated and late updated serially, with the phases each of them implements. */
+    private final DispatchList serialList = new DispatchList();
+    /** The Components rendered. */
+    private final DispatchList renderList = new DispatchList();
+
+    /** The phases, tick interval and offset each Component is registered with. */
+    private final Map<Component, Registration> registrationMap = new IdentityHashMap<>();
+    /** The amount of Components registered on each offset of each tick interval (indexed by the interval, null if no
+     * Component was registered with it), used to spread them across it. */
+    private int[][] offsetCountTable = new int[0][];
+    /** The Components marked to be registered again, in the order they were marked. */
+    private final List<Component> changedComponentList = new ArrayList<>();
+    /** The Components marked to be registered again, to ignore repeated marks. */
+    private final Set<Component> changedComponentSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The Components leaving their lists on the current sync. */
+    private final Set<Component> removedComponentSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The Components appended to their lists on the current sync. */
+    private final List<Component> addedComponentList = new ArrayList<>();
+
+    /** The minimum amount of parallel Components needed to split their update across the worker threads. */
+    private static final int parallelThreshold = 64;
+
+    /** The Scene whose Components are dispatched. */
+    private final Scene scene;
+    /** The current tick of the Scene. */
+    private long tick;
+
+    ComponentDispatcher(Scene scene){
+        this.scene = scene;
+    }
+
+    /** Marks a Component to have its phases and tick interval checked on the next sync (e.g. because it was added or
+     * removed).
+     *
+     * @param component A Component.
+     */
+    void markChanged(Component component){
+        if(changedComponentSet.add(component)) changedComponentList.add(component);
+    }
+
+    /** Applies all marked changes to the lists.
+     *
+     * Components that leave a list are taken out of it in a single pass, keeping the order of the remaining ones. A
+     * Component whose phases or tick interval changed leaves its lists and is appended to the new ones, so its serial
+     * phases stay together.
+     */
+    void sync(){
+        if(changedComponentList.isEmpty()) return;
+
+        int removedPhases = 0;
+
+        for(Component component : changedComponentList){
+            Registration registration = registrationMap.get(component);
+            int newPhases = isWithinScene(component) ? getPhases(component) : 0;
+            int newInterval = component.getTickInterval();
+
+            if(registration == null ? newPhases == 0 : registration.phases == newPhases && registration.tickInterval == newInterval) continue;
+
+            if(registration != null){
+                removedComponentSet.add(component);
+                removedPhases |= registration.phases;
+                releaseOffset(registration);
+            }
+
+            if(newPhases != 0){
+                int offset = acquireOffset(newPhases, newInterval);
+
+                registrationMap.put(component, new Registration(newPhases, newInterval, offset));
+                addedComponentList.add(component);
+            }else{
+                registrationMap.remove(component);
+            }
+        }
+
+        if(!removedComponentSet.isEmpty()){
+            if((removedPhases & (ComponentType.UPDATE | ComponentType.LATE_UPDATE)) != 0){
+                parallelUpdateList.removeAll(removedComponentSet);
+                parallelLateUpdateList.removeAll(removedComponentSet);
+                serialList.removeAll(removedComponentSet);
+            }
+
+            if((removedPhases & ComponentType.RENDER) != 0) renderList.removeAll(removedComponentSet);
+        }
+
+        for(Component component : addedComponentList){
+            register(component, registrationMap.get(component));
+        }
+
+        changedComponentList.clear();
+        changedComponentSet.clear();
+        removedComponentSet.clear();
+        addedComponentList.clear();
+    }
+
+    /** Updates all active Components: the parallel ones first, and then the serial ones.
+     *
+     * @param delta The fixed time (in seconds) passed since the last tick.
+     * @param tick  The current tick of the Scene.
+     */
+    void update(float delta, long tick){
+        this.tick = tick;
+
+        updateParallel(parallelUpdateList, delta, false);
+        updateParallel(parallelLateUpdateList, delta, true);
+
+        Component[] componentArray = serialList.componentArray;
+        int[] phaseArray = serialList.phaseArray;
+
+        for(int i = 0; i < serialList.size; i++){
+            Component component = componentArray[i];
+
+            if(!isActive(component)) continue;
+
+            float componentDelta = serialList.getDelta(i, getDelta(component, delta), tick);
+
+            if(componentDelta == 0) continue;
+
+            long time = Profiler.start();
+
+            if((phaseArray[i] & ComponentType.UPDATE) != 0) component.update(componentDelta);
+            if((phaseArray[i] & ComponentType.LATE_UPDATE) != 0) component.lateUpdate(componentDelta);
+
+            Profiler.stop(component.getClass(), time);
+        }
+    }
+
+    /** Renders all active Components.
+     *
+     * @param g A reference to Graphics, instantiated in the RendererHandler.
+     */
+    void render(Graphics g){
+        Component[] componentArray = renderList.componentArray;
+
+        for(int i = 0; i < renderList.size; i++){
+            Component component = componentArray[i];
+
+            if(isActive(component)) component.render(g);
+        }
+    }
+
+    private void register(Component component, Registration registration){
+        int phases = registration.phases;
+        int interval = registration.tickInterval;
+        long nextTick = tick + 1;
+
+        if(registration.offset != -1) nextTick = getNextTick(tick, registration.offset, interval);
+
+        if(component instanceof IParallelUpdatable){
+            if((phases & ComponentType.UPDATE) != 0) parallelUpdateList.add(component, ComponentType.UPDATE, interval, nextTick);
+            if((phases & ComponentType.LATE_UPDATE) != 0) parallelLateUpdateList.add(component, ComponentType.LATE_UPDATE, interval, nextTick);
+        }else if((phases & (ComponentType.UPDATE | ComponentType.LATE_UPDATE)) != 0){
+            serialList.add(component, phases, interval, nextTick);
+        }
+
+        if((phases & ComponentType.RENDER) != 0) renderList.add(component, ComponentType.RENDER, 1, nextTick);
+    }
+
+    /** Takes the least loaded offset within a tick interval (the lowest one, on a tie).
+     *
+     * @param phases    The phases a Component is being registered with.
+     * @param interval  The Component's tick interval.
+     * @return          An offset, between 0 and the interval (-1 if the Component isn't updated once every interval).
+     */
+    private int acquireOffset(int phases, int interval){
+        if(interval <= 1 || (phases & (ComponentType.UPDATE | ComponentType.LATE_UPDATE)) == 0) return -1;
+
+        if(interval >= offsetCountTable.length) offsetCountTable = Arrays.copyOf(offsetCountTable, interval + 1);
+
+        int[] offsetCounts = offsetCountTable[interval];
+
+        if(offsetCounts == null){
+            offsetCounts = new int[interval];
+            offsetCountTable[interval] = offsetCounts;
+        }
+
+        int offset = 0;
+
+        for(int i = 1; i < interval; i++){
+            if(offsetCounts[i] < offsetCounts[offset]) offset = i;
+        }
+
+        offsetCounts[offset]++;
+
+        return offset;
+    }
+
+    /** Frees the offset taken by a Component that is leaving its lists. */
+    private void releaseOffset(Registration registration){
+        if(registration.offset != -1) offsetCountTable[registration.tickInterval][registration.offset]--;
+    }
+
+    /** Gets the first tick after another one that falls on an offset within an interval.
+     *
+     * @param tick      A tick.
+     * @param offset    An offset, between 0 and the interval.
+     * @param interval  An amount of ticks.
+     * @return          A tick t, after the given one, where (t + offset) % interval == 0.
+     */
+    private static long getNextTick(long tick, int offset, int interval){
+        return tick + interval - (tick + offset) % interval;
+    }
+
+    /** Gets the phases a Component is dispatched for: its own, without the update phases while the SimulationLod keeps
+     * its GameObject asleep.
+     */
+    private static int getPhases(Component component){
+        SimulationLod.Entry entry = component.getParent().getSimulationEntry();
+        int phases = component.getDispatchPhases();
+
+        return entry != null && entry.isSleeping() ? phases & ~(ComponentType.UPDATE | ComponentType.LATE_UPDATE) : phases;
+    }
+
+    private boolean isWithinScene(Component component){
+        GameObject parent = component.getParent();
+
+        return parent != null && parent.getScene() == scene && parent.getComponentList().contains(component);
+    }
+
+    /** Checks if a Component is called on the current tick. A Component removed from its GameObject during the tick
+     * stays in its lists until the next sync, without a parent, and is skipped.
+     */
+    private static boolean isActive(Component component){
+        GameObject parent = component.getParent();
+
+        return parent != null && component.isActive() && parent.isActive();
+    }
+
+    /** Gets the time a Component receives on the current tick, which differs from the tick's if the SimulationLod
+     * throttles its GameObject (0 if it is skipped, or if the Component has left its GameObject since it was checked).
+     */
+    private static float getDelta(Component component, float delta){
+        GameObject parent = component.getParent();
+
+        if(parent == null) return 0;
+
+        SimulationLod.Entry entry = parent.getSimulationEntry();
+
+        return entry != null ? entry.delta : delta;
+    }
+
+    /** Updates the Components of a parallel list, using the engine's worker threads if there are enough of them. */
+    private void updateParallel(DispatchList list, float delta, boolean isLateUpdate){
+        int size = list.size;
+
+        if(size == 0) return;
+
+        if(size < parallelThreshold){
+            new ParallelUpdateTask(list, 0, size, size, delta, tick, isLateUpdate).compute();
+            return;
+        }
+
+        int granularity = Math.max(parallelThreshold / 4, size / (engine.getWorkerPool().getParallelism() * 4));
+
+        engine.getWorkerPool().invoke(new ParallelUpdateTask(list, 0, size, granularity, delta, tick, isLateUpdate));
+    }
+
+    /** The phases, tick interval and offset a Component was registered with. */
+    private static class Registration {
+
+        private final int phases;
+        private final int tickInterval;
+        /** The offset taken within the tick interval (-1 if none was taken). */
+        private final int offset;
+
+        Registration(int phases, int tickInterval, int offset){
+            this.phases = phases;
+            this.tickInterval = tickInterval;
+            this.offset = offset;
+        }
+    }
+
+    /** A dense array of Components, each with the phases it is called for and its tick interval. */
+    private static class DispatchList {
+
+        Component[] componentArray = new Component[16];
+        int[] phaseArray = new int[16];
+        int[] intervalArray = new int[16];
+        /** The tick on which each Component is called next (if its interval is above 1). */
+        long[] nextTickArray = new long[16];
+        /** The time accumulated by each Component since its last call (if its interval is above 1). */
+        float[] accumulatedDeltaArray = new float[16];
+        int size;
+
+        void add(Component component, int phases, int interval, long nextTick){
+            if(size == componentArray.length){
+                componentArray = Arrays.copyOf(componentArray, size * 2);
+                phaseArray = Arrays.copyOf(phaseArray, size * 2);
+                intervalArray = Arrays.copyOf(intervalArray, size * 2);
+                nextTickArray = Arrays.copyOf(nextTickArray, size * 2);
+                accumulatedDeltaArray = Arrays.copyOf(accumulatedDeltaArray, size * 2);
+            }
+
+            componentArray[size] = component;
+            phaseArray[size] = phases;
+            intervalArray[size] = interval;
+            nextTickArray[size] = nextTick;
+            accumulatedDeltaArray[size] = 0;
+            size++;
+        }
+
+        /** Gets the time a Component receives on the current tick, accumulating it until the Component's next tick.
+         *
+         * @param index The index of the Component.
+         * @param delta The time its GameObject receives on the current tick (0 if it is skipped).
+         * @param tick  The current tick.
+         * @return      The accumulated time if the Component is called on the tick, or 0 otherwise.
+         */
+        float getDelta(int index, float delta, long tick){
+            int interval = intervalArray[index];
+
+            if(interval == 1 || delta == 0) return delta;
+
+            float accumulatedDelta = accumulatedDeltaArray[index] + delta;
+
+            // A Component whose GameObject was skipped on its tick (e.g. by the SimulationLod) is called on the next
+            // tick its GameObject is updated.
+            if(tick < nextTickArray[index]){
+                accumulatedDeltaArray[index] = accumulatedDelta;
+                return 0;
+            }
+
+            accumulatedDeltaArray[index] = 0;
+            nextTickArray[index] = tick + interval - (tick - nextTickArray[index]) % interval;
+
+            return accumulatedDelta;
+        }
+
+        /** Removes a set of Components in a single pass, keeping the order of the remaining ones. */
+        void removeAll(Set<Component> componentSet){
+            int newSize = 0;
+
+            for(int i = 0; i < size; i++){
+                if(componentSet.contains(componentArray[i])) continue;
+
+                componentArray[newSize] = componentArray[i];
+                phaseArray[newSize] = phaseArray[i];
+                intervalArray[newSize] = intervalArray[i];
+                nextTickArray[newSize] = nextTickArray[i];
+                accumulatedDeltaArray[newSize] = accumulatedDeltaArray[i];
+                newSize++;
+            }
+
+            Arrays.fill(componentArray, newSize, size, null);
+            size = newSize;
+        }
+    }
+
+    /** Updates a range of Components, splitting it in halves while it is larger than the granularity. */
+    private static class ParallelUpdateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DispatchList list;
+        private final int start;
+        private final int end;
+        private final int granularity;
+        private final float delta;
+        private final long tick;
+        private final boolean isLateUpdate;
+
+        ParallelUpdateTask(DispatchList list, int start, int end, int granularity, float delta, long tick, boolean isLateUpdate){
+            this.list = list;
+            this.start = start;
+            this.end = end;
+            this.granularity = granularity;
+            this.delta = delta;
+            this.tick = tick;
+            this.isLateUpdate = isLateUpdate;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= granularity){
+                Component[] componentArray = list.componentArray;
+
+                for(int i = start; i < end; i++){
+                    Component component = componentArray[i];
+
+                    if(!isActive(component)) continue;
+
+                    float componentDelta = list.getDelta(i, getDelta(component, delta), tick);
+
+                    if(componentDelta == 0) continue;
+
+                    long time = Profiler.start();
+
+                    if(isLateUpdate){
+                        component.lateUpdate(componentDelta);
+                    }else{
+                        component.update(componentDelta);
+                    }
+
+                    Profiler.stop(component.getClass(), time);
+                }
+
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+
+            invokeAll(new ParallelUpdateTask(list, start, middle, granularity, delta, tick, isLateUpdate),
+                    new ParallelUpdateTask(list, middle, end, granularity, delta, tick, isLateUpdate));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.component.Collider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The pairs of Colliders touching each other, kept by the Physics from one tick to the next.
+ *
+ * Pairs are looked up by the proxy ids of their Colliders, packed into a primitive long, in an open addressing hash
+ * table, and are also kept in a list to be checked at the end of each tick. Contacts are reused once they end, so
+ * tracking them doesn't allocate once the set has grown to its usual size.
+ */
+class ContactSet {
+
+    /** The packed proxy ids of the contact in each slot of the table. */
+    private long[] keyArray = new long[64];
+    /** The contact in each slot (null if the slot is empty). */
+    private Contact[] contactArray = new Contact[64];
+    /** The number of bits of a slot index (the table has 2 ^ tableBits slots). */
+    private int tableBits = 6;
+
+    /** Every contact, in no particular order. */
+    private final List<Contact> contactList = new ArrayList<>();
+    /** The contacts that have ended, to be reused. */
+    private final List<Contact> freeList = new ArrayList<>();
+
+    /** Gets the contact between two Colliders.
+     *
+     * @param a A Collider within the broad-phase.
+     * @param b Another Collider within the broad-phase.
+     * @return  The contact (null if the Colliders are not touching).
+     */
+    Contact get(Collider a, Collider b){
+        long key = toKey(a.getProxyId(), b.getProxyId());
+        Contact contact = contactArray[findSlot(key)];
+
+        // A proxy may have been given to another Collider since the contact was made.
+        if(contact != null && !contact.isBetween(a, b)) return null;
+
+        return contact;
+    }
+
+    /** Adds a contact between two Colliders, which must not be touching yet.
+     *
+     * @param a A Collider within the broad-phase.
+     * @param b Another Collider within the broad-phase.
+     * @return  The new contact.
+     */
+    Contact add(Collider a, Collider b){
+        long key = toKey(a.getProxyId(), b.getProxyId());
+        int slot = findSlot(key);
+
+        // The contact of the Colliders that had these proxies before is replaced, and ends with the tick.
+        if(contactArray[slot] != null) removeSlot(slot);
+
+        if((contactList.size() + 1) * 2 > contactArray.length){
+            growTable();
+        }
+
+        slot = findSlot(key);
+
+        Contact contact = freeList.isEmpty() ? new Contact() : freeList.remove(freeList.size() - 1);
+
+        contact.a = a;
+        contact.b = b;
+        contact.key = key;
+        contact.isInTable = true;
+        contact.listIndex = contactList.size();
+        keyArray[slot] = key;
+        contactArray[slot] = contact;
+        contactList.add(contact);
+
+        return contact;
+    }
+
+    /** Removes a contact that has ended, so it can be reused.
+     *
+     * @param contact   A contact within the set.
+     */
+    void remove(Contact contact){
+        if(contact.isInTable) removeSlot(findSlot(contact.key));
+
+        Contact last = contactList.remove(contactList.size() - 1);
+
+        if(last != contact){
+            contactList.set(contact.listIndex, last);
+            last.listIndex = contact.listIndex;
+        }
+
+        contact.a = null;
+        contact.b = null;
+        freeList.add(contact);
+    }
+
+    /** Gets every contact. The list must not be changed, other than through remove.
+     *
+     * @return  The list of contacts.
+     */
+    List<Contact> getContactList(){
+        return contactList;
+    }
+
+    /** Removes every contact. */
+    void clear(){
+        for(int i = contactList.size() - 1; i >= 0; i--){
+            remove(contactList.get(i));
+        }
+    }
+
+    private int findSlot(long key){
+        int mask = contactArray.length - 1;
+        int slot = getHomeSlot(key);
+
+        while(contactArray[slot] != null && keyArray[slot] != key){
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /** Empties a slot, shifting back the contacts probed past it so every contact stays reachable from its home slot. */
+    private void removeSlot(int slot){
+        int mask = contactArray.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        contactArray[slot].isInTable = false;
+
+        while(contactArray[next] != null){
+            int home = getHomeSlot(keyArray[next]);
+
+            if(((next - home) & mask) >= ((next - hole) & mask)){
+                keyArray[hole] = keyArray[next];
+                contactArray[hole] = contactArray[next];
+                hole = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        contactArray[hole] = null;
+    }
+
+    private void growTable(){
+        Contact[] oldContactArray = contactArray;
+
+        tableBits++;
+        keyArray = new long[1 << tableBits];
+        contactArray = new Contact[1 << tableBits];
+
+        for(Contact contact : oldContactArray){
+            if(contact == null) continue;
+
+            int slot = findSlot(contact.key);
+
+            keyArray[slot] = contact.key;
+            contactArray[slot] = contact;
+        }
+    }
+
+    private int getHomeSlot(long key){
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - tableBits));
+    }
+
+    /** Packs two proxy ids, the lowest first, so both orders of a pair have the same key. */
+    private static long toKey(int proxyA, int proxyB){
+        return proxyA < proxyB ? ((long) proxyA << 32) | (proxyB & 0xFFFFFFFFL) : ((long) proxyB << 32) | (proxyA & 0xFFFFFFFFL);
+    }
+
+    /** Two Colliders touching each other. */
+    static class Contact {
+
+        Collider a, b;
+        /** The last tick on which the Colliders were found touching. */
+        long tick;
+
+        private long key;
+        private boolean isInTable;
+        private int listIndex;
+
+        private boolean isBetween(Collider a, Collider b){
+            return (this.a == a && this.b == b) || (this.a == b && this.b == a);
+        }
+    }
+}
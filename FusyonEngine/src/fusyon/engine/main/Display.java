@@ -9,6 +9,9 @@ import java.awt.event.ComponentEvent;
 import javax.swing.JFrame;
 
 /** This class is used to create displays that can be draw in and receive user inputs.
+ *
+ * A Display can also be headless, in which case there is no window at all: the RendererHandler draws into an offscreen
+ * frame buffer and inputs can only be fed synthetically through the KeyboardHandler and MouseHandler.
  *
  * @author Gabriel de Mello (Fusyon)
  */
@@ -24,6 +27,9 @@ public class Display {
 	/** The y compoonent of the original Display's size. */
 	private int height;
 
+	/** A flag that indicates if the Display has no window, being rendered offscreen instead. */
+	private boolean isHeadless;
+
 	/** The JFrame containing the application. */
 	private JFrame frame;
 	/** Title of the application. */
@@ -68,6 +74,21 @@ public class Display {
 		frame.setVisible(true);
 	}
 
+	/** Initializes a new headless Display, which has no window and is rendered into an offscreen frame buffer.
+	 *
+	 * @param width		The x component of the frame buffer's size.
+	 * @param height	The y component of the frame buffer's size.
+	 */
+	public Display(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.title = "";
+
+		isHeadless = true;
+		keyboardHandler = new KeyboardHandler();
+		mouseHandler = new MouseHandler();
+	}
+
 	/** Closes the Display. */
 	public void close() {
 		if(frame == null) return;
@@ -77,19 +98,23 @@ public class Display {
 	}
 
 	public int getWidth() {
-		return frame.getBounds().width;
+		return isHeadless ? width : frame.getBounds().width;
 	}
 
 	public int getHeight() {
-		return frame.getBounds().height;
+		return isHeadless ? height : frame.getBounds().height;
 	}
 
 	public int getCanvasWidth() {
-		return frame.getContentPane().getWidth();
+		return isHeadless ? width : frame.getContentPane().getWidth();
 	}
 
 	public int getCanvasHeight() {
-		return frame.getContentPane().getHeight();
+		return isHeadless ? height : frame.getContentPane().getHeight();
+	}
+
+	public boolean isHeadless() {
+		return isHeadless;
 	}
 
 	public String getTitle() {
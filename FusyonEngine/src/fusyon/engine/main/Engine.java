@@ -1,7 +1,18 @@
 package fusyon.engine.main;
 
+import fusyon.engine.event.CollisionEvent;
+import fusyon.engine.event.EventBus;
+import fusyon.engine.event.InputRecorder;
+import fusyon.engine.event.InputReplay;
+import fusyon.engine.event.KeyboardHandler;
+import fusyon.engine.event.MouseEnterEvent;
+import fusyon.engine.event.MouseHandler;
 import fusyon.engine.gfx.RendererHandler;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
 /** This is the main class for the engine, and must be only called statically.
  *
  * @author Gabriel de Mello (Fusyon)
@@ -12,7 +23,9 @@ public class Engine implements Runnable{
     public static final Engine engine = new Engine();
 
     /** Flag that indicates whether the game loop is running or not. */
-    private boolean isRunning;
+    private volatile boolean isRunning;
+    /** Flag that indicates whether the render is made by a separate thread, overlapping with the next updates. */
+    private boolean isPipelined;
 
     /** Current setted scene, which will be updated and rendered within the game loop. */
     private Scene scene;
@@ -20,8 +33,49 @@ public class Engine implements Runnable{
     private Display display;
     /** Main game thread. */
     private Thread thread;
+    /** Render thread, only used when pipelined. */
+    private Thread renderThread;
+    /** Work-stealing pool used to run work across all cores (e.g. parallel component updates). */
+    private ForkJoinPool workerPool;
+    /** Runs background jobs and waits, delivering their completions at the start of each tick. */
+    private final JobScheduler jobScheduler = new JobScheduler();
+    /** Queues the events published during each tick (e.g. collisions), dispatching them at the end of it. */
+    private final EventBus eventBus = new EventBus();
+    /** Records the inputs of every tick (null if not recording). */
+    private InputRecorder inputRecorder;
+    /** Feeds recorded inputs instead of the live ones (null if not replaying). */
+    private InputReplay inputReplay;
+    /** Amount of frames rendered by the render thread since the last FPS count. */
+    private final AtomicInteger renderedFrames = new AtomicInteger();
+
+    /** Flag that indicates whether render calls are made or not (e.g. dedicated servers don't need to render). */
+    private boolean isRenderingEnabled = true;
+    /** Flag that indicates whether the RendererHandler has been set up for the current display or not. */
+    private boolean isRendererReady;
+
+    /** The amount of fixed updates per second. Every update call receives the same delta (1 / tickRate). */
+    private double tickRate = 60.0;
+    /** The maximum amount of frames rendered per second (0 or less means uncapped). */
+    private double maxFrameRate = 0;
+    /** The maximum amount of updates that can be made to catch up before a render call.
+     *
+     * When the game falls behind by more than this many ticks, the remaining time is discarded instead of being
+     * simulated, preventing the game loop from spiraling into ever longer update batches.
+     */
+    private int maxUpdatesPerFrame = 5;
 
-    /** Creates a new thread, starts the game loop if a display and a scene are setted and setups RendererHandler. */
+    /** Time (in nanoseconds) before a frame's deadline at which the loop stops sleeping and starts spinning. */
+    private static final long spinThreshold = 2000000;
+
+    private Engine(){
+        eventBus.subscribe(CollisionEvent.TYPE, Physics::deliverCollision);
+        eventBus.subscribe(MouseEnterEvent.TYPE, Physics::deliverMouseEnter);
+    }
+
+    /** Creates a new thread, starts the game loop if a display and a scene are setted and setups RendererHandler.
+     *
+     * If pipelined, another thread is created to render the snapshots recorded by the game loop.
+     */
     public void start(){
         if(display == null){
             System.err.println("[ENGINE ERROR]: Display has not been setted.");
@@ -36,10 +90,61 @@ public class Engine implements Runnable{
         isRunning = true;
         thread = new Thread(this);
 
-        RendererHandler.setup();
+        setupRenderer();
+        RendererHandler.setPipelined(isPipelined && isRenderingEnabled);
+
+        if(RendererHandler.isPipelined()){
+            renderThread = new Thread(this::renderLoop);
+            renderThread.start();
+        }
+
         thread.start();
     }
 
+    /** Advances the current scene by a fixed amount of ticks without the game loop, rendering a single frame after.
+     *
+     * Useful to drive the engine manually, e.g. when running simulations or render tests with a headless display.
+     *
+     * @param ticks The amount of ticks to update.
+     */
+    public void step(int ticks){
+        if(display == null){
+            System.err.println("[ENGINE ERROR]: Display has not been setted.");
+            return;
+        }
+
+        if(scene == null){
+            System.err.println("[ENGINE ERROR]: There is no active Scene.");
+            return;
+        }
+
+        setupRenderer();
+        Profiler.beginFrame();
+
+        for(int i = 0; i < ticks; i++){
+            update((float) (1 / tickRate));
+        }
+
+        if(isRenderingEnabled){
+            if(RendererHandler.isPipelined()){
+                RendererHandler.capture(null);
+                RendererHandler.publish();
+            }
+
+            render(1);
+        }
+
+        Profiler.endFrame();
+    }
+
+    /** Setups RendererHandler once for the current display. */
+    private void setupRenderer(){
+        if(isRendererReady) return;
+
+        RendererHandler.setup();
+        isRendererReady = true;
+    }
+
     /** Stops the engine from running, closing the display.
      * TODO: Terminate main thread.
      */
@@ -49,42 +154,77 @@ public class Engine implements Runnable{
 
     /** The main game loop, where everything is updated and rendered while isRunning flag is true.
      *
-     * It calculates the amount of time passed between each tick in a variable called delta, in order to keep update
-     * calls consistent. A delta lesser than 1 means not sufficient time has passed since the last frame. Otherwise,
-     * a delta greater than 1 means that update calls are behind. Render calls are called whenever is possible, not being
-     * limited by a tick factor, but instead by computational speed.
+     * It uses a fixed timestep: the real time passed between each iteration is stored in an accumulator, which is then
+     * consumed in steps of exactly one tick, so every update call receives the same delta. At most maxUpdatesPerFrame
+     * ticks are simulated before rendering; any time beyond that is dropped. The remaining fraction of a tick (alpha)
+     * is handed to the render pass, so sprites can be interpolated between the last two ticks. If a frame rate cap is
+     * set, the thread is parked until the next frame is due instead of rendering again. If rendering is disabled, the
+     * thread is parked until the next tick is due.
+     *
+     * When pipelined, the scene is recorded into a snapshot after each batch of updates and handed to the render
+     * thread, and the game loop parks until the next tick is due.
      */
     @Override
     public void run() {
+        long tickTime = (long) (1000000000 / tickRate);
+        float tickDelta = (float) (1 / tickRate);
         long lastTime = System.nanoTime();
-        double amountOfTicks = 60.0;
-        double ns = 1000000000 / amountOfTicks;
-        double delta = 0;
+        long accumulator = 0;
         long timer = System.currentTimeMillis();
         int frames = 0;
         int ticks = 0;
 
         while(isRunning) {
             long now = System.nanoTime();
-            delta += (now - lastTime) / ns;
+            accumulator += now - lastTime;
             lastTime = now;
 
-            while(delta >= 1) {
-                update((float) (1 / delta / amountOfTicks));
+            Profiler.beginFrame();
 
+            int updates = 0;
+
+            while(accumulator >= tickTime && updates < maxUpdatesPerFrame) {
+                update(tickDelta);
+
+                accumulator -= tickTime;
+                updates++;
                 ticks++;
-                delta--;
             }
 
-            if(isRunning) {
-                render();
+            if(accumulator >= tickTime) {
+                accumulator %= tickTime;
+            }
+
+            if(RendererHandler.isPipelined()) {
+                if(updates > 0) {
+                    RendererHandler.capture(null);
+                    RendererHandler.publish();
+                }
 
-                frames++;
+                Profiler.endFrame();
+                waitUntil(now + tickTime - accumulator);
+            }else {
+                if(isRunning && isRenderingEnabled) {
+                    render((float) accumulator / tickTime);
+
+                    frames++;
+                }
+
+                Profiler.endFrame();
+
+                // Without rendering there is nothing to do until the next tick, whatever the frame rate cap.
+                if(!isRenderingEnabled) {
+                    waitUntil(now + tickTime - accumulator);
+                }else if(maxFrameRate > 0) {
+                    waitUntil(now + (long) (1000000000 / maxFrameRate));
+                }
             }
 
             if(System.currentTimeMillis() - timer > 1000) {
                 timer += 1000;
 
+                if(RendererHandler.isPipelined()) frames = renderedFrames.getAndSet(0);
+
                 System.out.println("FPS: " + frames + " TICKS: " + ticks);
 
                 ticks = 0;
@@ -95,24 +235,112 @@ public class Engine implements Runnable{
         stop();
     }
 
+    /** The render loop, used when pipelined. It draws the last snapshot published by the game loop while isRunning
+     * flag is true, limited by the frame rate cap (if any).
+     */
+    private void renderLoop() {
+        while(isRunning) {
+            long now = System.nanoTime();
+
+            render(1);
+            renderedFrames.incrementAndGet();
+
+            if(maxFrameRate > 0) {
+                waitUntil(now + (long) (1000000000 / maxFrameRate));
+            }
+        }
+    }
+
+    /** Parks the current thread until a certain time is reached.
+     *
+     * The thread sleeps until it is close to the deadline and then spins (yielding) for the remaining time, since
+     * sleeping alone is not precise enough to keep a steady frame rate.
+     *
+     * @param deadline  A time (in nanoseconds, as given by System.nanoTime) to wait for.
+     */
+    private void waitUntil(long deadline) {
+        long remaining;
+
+        while((remaining = deadline - System.nanoTime()) > spinThreshold) {
+            LockSupport.parkNanos(remaining - spinThreshold);
+        }
+
+        while(deadline - System.nanoTime() > 0) {
+            Thread.yield();
+        }
+    }
+
     /** Handles engine's essential updates, as from the scene and event classes.
      *
-     * @param delta The current amount of time (>= 1) passed between each frame, used to compensate behind calls.
+     * Input events received since the last tick are applied before the scene is updated, so inputs only change between
+     * ticks. While replaying, the recorded inputs are applied instead and the live ones are discarded. Completed jobs and
+     * waits have their callbacks called right after the inputs, also before the scene is updated. The events published
+     * during the tick (e.g. collisions and mouse picking) are dispatched after the mouse picking, while the inputs
+     * released on the tick are still available.
+     *
+     * @param delta The fixed amount of time (in seconds) passed between each tick.
      */
     public void update(float delta){
+        if(inputReplay != null && inputReplay.isFinished()){
+            inputReplay = null;
+        }
+
+        if(inputReplay != null){
+            KeyboardHandler.clearEvents();
+            MouseHandler.clearEvents();
+            inputReplay.beginTick();
+        }else{
+            KeyboardHandler.pollEvents();
+            MouseHandler.pollEvents();
+        }
+
+        if(inputRecorder != null) inputRecorder.beginTick();
+
+        jobScheduler.update(scene);
+
         if(scene != null){
+            long time = Profiler.start();
+
             scene.update(delta);
+            Profiler.stop(Profiler.Phase.UPDATE, time);
         }
 
-        display.getKeyboardHandler().update();
+        if(inputReplay != null) inputReplay.endTick();
+
         display.getMouseHandler().update();
+
+        long time = Profiler.start();
+
+        eventBus.dispatch();
+        Profiler.stop(Profiler.Phase.EVENTS, time);
+
+        display.getKeyboardHandler().update();
+        display.getMouseHandler().endTick();
+
+        if(inputRecorder != null) inputRecorder.endTick();
     }
 
-    /** Calls each stage of the render process. */
-    public void render(){
+    /** Calls each stage of the render process.
+     *
+     * @param alpha How far (between 0 and 1) the current time is between the last tick and the next one.
+     */
+    public void render(float alpha){
+        RendererHandler.setInterpolationAlpha(alpha);
+
+        long time = Profiler.start();
+
         RendererHandler.prepare();
+        Profiler.stop(Profiler.Phase.PREPARE, time);
+
+        time = Profiler.start();
+
         RendererHandler.render();
+        Profiler.stop(Profiler.Phase.RENDER, time);
+
+        time = Profiler.start();
+
         RendererHandler.display();
+        Profiler.stop(Profiler.Phase.DISPLAY, time);
     }
 
     public Scene getScene() {
@@ -121,7 +349,8 @@ public class Engine implements Runnable{
 
     /** Sets a new scene to be rendered and updated by the engine.
      *
-     * The start method is called within the new scene. The destroy method is called within the old scene.
+     * The start method is called within the new scene. The destroy method is called within the old scene, all its
+     * unfinished jobs are cancelled, and the events queued but not yet dispatched are discarded.
      *
      * @param scene A valid scene, that is not null nor the same as the current.
      */
@@ -129,7 +358,9 @@ public class Engine implements Runnable{
         if(scene == null || scene == this.scene) return;
 
         if(this.scene != null){
-            scene.destroy();
+            this.scene.destroy();
+            jobScheduler.cancelAll();
+            eventBus.clear();
         }
 
         this.scene = scene;
@@ -137,11 +368,120 @@ public class Engine implements Runnable{
         scene.start();
     }
 
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    /** Sets the amount of fixed updates per second. It only takes effect when the game loop is (re)started.
+     *
+     * @param tickRate  A tick rate greater than 0.
+     */
+    public void setTickRate(double tickRate) {
+        if(tickRate <= 0) return;
+
+        this.tickRate = tickRate;
+    }
+
+    public double getMaxFrameRate() {
+        return maxFrameRate;
+    }
+
+    public void setMaxFrameRate(double maxFrameRate) {
+        this.maxFrameRate = maxFrameRate;
+    }
+
+    public int getMaxUpdatesPerFrame() {
+        return maxUpdatesPerFrame;
+    }
+
+    public void setMaxUpdatesPerFrame(int maxUpdatesPerFrame) {
+        this.maxUpdatesPerFrame = Math.max(1, maxUpdatesPerFrame);
+    }
+
+    public boolean isPipelined() {
+        return isPipelined;
+    }
+
+    /** Sets whether the render is made by a separate thread or not. It only takes effect when the engine is started.
+     *
+     * When pipelined, the game loop records each tick's render requests into a snapshot, which is drawn by the render
+     * thread while the next ticks are updated. Components can't draw directly with Graphics in this mode.
+     *
+     * @param pipelined A flag to enable pipelined rendering.
+     */
+    public void setPipelined(boolean pipelined) {
+        isPipelined = pipelined;
+    }
+
+    /** Gets the engine's worker pool, creating it on the first call.
+     *
+     * @return  A work-stealing pool with one worker per available processor.
+     */
+    public synchronized ForkJoinPool getWorkerPool() {
+        if(workerPool == null){
+            workerPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        return workerPool;
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    public JobScheduler getJobScheduler() {
+        return jobScheduler;
+    }
+
+    public InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+
+    /** Sets a recorder for the inputs of every following tick. The previous recorder (if any) is closed.
+     *
+     * @param inputRecorder A new InputRecorder, or null to stop recording.
+     */
+    public void setInputRecorder(InputRecorder inputRecorder) {
+        if(this.inputRecorder != null && this.inputRecorder != inputRecorder){
+            this.inputRecorder.close();
+        }
+
+        this.inputRecorder = inputRecorder;
+    }
+
+    public InputReplay getInputReplay() {
+        return inputReplay;
+    }
+
+    /** Sets recorded inputs to be fed on the following ticks, instead of the live ones.
+     *
+     * The replay is only tick-exact if the engine runs at the same tick rate as when the inputs were recorded.
+     *
+     * @param inputReplay   A new InputReplay, or null to go back to live inputs.
+     */
+    public void setInputReplay(InputReplay inputReplay) {
+        if(inputReplay != null && inputReplay.getTickRate() != tickRate){
+            System.err.println("[ENGINE ERROR]: The inputs were recorded at " + inputReplay.getTickRate() + " ticks per second, but the engine runs at " + tickRate + ".");
+        }
+
+        this.inputReplay = inputReplay;
+    }
+
     public Display getDisplay() {
         return display;
     }
 
     public void setDisplay(Display display) {
+        if(display != this.display) isRendererReady = false;
+
         this.display = display;
     }
+
+    public boolean isRenderingEnabled() {
+        return isRenderingEnabled;
+    }
+
+    public void setRenderingEnabled(boolean renderingEnabled) {
+        isRenderingEnabled = renderingEnabled;
+    }
 }
@@ -0,0 +1,187 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.component.RigidBody;
+import fusyon.engine.util.GameMath;
+import fusyon.engine.util.Vector2f;
+
+import java.util.Arrays;
+
+/** Optional data-oriented storage for the motion of kinematic RigidBodies (the ones without a Collider).
+ *
+ * Instead of each RigidBody being updated on its own, following references across the heap, the positions,
+ * velocities and drags of all stored bodies are kept in dense primitive arrays (one per attribute), which are iterated
+ * linearly once per tick. Only the GameObjects that have moved are written back. The RigidBody and GameObject
+ * methods keep working as before, reading and writing the arrays when the body is stored.
+ *
+ * Bodies with a Collider are never stored, since each of their moves needs a collision query. Only root GameObjects
+ * are stored, so their positions never change along with a parent's. The storage is enabled per Scene, through
+ * {@code Scene.enableEntityStorage()}.
+ */
+public class EntityStorage {
+
+    /** The amount of stored bodies. */
+    private int size;
+
+    /** The stored bodies, indexed by their entity index. */
+    private RigidBody[] bodyArray = new RigidBody[64];
+    /** The GameObject of each stored body. */
+    private GameObject[] objectArray = new GameObject[64];
+    /** A flag for each body, telling if it is active. */
+    private boolean[] activeArray = new boolean[64];
+    /** A flag for each body, telling if it has moved on the current tick. */
+    private boolean[] movedArray = new boolean[64];
+
+    private float[] positionX = new float[64], positionY = new float[64];
+    private float[] velocityX = new float[64], velocityY = new float[64];
+    private float[] linearDrag = new float[64];
+
+    /** Stores a body, copying its GameObject's position and its motion into the arrays.
+     *
+     * @param body  A started RigidBody, with a root GameObject and without a Collider.
+     * @return      The body's entity index.
+     */
+    public int add(RigidBody body){
+        if(size == bodyArray.length) grow();
+
+        GameObject object = body.getParent();
+        Vector2f position = object.getPosition();
+        Vector2f linearVelocity = body.getLinearVelocity();
+        int index = size++;
+
+        bodyArray[index] = body;
+        objectArray[index] = object;
+        activeArray[index] = body.isActive();
+        positionX[index] = position.x;
+        positionY[index] = position.y;
+        velocityX[index] = linearVelocity.x;
+        velocityY[index] = linearVelocity.y;
+        linearDrag[index] = body.getLinearDrag();
+
+        object.setEntityStorage(this, index);
+
+        return index;
+    }
+
+    /** Removes a body, copying its motion back into it. The last body takes its place, keeping the arrays dense.
+     *
+     * @param index The body's entity index.
+     */
+    public void remove(int index){
+        RigidBody body = bodyArray[index];
+        int last = --size;
+
+        body.unstore(new Vector2f(velocityX[index], velocityY[index]), linearDrag[index]);
+        objectArray[index].setEntityStorage(null, -1);
+
+        if(index != last){
+            bodyArray[index] = bodyArray[last];
+            objectArray[index] = objectArray[last];
+            activeArray[index] = activeArray[last];
+            positionX[index] = positionX[last];
+            positionY[index] = positionY[last];
+            velocityX[index] = velocityX[last];
+            velocityY[index] = velocityY[last];
+            linearDrag[index] = linearDrag[last];
+
+            bodyArray[index].setEntityIndex(index);
+            objectArray[index].setEntityStorage(this, index);
+        }
+
+        bodyArray[last] = null;
+        objectArray[last] = null;
+    }
+
+    /** Moves all active bodies by their velocity, applying their drag, as RigidBody.update does for each body.
+     *
+     * @param delta The fixed time (in seconds) passed since the last tick.
+     */
+    void update(float delta){
+        float[] positionX = this.positionX, positionY = this.positionY;
+        float[] velocityX = this.velocityX, velocityY = this.velocityY;
+        float[] linearDrag = this.linearDrag;
+        boolean[] activeArray = this.activeArray;
+
+        boolean[] movedArray = this.movedArray;
+
+        for(int i = 0; i < size; i++){
+            if(!activeArray[i]){
+                movedArray[i] = false;
+                continue;
+            }
+
+            float drag = GameMath.clamp(1 - linearDrag[i], 0, 1);
+            float vx = velocityX[i] * drag;
+            float vy = velocityY[i] * drag;
+            float x = positionX[i] + vx * delta;
+            float y = positionY[i] + vy * delta;
+
+            movedArray[i] = x != positionX[i] || y != positionY[i];
+            velocityX[i] = vx;
+            velocityY[i] = vy;
+            positionX[i] = x;
+            positionY[i] = y;
+        }
+
+        // Written back in a second pass, so the loop above only touches the arrays.
+        for(int i = 0; i < size; i++){
+            if(movedArray[i]){
+                objectArray[i].setPosition(new Vector2f(positionX[i], positionY[i]));
+            }
+        }
+    }
+
+    /** Copies a GameObject's new position into the arrays. Called by the GameObject whenever its position changes.
+     *
+     * @param index     The entity index.
+     * @param position  The new world position.
+     */
+    public void setPosition(int index, Vector2f position){
+        positionX[index] = position.x;
+        positionY[index] = position.y;
+    }
+
+    public Vector2f getLinearVelocity(int index){
+        return new Vector2f(velocityX[index], velocityY[index]);
+    }
+
+    public void setLinearVelocity(int index, Vector2f linearVelocity){
+        velocityX[index] = linearVelocity.x;
+        velocityY[index] = linearVelocity.y;
+    }
+
+    public void addLinearVelocity(int index, float x, float y){
+        velocityX[index] += x;
+        velocityY[index] += y;
+    }
+
+    public float getLinearDrag(int index){
+        return linearDrag[index];
+    }
+
+    public void setLinearDrag(int index, float linearDrag){
+        this.linearDrag[index] = linearDrag;
+    }
+
+    public void setActive(int index, boolean active){
+        activeArray[index] = active;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private void grow(){
+        int capacity = bodyArray.length * 2;
+
+        bodyArray = Arrays.copyOf(bodyArray, capacity);
+        objectArray = Arrays.copyOf(objectArray, capacity);
+        activeArray = Arrays.copyOf(activeArray, capacity);
+        movedArray = Arrays.copyOf(movedArray, capacity);
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        linearDrag = Arrays.copyOf(linearDrag, capacity);
+    }
+}
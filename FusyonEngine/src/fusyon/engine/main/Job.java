@@ -0,0 +1,121 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.util.TimerWheel;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/** A handle to work scheduled on the JobScheduler: a background computation, or a wait for time or a condition.
+ *
+ * The completion callback always runs on the game thread, within Engine.update, and never runs if the job is cancelled
+ * before it. Jobs are cancelled automatically when their owner is removed from the Scene.
+ *
+ * @param <T>   The type of the job's result (Void for waits).
+ */
+public class Job<T> {
+
+    /** The scheduler that runs the job, told when it is cancelled. */
+    final JobScheduler scheduler;
+    /** The GameObject that owns the job (null if it is not owned). */
+    final GameObject owner;
+    /** The work to be run in the background (null for waits). */
+    final Callable<T> work;
+    /** Called on the game thread with the job's result (null if there is no callback). */
+    final Consumer<T> onComplete;
+
+    /** The amount of ticks a wait for time lasts. */
+    final long ticks;
+    /** The condition that completes a wait (null if it waits for time). */
+    final BooleanSupplier condition;
+
+    /** The timer of a wait for time, once it is scheduled on the scene (only accessed by the game thread). */
+    TimerWheel.Timer timer;
+    /** The running background work, used to cancel it. */
+    volatile Future<?> future;
+
+    private volatile boolean isCancelled;
+    private volatile boolean isDone;
+
+    private T result;
+    private Throwable error;
+
+    Job(JobScheduler scheduler, GameObject owner, Callable<T> work, Consumer<T> onComplete, long ticks, BooleanSupplier condition){
+        this.scheduler = scheduler;
+        this.owner = owner;
+        this.work = work;
+        this.onComplete = onComplete;
+        this.ticks = ticks;
+        this.condition = condition;
+    }
+
+    /** Runs the background work, storing its result or error. Called by a worker thread. */
+    void run(){
+        if(isCancelled) return;
+
+        try {
+            result = work.call();
+        } catch (Throwable e) {
+            error = e;
+        }
+    }
+
+    /** Marks the job as done, calling its completion callback. Called on the game thread. */
+    void complete(){
+        if(isCancelled) return;
+
+        isDone = true;
+
+        if(error != null){
+            System.err.println("[ENGINE ERROR]: A job owned by " + (owner != null ? owner.getName() : "no GameObject") + " has failed.");
+            error.printStackTrace();
+
+            return;
+        }
+
+        if(onComplete != null) onComplete.accept(result);
+    }
+
+    /** Cancels the job. Its callback won't be called, and its background work is skipped if it has not started yet.
+     *
+     * The job is also removed from its owner's jobs, and the timer of a wait for time is removed from the wheel (at the
+     * start of the next tick, if it is not cancelled by the game thread).
+     */
+    public void cancel(){
+        if(isDone || isCancelled) return;
+
+        isCancelled = true;
+
+        Future<?> future = this.future;
+
+        if(future != null) future.cancel(false);
+
+        scheduler.onCancel(this);
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /** Checks if the job has completed, which is only true once its callback has been called on the game thread.
+     *
+     * @return  True if the job has completed.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /** Gets the result of the job's background work.
+     *
+     * @return  The result (null if it is not done, failed or is a wait).
+     */
+    public T getResult() {
+        return isDone ? result : null;
+    }
+
+    public GameObject getOwner() {
+        return owner;
+    }
+}
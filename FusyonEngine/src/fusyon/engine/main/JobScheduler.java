@@ -0,0 +1,257 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/** Runs expensive work (e.g. chunk generation, pathfinding or sprite decoding) in the background, and waits for time or
+ * conditions, delivering every completion back on the game thread.
+ *
+ * Background work runs on a work-stealing pool of its own, so long jobs never delay the engine's worker pool (used by the
+ * parallel component updates). Completed jobs are queued and their callbacks are called by the engine at the start of
+ * each tick, before the scene is updated. Conditions are checked at the same point. Waits for time are scheduled on the
+ * scene's TimerWheel, so a waiting job costs nothing until it is due, and always completes on the same tick.
+ *
+ * Jobs can be submitted from any thread. The scheduler is owned by the Engine and accessed through
+ * {@code engine.getJobScheduler()}, or through the Component helper methods.
+ */
+public class JobScheduler {
+
+    /** The pool where background work is run, created on the first submit. */
+    private ForkJoinPool jobPool;
+
+    /** Jobs whose background work has finished, waiting for their callbacks. */
+    private final Queue<Job<?>> completedQueue = new ConcurrentLinkedQueue<>();
+    /** Waits scheduled since the last tick, which will be started on the next one. */
+    private final Queue<Job<?>> scheduledWaitQueue = new ConcurrentLinkedQueue<>();
+    /** Waits for conditions being checked each tick, in the order they were scheduled. Only accessed by the game thread. */
+    private final List<Job<?>> waitList = new ArrayList<>();
+    /** Relates each GameObject with its unfinished jobs, so they can be cancelled when it is removed. */
+    private final Map<GameObject, List<Job<?>>> ownerJobMap = new IdentityHashMap<>();
+    /** Waits for time cancelled outside the game thread, whose timers are removed on the next tick. */
+    private final Queue<Job<?>> cancelledWaitQueue = new ConcurrentLinkedQueue<>();
+
+    /** The thread updating the scheduler (the game thread), the only one allowed to access the TimerWheel. */
+    private volatile Thread updateThread;
+
+    /** Runs work in the background, delivering its result on the game thread.
+     *
+     * @param owner         The GameObject that owns the job (null if it should not be cancelled with any object).
+     * @param work          The work to be run on a background thread. It must not access the Scene.
+     * @param onComplete    Called on the game thread with the work's result (may be null).
+     * @param <T>           The type of the result.
+     * @return              A handle to the job.
+     */
+    public <T> Job<T> submit(GameObject owner, Callable<T> work, Consumer<T> onComplete){
+        Job<T> job = new Job<>(this, owner, work, onComplete, 0, null);
+
+        register(job);
+
+        job.future = getJobPool().submit(() -> {
+            job.run();
+
+            if(!job.isCancelled()) completedQueue.add(job);
+        });
+
+        return job;
+    }
+
+    /** Waits for an amount of simulated time, then calls a callback on the game thread.
+     *
+     * @param owner     The GameObject that owns the wait (null if it should not be cancelled with any object).
+     * @param seconds   The time to wait (in seconds), rounded to the nearest tick.
+     * @param callback  Called on the game thread when the time is over.
+     * @return          A handle to the wait.
+     */
+    public Job<Void> waitSeconds(GameObject owner, float seconds, Runnable callback){
+        Job<Void> job = new Job<>(this, owner, null, result -> callback.run(), Scene.toTicks(seconds), null);
+
+        register(job);
+        scheduledWaitQueue.add(job);
+
+        return job;
+    }
+
+    /** Waits until a condition is met, then calls a callback on the game thread. The condition is checked once per tick.
+     *
+     * @param owner     The GameObject that owns the wait (null if it should not be cancelled with any object).
+     * @param condition The condition to wait for, checked on the game thread.
+     * @param callback  Called on the game thread when the condition is met.
+     * @return          A handle to the wait.
+     */
+    public Job<Void> waitUntil(GameObject owner, BooleanSupplier condition, Runnable callback){
+        Job<Void> job = new Job<>(this, owner, null, result -> callback.run(), 0, condition);
+
+        register(job);
+        scheduledWaitQueue.add(job);
+
+        return job;
+    }
+
+    /** Calls the callbacks of every job completed since the last tick, starts the new waits and checks the conditions.
+     * Called by the engine at the start of each tick.
+     *
+     * @param scene The current scene, on which waits for time are scheduled.
+     */
+    void update(Scene scene){
+        Job<?> job;
+
+        updateThread = Thread.currentThread();
+
+        while((job = cancelledWaitQueue.poll()) != null){
+            if(job.timer != null) job.timer.cancel();
+        }
+
+        while((job = completedQueue.poll()) != null){
+            finish(job);
+        }
+
+        while((job = scheduledWaitQueue.poll()) != null){
+            if(job.isCancelled()) continue;
+
+            if(job.condition != null){
+                waitList.add(job);
+            }else if(scene != null){
+                Job<?> timedJob = job;
+
+                // The wheel is advanced within this tick's scene update, so this tick also counts.
+                job.timer = scene.getTimerWheel().scheduleOnce(job.ticks, () -> finish(timedJob));
+            }else{
+                System.err.println("[ENGINE ERROR]: A wait can't be started without a scene.");
+                job.cancel();
+            }
+        }
+
+        int size = waitList.size();
+        int kept = 0;
+
+        for(int i = 0; i < size; i++){
+            job = waitList.get(i);
+
+            if(job.isCancelled()) continue;
+
+            if(job.condition.getAsBoolean()){
+                finish(job);
+            }else{
+                waitList.set(kept++, job);
+            }
+        }
+
+        waitList.subList(kept, size).clear();
+    }
+
+    /** Cancels all unfinished jobs owned by a GameObject. Called by the Scene when the GameObject is removed.
+     *
+     * @param owner A GameObject.
+     */
+    public void cancelAll(GameObject owner){
+        List<Job<?>> jobList;
+
+        synchronized (ownerJobMap){
+            jobList = ownerJobMap.remove(owner);
+        }
+
+        if(jobList == null) return;
+
+        for(Job<?> job : jobList){
+            job.cancel();
+        }
+    }
+
+    /** Cancels all unfinished jobs (e.g. when the scene is changed). */
+    public void cancelAll(){
+        List<List<Job<?>>> jobLists;
+
+        synchronized (ownerJobMap){
+            jobLists = new ArrayList<>(ownerJobMap.values());
+            ownerJobMap.clear();
+        }
+
+        for(List<Job<?>> jobList : jobLists){
+            for(Job<?> job : jobList){
+                job.cancel();
+            }
+        }
+
+        for(Job<?> job : waitList){
+            job.cancel();
+        }
+
+        for(Job<?> job : scheduledWaitQueue){
+            job.cancel();
+        }
+
+        completedQueue.clear();
+
+        Job<?> job;
+
+        while((job = cancelledWaitQueue.poll()) != null){
+            if(job.timer != null) job.timer.cancel();
+        }
+    }
+
+    /** Forgets a cancelled job, removing it from its owner's jobs and its timer from the wheel. Called by Job.cancel.
+     *
+     * @param job   A job that has just been cancelled, on any thread.
+     */
+    void onCancel(Job<?> job){
+        unregister(job);
+
+        // Only waits for time have timers, and only the game thread may touch the wheel.
+        if(job.work != null || job.condition != null) return;
+
+        if(Thread.currentThread() == updateThread){
+            if(job.timer != null) job.timer.cancel();
+        }else{
+            cancelledWaitQueue.add(job);
+        }
+    }
+
+    private void register(Job<?> job){
+        if(job.owner == null) return;
+
+        synchronized (ownerJobMap){
+            ownerJobMap.computeIfAbsent(job.owner, owner -> new ArrayList<>()).add(job);
+        }
+    }
+
+    private void unregister(Job<?> job){
+        if(job.owner == null) return;
+
+        synchronized (ownerJobMap){
+            List<Job<?>> jobList = ownerJobMap.get(job.owner);
+
+            if(jobList != null){
+                jobList.remove(job);
+
+                if(jobList.isEmpty()) ownerJobMap.remove(job.owner);
+            }
+        }
+    }
+
+    private void finish(Job<?> job){
+        unregister(job);
+        job.complete();
+    }
+
+    /** Gets the pool where background work is run, creating it on the first call.
+     *
+     * @return  A work-stealing pool, leaving a processor for the game thread when possible.
+     */
+    private synchronized ForkJoinPool getJobPool(){
+        if(jobPool == null){
+            jobPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+
+        return jobPool;
+    }
+}
@@ -0,0 +1,194 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/** Indexes the GameObjects of a Scene by tag and by layer.
+ *
+ * Each tag bit and each layer has its own set of GameObjects, kept up to date as GameObjects are added to or removed
+ * from the Scene and as their tags or layer change, so a query costs as much as its result, instead of a scan of the
+ * whole Scene. The sets keep the order in which GameObjects entered them.
+ *
+ * GameObjects parked by the PrefabPool are left out of the sets while parked, so they are not found as part of the
+ * Scene, and are put back with their current tags and layer when spawned again.
+ */
+class ObjectIndex {
+
+    /** The GameObjects with each tag, indexed by the tag's bit (null if none has had it yet). */
+    private final Set<GameObject>[] tagSetArray = createSetArray();
+    /** The read-only views of the tag sets. */
+    private final Set<GameObject>[] tagViewArray = createSetArray();
+    /** The GameObjects on each layer, indexed by the layer (null if none has been on it yet). */
+    private final Set<GameObject>[] layerSetArray = createSetArray();
+    /** The read-only views of the layer sets. */
+    private final Set<GameObject>[] layerViewArray = createSetArray();
+    /** The GameObjects left out of the sets while parked. */
+    private final Set<GameObject> parkedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Indexes a GameObject added to the Scene.
+     *
+     * @param object    A GameObject.
+     */
+    void add(GameObject object){
+        addTags(object, object.getTags());
+        getLayerSet(object.getLayer()).add(object);
+    }
+
+    /** Takes a GameObject removed from the Scene out of the index.
+     *
+     * @param object    A GameObject.
+     */
+    void remove(GameObject object){
+        if(parkedSet.remove(object)) return;
+
+        removeTags(object, object.getTags());
+        getLayerSet(object.getLayer()).remove(object);
+    }
+
+    /** Updates the tag sets of a GameObject whose tags have changed.
+     *
+     * @param object    A GameObject within the Scene.
+     * @param oldTags   Its previous tag mask.
+     */
+    void changeTags(GameObject object, int oldTags){
+        if(parkedSet.contains(object)) return;
+
+        int newTags = object.getTags();
+
+        removeTags(object, oldTags & ~newTags);
+        addTags(object, newTags & ~oldTags);
+    }
+
+    /** Moves a GameObject whose layer has changed to its new layer set.
+     *
+     * @param object    A GameObject within the Scene.
+     * @param oldLayer  Its previous layer.
+     */
+    void changeLayer(GameObject object, int oldLayer){
+        if(parkedSet.contains(object)) return;
+
+        getLayerSet(oldLayer).remove(object);
+        getLayerSet(object.getLayer()).add(object);
+    }
+
+    /** Leaves a GameObject parked by the PrefabPool out of the sets, until it is unparked.
+     *
+     * @param object    A GameObject within the Scene.
+     */
+    void park(GameObject object){
+        if(parkedSet.contains(object)) return;
+
+        remove(object);
+        parkedSet.add(object);
+    }
+
+    /** Puts a GameObject spawned again by the PrefabPool back into the sets.
+     *
+     * @param object    A GameObject within the Scene.
+     */
+    void unpark(GameObject object){
+        if(parkedSet.remove(object)) add(object);
+    }
+
+    /** Gets the GameObjects with a tag.
+     *
+     * @param tag   A tag's mask (a single bit).
+     * @return      A read-only view of the GameObjects, updated as the index changes.
+     */
+    Set<GameObject> getWithTag(int tag){
+        if(tag == 0) return Collections.emptySet();
+
+        int bit = Integer.numberOfTrailingZeros(tag);
+
+        if(tagSetArray[bit] == null) return Collections.emptySet();
+
+        return tagViewArray[bit];
+    }
+
+    /** Finds the GameObjects with all tags of a mask, only going through the GameObjects of its rarest tag.
+     *
+     * @param tags      A mask of tags.
+     * @param result    The collection where the GameObjects are added.
+     */
+    void findWithTags(int tags, Collection<GameObject> result){
+        if(tags == 0) return;
+
+        Set<GameObject> rarestSet = null;
+
+        for(int remainingTags = tags; remainingTags != 0; remainingTags &= remainingTags - 1){
+            Set<GameObject> tagSet = tagSetArray[Integer.numberOfTrailingZeros(remainingTags)];
+
+            if(tagSet == null || tagSet.isEmpty()) return;
+
+            if(rarestSet == null || tagSet.size() < rarestSet.size()) rarestSet = tagSet;
+        }
+
+        for(GameObject object : rarestSet){
+            if((object.getTags() & tags) == tags) result.add(object);
+        }
+    }
+
+    /** Gets the GameObjects on a layer.
+     *
+     * @param layer A layer's index.
+     * @return      A read-only view of the GameObjects, updated as the index changes.
+     */
+    Set<GameObject> getOnLayer(int layer){
+        if(layer < 0 || layer >= Settings.maxTagCount || layerSetArray[layer] == null) return Collections.emptySet();
+
+        return layerViewArray[layer];
+    }
+
+    /** Finds the GameObjects on any layer of a mask.
+     *
+     * @param layerMask A mask with the bit of each layer (1 << layer) set.
+     * @param result    The collection where the GameObjects are added.
+     */
+    void findOnLayers(int layerMask, Collection<GameObject> result){
+        for(int remainingLayers = layerMask; remainingLayers != 0; remainingLayers &= remainingLayers - 1){
+            Set<GameObject> layerSet = layerSetArray[Integer.numberOfTrailingZeros(remainingLayers)];
+
+            if(layerSet != null) result.addAll(layerSet);
+        }
+    }
+
+    private void addTags(GameObject object, int tags){
+        for(int remainingTags = tags; remainingTags != 0; remainingTags &= remainingTags - 1){
+            int bit = Integer.numberOfTrailingZeros(remainingTags);
+
+            if(tagSetArray[bit] == null){
+                tagSetArray[bit] = new LinkedHashSet<>();
+                tagViewArray[bit] = Collections.unmodifiableSet(tagSetArray[bit]);
+            }
+
+            tagSetArray[bit].add(object);
+        }
+    }
+
+    private void removeTags(GameObject object, int tags){
+        for(int remainingTags = tags; remainingTags != 0; remainingTags &= remainingTags - 1){
+            Set<GameObject> tagSet = tagSetArray[Integer.numberOfTrailingZeros(remainingTags)];
+
+            if(tagSet != null) tagSet.remove(object);
+        }
+    }
+
+    private Set<GameObject> getLayerSet(int layer){
+        if(layerSetArray[layer] == null){
+            layerSetArray[layer] = new LinkedHashSet<>();
+            layerViewArray[layer] = Collections.unmodifiableSet(layerSetArray[layer]);
+        }
+
+        return layerSetArray[layer];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<GameObject>[] createSetArray(){
+        return (Set<GameObject>[]) new Set<?>[Settings.maxTagCount];
+    }
+}
@@ -1,5 +1,7 @@
 package fusyon.engine.main;
 
+import fusyon.engine.event.CollisionEvent;
+import fusyon.engine.event.MouseEnterEvent;
 import fusyon.engine.event.MouseHandler;
 import fusyon.engine.gameobject.Canvas;
 import fusyon.engine.gameobject.GameObject;
@@ -11,18 +13,69 @@ import fusyon.engine.gameobject.component.RigidBody;
 import fusyon.engine.util.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static fusyon.engine.main.Engine.engine;
 
 /** Handles all GameObject's physics.
+ *
+ * The Colliders of the scene are kept in a broad-phase: by default a DynamicAABBTree, whose fat boxes let a Collider
+ * move a few units without changing the tree, or any other IBroadPhase set by the scene (e.g. a SpatialHashGrid for
+ * levels made of same-sized tiles).
+ *
+ * Once per tick, after the Colliders have moved, every pair of touching Colliders is found in a single pass. Only the
+ * Colliders whose GameObject has a RigidBody take part in the sweep and prune (they are kept sorted by their left
+ * edge, which barely changes between ticks, so each one is only checked against the ones starting before its right
+ * edge), and each of them finds the static Colliders it touches with a broad-phase query. Pairs of static Colliders
+ * are never checked, as they never move into each other, so the pass scales with the moving bodies rather than with
+ * the size of the level. The touching pairs are kept from one tick to the next, to tell both Colliders when a contact
+ * starts, goes on, and ends, through CollisionEvents. The queries themselves publish no CollisionEvents.
  *
  * @author Gabriel de Mello (Fusyon)
  */
 public class Physics {
 
-    /** The ColliderQuadTree that stores every Collider from the scene. */
-    private ColliderQuadTree colliderTree = new ColliderQuadTree(new FloatRectangle(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE, Integer.MAX_VALUE), 16);
+    /** How much the Colliders' fat boxes are enlarged on each side (in world units). */
+    public static final float colliderMargin = 8;
+
+    /** The broad-phase that stores every Collider from the scene. */
+    private IBroadPhase broadPhase = new DynamicAABBTree(colliderMargin);
+
+    /** The Colliders of GameObjects with a RigidBody, sorted by their left edge as of the last contact pass. */
+    private Collider[] sweepArray = new Collider[64];
+    /** The left edge of each Collider of the sweep. */
+    private float[] sweepMinXArray = new float[64];
+    /** The other edges of each Collider of the sweep, copied on each pass so the sweep reads them sequentially. */
+    private float[] sweepMaxXArray = new float[64], sweepMinYArray = new float[64], sweepMaxYArray = new float[64];
+    /** A flag for each Collider of the sweep that indicates if it takes part in contacts on this pass. */
+    private boolean[] sweepTouchableArray = new boolean[64];
+    private int sweepCount;
+    /** The Colliders added since the last pass, to be merged into the sweep. */
+    private final List<Collider> addedColliderList = new ArrayList<>();
+    /** The number of the last pass each proxy was kept in the sweep by, so removed and added again Colliders are only
+     * kept once, and the static Colliders found by the queries are told apart from the ones of the sweep.
+     */
+    private int[] proxyStampArray = new int[64];
+
+    /** The pairs of Colliders touching each other. */
+    private final ContactSet contactSet = new ContactSet();
+    /** The number of the next contact pass. */
+    private int contactTick = 1;
+    /** The query finding the static Colliders touched by each Collider of the sweep. */
+    private final ContactQuery contactQuery = new ContactQuery();
+
+    /** The overlap query of each thread, reused for all of its queries. */
+    private static final ThreadLocal<OverlapQuery> overlapQuery = ThreadLocal.withInitial(OverlapQuery::new);
+    /** The sweep query of each thread, reused for all of its sweeps. */
+    private static final ThreadLocal<SweepQuery> sweepQuery = ThreadLocal.withInitial(SweepQuery::new);
+    /** The distance a swept Collider stops from the side it touches (in world units). */
+    private static final float sweepSkin = 0.01f;
+    /** The offset of the rectangles that don't belong to a Collider (e.g. the mouse's). */
+    private static final Vector2f zero = new Vector2f(0, 0);
+
+    /** The hit handed to both Colliders of each CollisionEvent, reused for every event. */
+    private static final ColliderHit deliveredHit = new ColliderHit(null, null, null, new Vector2f(0, 0));
 
     /** Overlaps a rectangle, checking for a collision in its area.
      *
@@ -31,7 +84,12 @@ public class Physics {
      * @return          The first ColliderHit containing collision data (null if no collision is detected).
      */
     public static ColliderHit overlapRectangle(Vector2f position, Vector2f size){
-        return overlapRectangle(new RectangleCollider(position, Vector2f.zero, size));
+        OverlapQuery query = getOverlapQuery();
+
+        query.begin(null, false, false, null);
+        query.run(position, zero, size);
+
+        return query.end();
     }
 
     /** Overlaps a rectangle, checking for collisions in its area.
@@ -41,7 +99,14 @@ public class Physics {
      * @return          A list of ColliderHits containing collision data (null if no collision is detected).
      */
     public static List<ColliderHit> overlapRectangleAll(Vector2f position, Vector2f size){
-        return overlapRectangleAll(new RectangleCollider(position, Vector2f.zero, size));
+        OverlapQuery query = getOverlapQuery();
+        List<ColliderHit> colliderHits = new ArrayList<>();
+
+        query.begin(null, false, false, colliderHits);
+        query.run(position, zero, size);
+        query.end();
+
+        return colliderHits;
     }
 
     /** Overlaps a RectangleCollider, checking a collision in the specified RectangleCollider's area.
@@ -50,25 +115,12 @@ public class Physics {
      * @return                  The first ColliderHit containing collision data (null if no collision is detected).
      */
     public static ColliderHit overlapRectangle(RectangleCollider rectangleCollider){
-        ColliderHit colliderHit = null;
-        Vector2f size = rectangleCollider.size;
-        Vector2f position = rectangleCollider.position;
-        Vector2f offset = rectangleCollider.offset;
-
-        List<Collider> colliderList = engine.getScene().getPhysics().getColliderTree().query(new FloatRectangle(position.x + offset.x, position.y + offset.y, size.x, size.y));
+        OverlapQuery query = getOverlapQuery();
 
-        for(Collider collider : colliderList){
-            if(collider == rectangleCollider || !collider.isActive() || collider.isCanvasCollider()) continue;
-
-            if(collider instanceof RectangleCollider && (colliderHit = checkRectRectCollision(rectangleCollider, (RectangleCollider) collider)) != null){
-
-                rectangleCollider.onCollisionEnter(colliderHit);
-                collider.onCollisionEnter(new ColliderHit(rectangleCollider.getParent(), rectangleCollider, (RigidBody) rectangleCollider.getParent().getComponent("RigidBody"), colliderHit.getContactDirection().multiply(-1)));
-                break;
-            }
-        }
+        query.begin(rectangleCollider, false, false, null);
+        query.run(rectangleCollider.position, rectangleCollider.offset, rectangleCollider.size);
 
-        return colliderHit;
+        return query.end();
     }
 
     /** Overlaps a RectangleCollider, checking a collision in the specified RectangleCollider's area.
@@ -77,127 +129,620 @@ public class Physics {
      * @return                  A list of ColliderHits containing collision data (null if no collision is detected).
      */
     public static List<ColliderHit> overlapRectangleAll(RectangleCollider rectangleCollider){
-        Vector2f size = rectangleCollider.size;
-        Vector2f position = rectangleCollider.position;
-        Vector2f offset = rectangleCollider.offset;
+        OverlapQuery query = getOverlapQuery();
         List<ColliderHit> colliderHits = new ArrayList<>();
 
-        List<Collider> colliderList = engine.getScene().getPhysics().getColliderTree().query(new FloatRectangle(position.x + offset.x, position.y + offset.y, size.x, size.y));
+        query.begin(rectangleCollider, false, false, colliderHits);
+        query.run(rectangleCollider.position, rectangleCollider.offset, rectangleCollider.size);
+        query.end();
 
-        for(Collider collider : colliderList){
-            if(collider == rectangleCollider || !collider.isActive() || collider.isCanvasCollider()) continue;
+        return colliderHits;
+    }
 
-            ColliderHit colliderHit;
+    /** Raycast from the mouse local position to any intersectable Canvas.
+     *
+     * @return  A list of ColliderHits containing collision data (null if no collision is detected).
+     */
+    public static List<ColliderHit> mouseCanvasOverlapAll(){
+        OverlapQuery query = getOverlapQuery();
+        List<ColliderHit> colliderHits = new ArrayList<>();
 
-            if(collider instanceof RectangleCollider && (colliderHit = checkRectRectCollision(rectangleCollider, (RectangleCollider) collider)) != null){
-                colliderHits.add(colliderHit);
-                rectangleCollider.onCollisionEnter(colliderHit);
-                collider.onCollisionEnter(new ColliderHit(rectangleCollider.getParent(), rectangleCollider, (RigidBody) rectangleCollider.getParent().getComponent("RigidBody"), colliderHit.getContactDirection().multiply(-1)));
-            }
-        }
+        query.begin(null, true, true, colliderHits);
+        query.run(MouseHandler.getMousePosition(), zero, MouseHandler.getMouseSize());
+        query.end();
+
+        if(colliderHits.size() > 0) MouseHandler.setMouseOverCanvas(true);
 
         return colliderHits;
     }
 
-    /** Raycast from the mouse local position to any intersectable Canvas.
+    /** Raycast from the mouse world position to any intersectable Canvas.
      *
      * @return  A list of ColliderHits containing collision data (null if no collision is detected).
      */
-    public static List<ColliderHit> mouseCanvasOverlapAll(){
-        RectangleCollider rectangleCollider = new RectangleCollider(MouseHandler.getMousePosition(), MouseHandler.getMouseSize());
-        Vector2f size = rectangleCollider.size;
-        Vector2f position = rectangleCollider.position;
-        Vector2f offset = rectangleCollider.offset;
+    public static List<ColliderHit> mouseOverlapAll(){
+        OverlapQuery query = getOverlapQuery();
         List<ColliderHit> colliderHits = new ArrayList<>();
 
-        List<Collider> colliderList = engine.getScene().getPhysics().getColliderTree().query(new FloatRectangle(position.x + offset.x, position.y + offset.y, size.x, size.y));
+        query.begin(null, true, false, colliderHits);
+        query.run(MouseHandler.getMouseWorldPosition(), zero, MouseHandler.getMouseSize());
+        query.end();
 
-        for(Collider collider : colliderList){
-            if(collider == rectangleCollider || !collider.isActive() || collider.isIgnoreMouseRaycast() || !collider.isCanvasCollider()) continue;
+        return colliderHits;
+    }
 
-            ColliderHit colliderHit;
-            GameObject gameObject = collider.getParent();
-            Vector2f colliderSize = collider.size;
+    /** Sweeps a Collider's box along a displacement, stopping where it first touches a non-trigger Collider, and sliding
+     * along the touched side for the rest of the displacement.
+     *
+     * The Colliders on the way are found by a single broad-phase query over the area swept by the box, and the time of
+     * impact with each of them is found by intersecting the box's path with it, so a fast Collider can't pass through a
+     * thin one. Colliders already overlapping the box are ignored, so it can move out of them. The box stops a small
+     * skin away from the touched side, so it isn't found overlapping it on the next move.
+     *
+     * @param collider      The swept Collider (nothing is hit if it is a trigger).
+     * @param position      The position its box is swept from (usually its GameObject's current position).
+     * @param stepX         The displacement on the x axis.
+     * @param stepY         The displacement on the y axis.
+     * @param destination   The vector where the position reached is stored.
+     * @return              The first hit, with the fraction of the displacement travelled before it and the normal of the
+     *                      touched side (null if nothing was hit).
+     */
+    public static SweepHit sweepCollider(Collider collider, Vector2f position, float stepX, float stepY, Vector2f destination){
+        float x = position.x, y = position.y;
+
+        if(collider.isTrigger()){
+            destination.set(x + stepX, y + stepY);
+            return null;
+        }
+
+        Vector2f offset = collider.offset, size = collider.size;
+        float minX = Math.min(x + offset.x, x + offset.x + size.x), minY = Math.min(y + offset.y, y + offset.y + size.y);
+        float width = Math.abs(size.x), height = Math.abs(size.y);
+
+        SweepQuery query = getSweepQuery();
+        List<Collider> candidateList = query.candidateList;
+
+        query.isInUse = true;
+        query.source = collider;
+        engine.getScene().getPhysics().getBroadPhase().query(minX + Math.min(stepX, 0), minY + Math.min(stepY, 0),
+                minX + width + Math.max(stepX, 0), minY + height + Math.max(stepY, 0), query);
+        query.source = null;
+
+        SweepHit firstHit = null;
+        float remainingX = stepX, remainingY = stepY;
+
+        // A slide only keeps one axis of the displacement, so the box is stopped at most once per axis.
+        for(int pass = 0; pass < 2 && (remainingX != 0 || remainingY != 0); pass++){
+            Collider hitCollider = null;
+            float hitTime = 1;
+            boolean isHitOnX = false;
+
+            for(int i = 0; i < candidateList.size(); i++){
+                Collider candidate = candidateList.get(i);
+                Vector2f candidatePosition = candidate.position, candidateOffset = candidate.offset, candidateSize = candidate.size;
+                float candidateMinX = Math.min(candidatePosition.x + candidateOffset.x, candidatePosition.x + candidateOffset.x + candidateSize.x);
+                float candidateMinY = Math.min(candidatePosition.y + candidateOffset.y, candidatePosition.y + candidateOffset.y + candidateSize.y);
+
+                // The times at which the box starts and stops overlapping the candidate, on each axis.
+                float entryX, exitX, entryY, exitY;
+
+                // Along an axis without motion, only touching the candidate's side is not enough to hit it, so the box can
+                // slide along a row of Colliders.
+                if(remainingX == 0){
+                    if(minX + width <= candidateMinX || minX >= candidateMinX + Math.abs(candidateSize.x)) continue;
+
+                    entryX = Float.NEGATIVE_INFINITY;
+                    exitX = Float.POSITIVE_INFINITY;
+                }else{
+                    float near = remainingX > 0 ? candidateMinX - (minX + width) : (candidateMinX + Math.abs(candidateSize.x)) - minX;
+                    float far = remainingX > 0 ? (candidateMinX + Math.abs(candidateSize.x)) - minX : candidateMinX - (minX + width);
+
+                    entryX = near / remainingX;
+                    exitX = far / remainingX;
+                }
+
+                if(remainingY == 0){
+                    if(minY + height <= candidateMinY || minY >= candidateMinY + Math.abs(candidateSize.y)) continue;
 
-            if(gameObject instanceof Canvas){
-                Canvas canvas = (Canvas) gameObject;
+                    entryY = Float.NEGATIVE_INFINITY;
+                    exitY = Float.POSITIVE_INFINITY;
+                }else{
+                    float near = remainingY > 0 ? candidateMinY - (minY + height) : (candidateMinY + Math.abs(candidateSize.y)) - minY;
+                    float far = remainingY > 0 ? (candidateMinY + Math.abs(candidateSize.y)) - minY : candidateMinY - (minY + height);
 
-                if(canvas.isKeepProportion()){
-                    Vector2f stretchFactor = RendererHandler.getStretchFactor();
-                    collider.size = new Vector2f(colliderSize.x * stretchFactor.x, colliderSize.y * stretchFactor.y);
+                    entryY = near / remainingY;
+                    exitY = far / remainingY;
                 }
+
+                boolean isOnX = entryX > entryY;
+                float entry = isOnX ? entryX : entryY;
+                float exit = Math.min(exitX, exitY);
+
+                // A box that already overlaps the candidate by more than the skin is moving out of it.
+                float entryDistance = entry * Math.abs(isOnX ? remainingX : remainingY);
+
+                if(entry > exit || exit <= 0 || entryDistance < -sweepSkin || entry >= hitTime) continue;
+
+                hitCollider = candidate;
+                hitTime = entry;
+                isHitOnX = isOnX;
             }
 
-            if(collider instanceof RectangleCollider && (colliderHit = checkRectRectCollision(rectangleCollider, (RectangleCollider) collider)) != null){
-                colliderHits.add(colliderHit);
-                collider.onMouseEnter();
+            if(hitCollider == null){
+                minX += remainingX;
+                minY += remainingY;
+                break;
             }
 
-            collider.size = colliderSize;
+            // The box stops a skin away from the touched side, and keeps sliding along it.
+            float stepLength = Math.abs(isHitOnX ? remainingX : remainingY);
+            float moveTime = Math.max(0, hitTime - sweepSkin / stepLength);
+
+            minX += remainingX * moveTime;
+            minY += remainingY * moveTime;
+
+            if(firstHit == null){
+                Vector2f normal = isHitOnX ? new Vector2f(-Math.signum(remainingX), 0) : new Vector2f(0, -Math.signum(remainingY));
+
+                firstHit = new SweepHit(hitCollider.getParent(), hitCollider, getRigidBody(hitCollider), Math.max(0, hitTime), normal);
+            }
+
+            if(isHitOnX){
+                remainingX = 0;
+                remainingY *= 1 - moveTime;
+            }else{
+                remainingX *= 1 - moveTime;
+                remainingY = 0;
+            }
         }
 
-        if(colliderHits.size() > 0) MouseHandler.setMouseOverCanvas(true);
+        candidateList.clear();
+        query.isInUse = false;
+        destination.set(minX - Math.min(offset.x, offset.x + size.x), minY - Math.min(offset.y, offset.y + size.y));
 
-        return colliderHits;
+        return firstHit;
     }
 
-    /** Raycast from the mouse world position to any intersectable Canvas.
+    /** Check the collision between a rectangle and a RectangleCollider.
      *
-     * @return  A list of ColliderHits containing collision data (null if no collision is detected).
+     * @param x         The rectangle's horizontal position.
+     * @param y         The rectangle's vertical position.
+     * @param width     The rectangle's width (may be negative).
+     * @param height    The rectangle's height (may be negative).
+     * @param b         A RectangleCollider.
+     * @return          The ColliderHit containing collision data (null if there is not a collision).
      */
-    public static List<ColliderHit> mouseOverlapAll(){
-        RectangleCollider rectangleCollider = new RectangleCollider(MouseHandler.getMouseWorldPosition(), MouseHandler.getMouseSize());
-        Vector2f size = rectangleCollider.size;
-        Vector2f position = rectangleCollider.position;
-        Vector2f offset = rectangleCollider.offset;
-        List<ColliderHit> colliderHits = new ArrayList<>();
+    private static ColliderHit checkRectRectCollision(float x, float y, float width, float height, RectangleCollider b){
+        Vector2f positionB = b.position, offsetB = b.offset, sizeB = b.size;
+
+        if(Math.max(x, x + width) >= Math.min(positionB.x + offsetB.x, positionB.x + sizeB.x + offsetB.x) &&
+                Math.min(x, x + width) <= Math.max(positionB.x + offsetB.x, positionB.x + sizeB.x + offsetB.x) &&
+                Math.max(y, y + height) >= Math.min(positionB.y + offsetB.y, positionB.y + sizeB.y + offsetB.y) &&
+                Math.min(y, y + height) <= Math.max(positionB.y + offsetB.y, positionB.y + sizeB.y + offsetB.y)){
+
+            float directionX = (positionB.x + offsetB.x + sizeB.x / 2) - (x + width / 2);
+            float directionY = (positionB.y + offsetB.y + sizeB.y / 2) - (y + height / 2);
+
+            return new ColliderHit(b.getParent(), b, getRigidBody(b), new Vector2f(directionX, directionY).normalizeLocal());
+        }
+
+        return null;
+    }
+
+    /** Records that two Colliders are touching on the current tick, besides the ones found overlapping by the contact
+     * pass. Used by a RigidBody blocked by another Collider, which stops before overlapping it.
+     *
+     * @param collider  A Collider within the broad-phase.
+     * @param other     Another Collider within the broad-phase.
+     */
+    public static void addContact(Collider collider, Collider other){
+        if(collider.getProxyId() == -1 || other.getProxyId() == -1) return;
+
+        engine.getScene().getPhysics().touch(collider, other);
+    }
+
+    /** Finds every pair of touching Colliders, publishing a CollisionEvent for each contact that has started, gone on,
+     * or ended on this tick. Called by the scene once per tick, after its GameObjects have moved.
+     */
+    void updateContacts(){
+        long time = Profiler.start();
+
+        mergeSweep();
+        sortSweep();
+
+        for(int i = 0; i < sweepCount; i++){
+            if(!sweepTouchableArray[i]) continue;
 
-        List<Collider> colliderList = engine.getScene().getPhysics().getColliderTree().query(new FloatRectangle(position.x + offset.x, position.y + offset.y, size.x, size.y));
+            float minX = sweepMinXArray[i], maxX = sweepMaxXArray[i], minY = sweepMinYArray[i], maxY = sweepMaxYArray[i];
 
-        for(Collider collider : colliderList){
-            if(collider == rectangleCollider || !collider.isActive() || collider.isIgnoreMouseRaycast() || collider.isCanvasCollider()) continue;
+            // Only the Colliders starting before the right edge of this one may overlap it.
+            for(int j = i + 1; j < sweepCount && sweepMinXArray[j] <= maxX; j++){
+                if(sweepTouchableArray[j] && sweepMaxYArray[j] >= minY && sweepMinYArray[j] <= maxY){
+                    touch(sweepArray[i], sweepArray[j]);
+                }
+            }
+
+            contactQuery.source = sweepArray[i];
+            broadPhase.query(minX, minY, maxX, maxY, contactQuery);
+        }
 
-            ColliderHit colliderHit;
+        contactQuery.source = null;
 
-            if(collider instanceof RectangleCollider && (colliderHit = checkRectRectCollision(rectangleCollider, (RectangleCollider) collider)) != null){
-                colliderHits.add(colliderHit);
-                collider.onMouseEnter();
+        List<ContactSet.Contact> contactList = contactSet.getContactList();
+
+        for(int i = contactList.size() - 1; i >= 0; i--){
+            ContactSet.Contact contact = contactList.get(i);
+
+            if(contact.tick != contactTick){
+                publishContact(contact.a, contact.b, CollisionEvent.State.EXIT);
+                contactSet.remove(contact);
             }
         }
 
-        return colliderHits;
+        contactTick++;
+
+        Profiler.stop(Physics.class, time);
     }
 
-    /** Check the collision between two RectangleColliders.
+    /** Delivers a CollisionEvent to both of its Colliders, each receiving the other one as the hit Collider.
+     * Subscribed to the engine's EventBus.
      *
-     * @param a A RectangleCollider.
-     * @param b Another RectangleCollider.
-     * @return  The ColliderHit containing collision data (null if there is not a collision).
+     * @param event A CollisionEvent.
      */
-    private static ColliderHit checkRectRectCollision(RectangleCollider a, RectangleCollider b){
-        Vector2f positionA = a.position, offsetA = a.offset, sizeA = a.size;
-        Vector2f positionB = b.position, offsetB = b.offset, sizeB = b.size;
-
-        if(Math.max(positionA.x + offsetA.x, positionA.x + sizeA.x + offsetA.x) >= Math.min(positionB.x + offsetB.x, positionB.x + sizeB.x + offsetB.x) &&
-                Math.min(positionA.x + offsetA.x, positionA.x + sizeA.x + offsetA.x) <= Math.max(positionB.x + offsetB.x, positionB.x + sizeB.x + offsetB.x) &&
-                Math.max(positionA.y + offsetA.y, positionA.y + sizeA.y + offsetA.y) >= Math.min(positionB.y + offsetB.y, positionB.y + sizeB.y + offsetB.y) &&
-                Math.min(positionA.y + offsetA.y, positionA.y + sizeA.y + offsetA.y) <= Math.max(positionB.y + offsetB.y, positionB.y + sizeB.y + offsetB.y)){
+    public static void deliverCollision(CollisionEvent event){
+        Collider collider = event.getCollider();
+        Collider other = event.getOther();
+        Vector2f direction = deliveredHit.getContactDirection();
+
+        direction.set(event.getDirectionX(), event.getDirectionY());
+        deliveredHit.set(other.getParent(), other, getRigidBody(other), direction);
+        deliverCollision(collider, event.getState());
+
+        direction.set(-event.getDirectionX(), -event.getDirectionY());
+        deliveredHit.set(collider.getParent(), collider, getRigidBody(collider), direction);
+        deliverCollision(other, event.getState());
+    }
 
-            return new ColliderHit(b.getParent(), b, (RigidBody) b.getParent().getComponent("RigidBody"), b.getCenter().subtract(a.getCenter()).normalize());
+    private static void deliverCollision(Collider collider, CollisionEvent.State state){
+        switch(state){
+            case ENTER:
+                collider.onCollisionEnter(deliveredHit);
+                break;
+            case STAY:
+                collider.onCollisionStay(deliveredHit);
+                break;
+            case EXIT:
+                collider.onCollisionExit(deliveredHit);
+                break;
         }
+    }
 
-        return null;
+    /** Delivers a MouseEnterEvent to its Collider through onMouseEnter. Subscribed to the engine's EventBus.
+     *
+     * @param event A MouseEnterEvent.
+     */
+    public static void deliverMouseEnter(MouseEnterEvent event){
+        event.getCollider().onMouseEnter();
     }
 
+    /** Gets the RigidBody of a Collider's parent.
+     *
+     * @param collider  A Collider, that may not have a parent (e.g. the ones created by the overlap methods).
+     * @return          The parent's RigidBody (null if there is no parent or RigidBody).
+     */
+    private static RigidBody getRigidBody(Collider collider){
+        GameObject parent = collider.getParent();
+
+        return parent != null ? parent.getComponent(RigidBody.class) : null;
+    }
+
+    /** Adds a Collider to the scene's broad-phase.
+     *
+     * @param collider  A Collider.
+     * @return          True if it was added, false if it already was in the broad-phase.
+     */
     public static boolean addCollider(Collider collider){
-        return engine.getScene().getPhysics().getColliderTree().insert(collider);
+        if(collider.getProxyId() != -1) return false;
+
+        Physics physics = engine.getScene().getPhysics();
+
+        collider.setProxyId(physics.getBroadPhase().insert(collider));
+        physics.addedColliderList.add(collider);
+
+        return true;
     }
 
+    /** Removes a Collider from the scene's broad-phase.
+     *
+     * @param collider  A Collider.
+     * @return          True if it was removed, false if it was not in the broad-phase.
+     */
     public static boolean removeCollider(Collider collider){
-        return engine.getScene().getPhysics().getColliderTree().remove(collider);
+        if(collider.getProxyId() == -1) return false;
+
+        engine.getScene().getPhysics().getBroadPhase().remove(collider.getProxyId());
+        collider.setProxyId(-1);
+
+        return true;
+    }
+
+    /** Updates the broad-phase after a Collider has moved, which only changes the tree if the Collider has left its fat
+     * box.
+     *
+     * @param collider  A Collider within the broad-phase.
+     */
+    public static void moveCollider(Collider collider){
+        if(collider.getProxyId() == -1) return;
+
+        engine.getScene().getPhysics().getBroadPhase().move(collider.getProxyId());
+    }
+
+    public IBroadPhase getBroadPhase() {
+        return broadPhase;
+    }
+
+    /** Replaces the broad-phase, moving every Collider of the current one into it. The contacts are forgotten, so the
+     * Colliders touching each other start new ones.
+     *
+     * @param broadPhase    An empty broad-phase.
+     */
+    public void setBroadPhase(IBroadPhase broadPhase) {
+        for(Collider collider : this.broadPhase.toList()){
+            this.broadPhase.remove(collider.getProxyId());
+            collider.setProxyId(broadPhase.insert(collider));
+        }
+
+        this.broadPhase = broadPhase;
+        contactSet.clear();
+    }
+
+    /** Marks two Colliders as touching on the current tick, publishing the start or the continuation of their contact
+     * (once per tick).
+     */
+    private void touch(Collider a, Collider b){
+        ContactSet.Contact contact = contactSet.get(a, b);
+
+        if(contact == null){
+            contact = contactSet.add(a, b);
+            contact.tick = contactTick;
+            publishContact(a, b, CollisionEvent.State.ENTER);
+        }else if(contact.tick != contactTick){
+            contact.tick = contactTick;
+            publishContact(contact.a, contact.b, CollisionEvent.State.STAY);
+        }
+    }
+
+    /** Queues a CollisionEvent for a contact, with the direction between the Colliders' centers. */
+    private static void publishContact(Collider a, Collider b, CollisionEvent.State state){
+        float directionX = (b.position.x + b.offset.x + b.size.x / 2) - (a.position.x + a.offset.x + a.size.x / 2);
+        float directionY = (b.position.y + b.offset.y + b.size.y / 2) - (a.position.y + a.offset.y + a.size.y / 2);
+        float magnitude = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+
+        if(magnitude != 0){
+            directionX /= magnitude;
+            directionY /= magnitude;
+        }
+
+        engine.getEventBus().publish(CollisionEvent.TYPE).set(a, b, directionX, directionY, state);
+    }
+
+    /** Merges the Colliders added since the last pass into the sweep, dropping the ones removed from the broad-phase and
+     * the ones whose GameObject has no RigidBody.
+     */
+    private void mergeSweep(){
+        int count = 0;
+
+        for(int i = 0; i < sweepCount + addedColliderList.size(); i++){
+            Collider collider = i < sweepCount ? sweepArray[i] : addedColliderList.get(i - sweepCount);
+            int proxy = collider.getProxyId();
+
+            if(proxy == -1) continue;
+
+            if(getRigidBody(collider) == null) continue;
+
+            if(proxy >= proxyStampArray.length) proxyStampArray = Arrays.copyOf(proxyStampArray, Math.max(proxy + 1, proxyStampArray.length * 2));
+
+            if(proxyStampArray[proxy] == contactTick) continue;
+
+            proxyStampArray[proxy] = contactTick;
+
+            if(count == sweepArray.length){
+                sweepArray = Arrays.copyOf(sweepArray, count * 2);
+                sweepMinXArray = Arrays.copyOf(sweepMinXArray, count * 2);
+                sweepMaxXArray = Arrays.copyOf(sweepMaxXArray, count * 2);
+                sweepMinYArray = Arrays.copyOf(sweepMinYArray, count * 2);
+                sweepMaxYArray = Arrays.copyOf(sweepMaxYArray, count * 2);
+                sweepTouchableArray = Arrays.copyOf(sweepTouchableArray, count * 2);
+            }
+
+            sweepArray[count] = collider;
+            count++;
+        }
+
+        if(count < sweepCount) Arrays.fill(sweepArray, count, sweepCount, null);
+
+        sweepCount = count;
+        addedColliderList.clear();
+    }
+
+    /** Sorts the sweep by the Colliders' current left edges, and copies their other edges. The order of the last pass is
+     * almost sorted already, so an insertion sort takes about one comparison per Collider.
+     */
+    private void sortSweep(){
+        for(int i = 0; i < sweepCount; i++){
+            Collider collider = sweepArray[i];
+            float minX = Math.min(collider.position.x + collider.offset.x, collider.position.x + collider.offset.x + collider.size.x);
+            int j = i - 1;
+
+            while(j >= 0 && sweepMinXArray[j] > minX){
+                sweepArray[j + 1] = sweepArray[j];
+                sweepMinXArray[j + 1] = sweepMinXArray[j];
+                j--;
+            }
+
+            sweepArray[j + 1] = collider;
+            sweepMinXArray[j + 1] = minX;
+        }
+
+        for(int i = 0; i < sweepCount; i++){
+            Collider collider = sweepArray[i];
+            Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+            sweepMaxXArray[i] = Math.max(position.x + offset.x, position.x + offset.x + size.x);
+            sweepMinYArray[i] = Math.min(position.y + offset.y, position.y + offset.y + size.y);
+            sweepMaxYArray[i] = Math.max(position.y + offset.y, position.y + offset.y + size.y);
+            sweepTouchableArray[i] = isTouchable(collider);
+        }
     }
 
-    public ColliderQuadTree getColliderTree() {
-        return colliderTree;
+    /** Gets the overlap query of the current thread, or a new one if it is already running (e.g. for a query made while
+     * visiting the Colliders found by another).
+     */
+    private static OverlapQuery getOverlapQuery(){
+        OverlapQuery query = overlapQuery.get();
+
+        return query.isInUse ? new OverlapQuery() : query;
+    }
+
+    /** Gets the sweep query of the current thread, or a new one if it is already running. */
+    private static SweepQuery getSweepQuery(){
+        SweepQuery query = sweepQuery.get();
+
+        return query.isInUse ? new SweepQuery() : query;
+    }
+
+    /** Checks if a Collider takes part in contacts: it must be active, on an active GameObject, and not on a Canvas. */
+    private static boolean isTouchable(Collider collider){
+        GameObject parent = collider.getParent();
+
+        return collider.isActive() && !collider.isCanvasCollider() && (parent == null || parent.isActive());
+    }
+
+    /** Checks the Colliders visited by a broad-phase query against a rectangle, collecting the hits (and publishing a
+     * MouseEnterEvent for each one hit by the mouse). Reused by each thread, so the queries don't allocate anything other
+     * than their hits.
+     */
+    private static class OverlapQuery implements IColliderVisitor {
+
+        /** The Collider checking for collisions, which is skipped (null for the mouse and plain rectangles). */
+        private Collider source;
+        /** A flag that indicates if the query is made by the mouse, publishing MouseEnterEvents. */
+        private boolean isMouseQuery;
+        /** A flag that indicates if the query only checks Canvas Colliders, instead of only the other ones. */
+        private boolean isCanvasQuery;
+        /** The list where every hit is added (null if the query stops at the first hit). */
+        private List<ColliderHit> hitList;
+        private ColliderHit firstHit;
+        /** A flag that indicates if the query is running, between begin and end. */
+        private boolean isInUse;
+
+        private float x, y, width, height;
+        private final Vector2f stretchFactor = new Vector2f(0, 0);
+        private final Vector2f stretchedSize = new Vector2f(0, 0);
+
+        void begin(Collider source, boolean isMouseQuery, boolean isCanvasQuery, List<ColliderHit> hitList){
+            this.source = source;
+            this.isMouseQuery = isMouseQuery;
+            this.isCanvasQuery = isCanvasQuery;
+            this.hitList = hitList;
+            isInUse = true;
+        }
+
+        void run(Vector2f position, Vector2f offset, Vector2f size){
+            x = position.x + offset.x;
+            y = position.y + offset.y;
+            width = size.x;
+            height = size.y;
+
+            engine.getScene().getPhysics().getBroadPhase().query(Math.min(x, x + width), Math.min(y, y + height),
+                    Math.max(x, x + width), Math.max(y, y + height), this);
+        }
+
+        /** Ends the query, releasing its references.
+         *
+         * @return  The first hit found (null if there was none).
+         */
+        ColliderHit end(){
+            ColliderHit colliderHit = firstHit;
+
+            source = null;
+            hitList = null;
+            firstHit = null;
+            isInUse = false;
+
+            return colliderHit;
+        }
+
+        @Override
+        public boolean visit(Collider collider) {
+            if(collider == source || !collider.isActive() || collider.isCanvasCollider() != isCanvasQuery) return true;
+            if((isMouseQuery && collider.isIgnoreMouseRaycast()) || !(collider instanceof RectangleCollider)) return true;
+
+            Vector2f colliderSize = collider.size;
+            GameObject gameObject = collider.getParent();
+
+            if(isCanvasQuery && gameObject instanceof Canvas && ((Canvas) gameObject).isKeepProportion()){
+                RendererHandler.getStretchFactor(stretchFactor);
+                collider.size = stretchedSize.set(colliderSize.x * stretchFactor.x, colliderSize.y * stretchFactor.y);
+            }
+
+            ColliderHit colliderHit = checkRectRectCollision(x, y, width, height, (RectangleCollider) collider);
+
+            collider.size = colliderSize;
+
+            if(colliderHit == null) return true;
+
+            if(isMouseQuery) engine.getEventBus().publish(MouseEnterEvent.TYPE).setCollider(collider);
+
+            if(hitList == null){
+                firstHit = colliderHit;
+                return false;
+            }
+
+            hitList.add(colliderHit);
+
+            return true;
+        }
+    }
+
+    /** Marks the static Colliders visited by a broad-phase query as touching a Collider of the sweep. The Colliders of
+     * the sweep are skipped, as their pairs are found by the sweep itself.
+     */
+    private class ContactQuery implements IColliderVisitor {
+
+        /** The Collider of the sweep whose bounds are queried. */
+        private Collider source;
+
+        @Override
+        public boolean visit(Collider collider) {
+            int proxy = collider.getProxyId();
+
+            if(proxy < proxyStampArray.length && proxyStampArray[proxy] == contactTick) return true;
+
+            if(isTouchable(collider)) touch(source, collider);
+
+            return true;
+        }
+    }
+
+    /** Collects the non-trigger Colliders that a swept Collider may hit. Reused by each thread. */
+    private static class SweepQuery implements IColliderVisitor {
+
+        /** The swept Collider, which is skipped. */
+        private Collider source;
+        /** A flag that indicates if a sweep is using the query. */
+        private boolean isInUse;
+        private final List<Collider> candidateList = new ArrayList<>();
+
+        @Override
+        public boolean visit(Collider collider) {
+            if(collider != source && collider.isActive() && !collider.isCanvasCollider() && !collider.isTrigger() &&
+                    collider instanceof RectangleCollider){
+
+                candidateList.add(collider);
+            }
+
+            return true;
+        }
     }
 }
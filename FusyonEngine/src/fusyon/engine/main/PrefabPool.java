@@ -0,0 +1,179 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.IPrefab;
+import fusyon.engine.gameobject.component.Collider;
+import fusyon.engine.gameobject.component.Component;
+import fusyon.engine.util.Vector2f;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static fusyon.engine.main.Engine.engine;
+
+/** Reuses the GameObjects created from prefabs, instead of creating and destroying them.
+ *
+ * A despawned GameObject is deactivated and parked, still within the Scene, but with its Colliders taken out of the
+ * broad-phase, its jobs cancelled, and itself left out of the Scene's tag and layer queries. Spawning it again skips
+ * the awake and start methods: its position is set and the reset method is called on every Component (in it and in its
+ * children) before it is activated. A GameObject is only created, going through Scene.addObject, when its prefab has no
+ * parked GameObjects left.
+ *
+ * Pools can be filled beforehand with prewarm, so spawns cause neither garbage nor the cost of starting Components.
+ */
+public class PrefabPool {
+
+    /** The Scene where the GameObjects are added. */
+    private final Scene scene;
+
+    /** The parked GameObjects of each prefab. */
+    private final Map<IPrefab, ArrayDeque<GameObject>> parkedMap = new IdentityHashMap<>();
+    /** All parked GameObjects, to ignore a GameObject despawned twice. */
+    private final Set<GameObject> parkedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Initializes a new PrefabPool.
+     *
+     * @param scene The Scene where the GameObjects are added.
+     */
+    public PrefabPool(Scene scene){
+        this.scene = scene;
+    }
+
+    /** Creates GameObjects from a prefab and parks them, so that many spawns can be made without creating any.
+     *
+     * Should be called when the Scene is loaded (e.g. on its start method), not during an update.
+     *
+     * @param prefab    A prefab.
+     * @param count     The amount of GameObjects to create.
+     */
+    public void prewarm(IPrefab prefab, int count){
+        for(int i = 0; i < count; i++){
+            GameObject object = create(prefab);
+
+            scene.addObject(object);
+            park(object);
+        }
+    }
+
+    /** Spawns a GameObject from a prefab, reusing a parked one if there is any.
+     *
+     * @param prefab    A prefab.
+     * @param position  The world position to spawn at.
+     * @return          The spawned GameObject.
+     */
+    public GameObject spawn(IPrefab prefab, Vector2f position){
+        ArrayDeque<GameObject> parkedQueue = parkedMap.get(prefab);
+        GameObject object = parkedQueue != null ? parkedQueue.pollLast() : null;
+
+        if(object == null){
+            object = create(prefab);
+            scene.addObject(object, position);
+
+            return object;
+        }
+
+        parkedSet.remove(object);
+        object.setPosition(position);
+        object.storePreviousPosition();
+        reset(object);
+        setIndexed(object, true);
+        object.setActive(true);
+
+        for(Collider collider : object.getComponentsInChildren(Collider.class)){
+            collider.setParked(false);
+        }
+
+        return object;
+    }
+
+    /** Despawns a GameObject, parking it to be reused. GameObjects not created by a pool are removed from the Scene.
+     *
+     * @param object    A GameObject within the Scene.
+     */
+    public void despawn(GameObject object){
+        if(object.getPrefab() == null){
+            scene.removeObject(object);
+            return;
+        }
+
+        if(parkedSet.contains(object) || !scene.containsObject(object)) return;
+
+        park(object);
+    }
+
+    /** Gets the amount of GameObjects of a prefab that are parked.
+     *
+     * @param prefab    A prefab.
+     * @return          The amount of GameObjects ready to be spawned without being created.
+     */
+    public int getParkedCount(IPrefab prefab){
+        ArrayDeque<GameObject> parkedQueue = parkedMap.get(prefab);
+
+        return parkedQueue != null ? parkedQueue.size() : 0;
+    }
+
+    /** Forgets a GameObject removed from the Scene, so it is never spawned again. Called by the Scene.
+     *
+     * @param object    A GameObject being removed from the Scene.
+     */
+    void remove(GameObject object){
+        if(!parkedSet.remove(object)) return;
+
+        parkedMap.get(object.getPrefab()).remove(object);
+    }
+
+    private GameObject create(IPrefab prefab){
+        GameObject object = prefab.create();
+
+        object.setPrefab(prefab);
+
+        return object;
+    }
+
+    private void park(GameObject object){
+        object.setActive(false);
+
+        for(Collider collider : object.getComponentsInChildren(Collider.class)){
+            collider.setParked(true);
+        }
+
+        cancelJobs(object);
+        setIndexed(object, false);
+        parkedSet.add(object);
+        parkedMap.computeIfAbsent(object.getPrefab(), prefab -> new ArrayDeque<>()).addLast(object);
+    }
+
+    private void reset(GameObject object){
+        for(Component component : object.getComponentList()){
+            component.reset();
+        }
+
+        for(GameObject children : object.getChildrenList()){
+            reset(children);
+        }
+    }
+
+    /** Puts a GameObject and its children back into the Scene's tag and layer index, or leaves them out of it. */
+    private void setIndexed(GameObject object, boolean isIndexed){
+        if(isIndexed){
+            scene.getObjectIndex().unpark(object);
+        }else{
+            scene.getObjectIndex().park(object);
+        }
+
+        for(GameObject children : object.getChildrenList()){
+            setIndexed(children, isIndexed);
+        }
+    }
+
+    private void cancelJobs(GameObject object){
+        engine.getJobScheduler().cancelAll(object);
+
+        for(GameObject children : object.getChildrenList()){
+            cancelJobs(children);
+        }
+    }
+}
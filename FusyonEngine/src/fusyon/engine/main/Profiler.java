@@ -0,0 +1,308 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.component.ComponentType;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Records how long each phase of a frame takes, as well as the time spent updating each Component subclass.
+ *
+ * Timings are accumulated (in nanoseconds) during a frame, from any thread, and stored in a ring buffer holding the
+ * last frames when the frame ends. The ring buffer is written only by the game loop thread, so it can be read from
+ * any thread without locks. Percentiles are calculated over the stored frames. The profiler is disabled by default,
+ * and costs a single flag check per measure when disabled.
+ *
+ * Usage: {@code long time = Profiler.start(); ... Profiler.stop(Profiler.Phase.UPDATE, time);}
+ */
+public class Profiler {
+
+    /** The measured phases of a frame. Phases may be nested (e.g. LIGHT_MAP is measured within RENDER). */
+    public enum Phase{
+        UPDATE,
+        PREPARE,
+        RENDER,
+        LIGHT_MAP,
+        DISPLAY,
+        MOUSE_PICKING,
+        EVENTS
+    }
+
+    /** A flag that indicates if timings are being recorded or not. */
+    private static volatile boolean isEnabled;
+    /** A flag that indicates if the statistics are drawn on top of the screen or not. */
+    private static volatile boolean isOverlayEnabled;
+
+    /** The amount of frames stored in the ring buffer. */
+    private static final int frameCapacity = 512;
+    /** The maximum amount of Component subclasses that can be profiled separately, by ComponentType id. */
+    private static final int componentTypeCapacity = 256;
+
+    /** The time at which the current frame has started. */
+    private static long frameStartTime;
+    /** The amount of frames ended since the profiler was enabled. The last frame is at (frameCount - 1) % capacity. */
+    private static volatile long frameCount;
+
+    /** Time accumulated by each phase on the current frame. */
+    private static final AtomicLongArray phaseTimeArray = new AtomicLongArray(Phase.values().length);
+    /** Time accumulated by each Component subclass on the current frame. */
+    private static final AtomicLongArray componentTimeArray = new AtomicLongArray(componentTypeCapacity);
+
+    /** The ring buffer of frame times. */
+    private static final long[] frameTimeRing = new long[frameCapacity];
+    /** The ring buffers of phase times, indexed by phase. */
+    private static final long[][] phaseTimeRing = new long[Phase.values().length][frameCapacity];
+    /** The ring buffers of Component subclass times, indexed by type (created when the type is first profiled). */
+    private static final long[][] componentTimeRing = new long[componentTypeCapacity][];
+
+    /** The Component subclasses being profiled, indexed by their ComponentType id (null if not profiled). */
+    private static final Class<?>[] componentTypeArray = new Class<?>[componentTypeCapacity];
+
+    /** The statistics drawn by the overlay, refreshed a few times per second. */
+    private static String[] overlayLineArray = new String[0];
+    /** The time at which the overlay statistics were last refreshed. */
+    private static long overlayRefreshTime;
+
+    /** Starts a measure.
+     *
+     * @return  The current time, or 0 if the profiler is disabled.
+     */
+    public static long start(){
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /** Stops a measure, adding the time passed since its start to a phase of the current frame.
+     *
+     * @param phase     The measured phase.
+     * @param startTime The value returned by start.
+     */
+    public static void stop(Phase phase, long startTime){
+        if(startTime == 0 || !isEnabled) return;
+
+        phaseTimeArray.addAndGet(phase.ordinal(), System.nanoTime() - startTime);
+    }
+
+    /** Stops a measure, adding the time passed since its start to a Component subclass on the current frame.
+     *
+     * @param type      The Component subclass that was measured.
+     * @param startTime The value returned by start.
+     */
+    public static void stop(Class<?> type, long startTime){
+        if(startTime == 0 || !isEnabled) return;
+
+        int index = ComponentType.getId(type);
+
+        if(index >= componentTypeCapacity) return;
+
+        if(componentTypeArray[index] == null) componentTypeArray[index] = type;
+
+        componentTimeArray.addAndGet(index, System.nanoTime() - startTime);
+    }
+
+    /** Begins a new frame. Must be called by the game loop thread. */
+    public static void beginFrame(){
+        frameStartTime = isEnabled ? System.nanoTime() : 0;
+    }
+
+    /** Ends the current frame, storing all its timings into the ring buffer. Must be called by the game loop thread. */
+    public static void endFrame(){
+        if(frameStartTime == 0 || !isEnabled) return;
+
+        int index = (int) (frameCount % frameCapacity);
+
+        frameTimeRing[index] = System.nanoTime() - frameStartTime;
+
+        for(int i = 0; i < phaseTimeRing.length; i++){
+            phaseTimeRing[i][index] = phaseTimeArray.getAndSet(i, 0);
+        }
+
+        int typeCount = Math.min(ComponentType.getCount(), componentTypeCapacity);
+
+        for(int i = 0; i < typeCount; i++){
+            if(componentTypeArray[i] == null) continue;
+
+            if(componentTimeRing[i] == null) componentTimeRing[i] = new long[frameCapacity];
+
+            componentTimeRing[i][index] = componentTimeArray.getAndSet(i, 0);
+        }
+
+        frameCount++;
+    }
+
+    /** Gets the amount of frames stored in the ring buffer.
+     *
+     * @return  A value between 0 and the ring buffer's capacity.
+     */
+    public static int getFrameCount(){
+        return (int) Math.min(frameCount, frameCapacity);
+    }
+
+    /** Gets a percentile of the stored frame times.
+     *
+     * @param percentile    A percentile between 0 and 100 (e.g. 50, 95 or 99).
+     * @return              The frame time (in nanoseconds) at the percentile (0 if no frame is stored).
+     */
+    public static long getFrameTimePercentile(double percentile){
+        return getPercentile(frameTimeRing, percentile);
+    }
+
+    /** Gets a percentile of the stored times of a phase.
+     *
+     * @param phase         A phase.
+     * @param percentile    A percentile between 0 and 100 (e.g. 50, 95 or 99).
+     * @return              The phase time (in nanoseconds) at the percentile (0 if no frame is stored).
+     */
+    public static long getPhaseTimePercentile(Phase phase, double percentile){
+        return getPercentile(phaseTimeRing[phase.ordinal()], percentile);
+    }
+
+    /** Gets the average time per frame spent updating a Component subclass.
+     *
+     * @param type  A Component subclass.
+     * @return      The average time (in nanoseconds), over the stored frames.
+     */
+    public static long getAverageComponentTime(Class<?> type){
+        int index = ComponentType.getId(type);
+
+        if(index >= componentTypeCapacity) return 0;
+
+        return getAverage(componentTimeRing[index]);
+    }
+
+    /** Gets the average time per frame spent updating each profiled Component subclass.
+     *
+     * @return  A map relating each Component subclass with its average time (in nanoseconds).
+     */
+    public static Map<Class<?>, Long> getAverageComponentTimes(){
+        Map<Class<?>, Long> componentTimeMap = new LinkedHashMap<>();
+        int typeCount = Math.min(ComponentType.getCount(), componentTypeCapacity);
+
+        for(int i = 0; i < typeCount; i++){
+            if(componentTypeArray[i] == null) continue;
+
+            componentTimeMap.put(componentTypeArray[i], getAverage(componentTimeRing[i]));
+        }
+
+        return componentTimeMap;
+    }
+
+    /** Draws the statistics on top of the screen. Called by the RendererHandler if the overlay is enabled.
+     *
+     * @param g A reference to Graphics, instantiated in the RendererHandler.
+     */
+    public static void renderOverlay(Graphics2D g){
+        long now = System.nanoTime();
+
+        if(now - overlayRefreshTime > 250000000){
+            overlayLineArray = buildOverlayLines();
+            overlayRefreshTime = now;
+        }
+
+        FontMetrics fontMetrics = g.getFontMetrics();
+        int lineHeight = fontMetrics.getHeight();
+        int width = 0;
+
+        for(String line : overlayLineArray){
+            width = Math.max(width, fontMetrics.stringWidth(line));
+        }
+
+        g.setColor(new Color(0, 0, 0, 160));
+        g.fillRect(4, 4, width + 8, lineHeight * overlayLineArray.length + 8);
+        g.setColor(Color.WHITE);
+
+        for(int i = 0; i < overlayLineArray.length; i++){
+            g.drawString(overlayLineArray[i], 8, 8 + fontMetrics.getAscent() + i * lineHeight);
+        }
+    }
+
+    /** Builds the lines of text drawn by the overlay.
+     *
+     * @return  An array containing each line.
+     */
+    private static String[] buildOverlayLines(){
+        Map<Class<?>, Long> componentTimeMap = getAverageComponentTimes();
+        String[] lineArray = new String[2 + Phase.values().length + componentTimeMap.size()];
+        int line = 0;
+
+        lineArray[line++] = String.format("Frame p50 %.2f ms  p95 %.2f ms  p99 %.2f ms", toMillis(getFrameTimePercentile(50)), toMillis(getFrameTimePercentile(95)), toMillis(getFrameTimePercentile(99)));
+
+        for(Phase phase : Phase.values()){
+            lineArray[line++] = String.format("%s p50 %.2f ms  p99 %.2f ms", phase, toMillis(getPhaseTimePercentile(phase, 50)), toMillis(getPhaseTimePercentile(phase, 99)));
+        }
+
+        lineArray[line++] = "Components (average per frame):";
+
+        for(Map.Entry<Class<?>, Long> entry : componentTimeMap.entrySet()){
+            lineArray[line++] = String.format("%s %.3f ms", entry.getKey().getSimpleName(), toMillis(entry.getValue()));
+        }
+
+        return lineArray;
+    }
+
+    private static long getPercentile(long[] ring, double percentile){
+        int count = getFrameCount();
+
+        if(count == 0 || ring == null) return 0;
+
+        long[] sortedArray = Arrays.copyOf(ring, count);
+
+        Arrays.sort(sortedArray);
+
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+
+        return sortedArray[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    private static long getAverage(long[] ring){
+        int count = getFrameCount();
+
+        if(count == 0 || ring == null) return 0;
+
+        long total = 0;
+
+        for(int i = 0; i < count; i++){
+            total += ring[i];
+        }
+
+        return total / count;
+    }
+
+    private static double toMillis(long nanos){
+        return nanos / 1000000.0;
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /** Enables or disables the profiler. Enabling it clears all the stored frames.
+     *
+     * @param enabled   A flag to enable the profiler.
+     */
+    public static void setEnabled(boolean enabled) {
+        if(enabled && !isEnabled){
+            frameCount = 0;
+            frameStartTime = 0;
+
+            for(int i = 0; i < phaseTimeArray.length(); i++){
+                phaseTimeArray.set(i, 0);
+            }
+
+            for(int i = 0; i < componentTimeArray.length(); i++){
+                componentTimeArray.set(i, 0);
+            }
+        }
+
+        isEnabled = enabled;
+    }
+
+    public static boolean isOverlayEnabled() {
+        return isOverlayEnabled;
+    }
+
+    public static void setOverlayEnabled(boolean overlayEnabled) {
+        isOverlayEnabled = overlayEnabled;
+    }
+}
@@ -4,13 +4,21 @@ import fusyon.engine.gameobject.Camera;
 import fusyon.engine.gameobject.component.Component;
 import fusyon.engine.gameobject.GameObject;
 import fusyon.engine.gameobject.IUpdatable;
+import fusyon.engine.gameobject.component.RigidBody;
+import fusyon.engine.util.IBroadPhase;
+import fusyon.engine.util.TimerWheel;
 import fusyon.engine.util.Vector2;
 import fusyon.engine.util.Vector2f;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+
+import static fusyon.engine.main.Engine.engine;
 
 /** Manages, updates and renders all GameObject's presented into it.
  *
@@ -24,9 +32,39 @@ public abstract class Scene implements IUpdatable {
     private Camera camera;
     /** Reference for the physics engine */
     private Physics physics;
+    /** Calls the delayed and repeating callbacks scheduled on the scene, advanced once per tick. */
+    private TimerWheel timerWheel;
+    /** Reuses the GameObjects created from prefabs. */
+    private PrefabPool prefabPool;
+    /** Keeps the motion of the kinematic RigidBodies in dense arrays (null if the scene doesn't use it). */
+    private EntityStorage entityStorage;
+    /** Lowers the update rate of the GameObjects far from the camera (null if the scene doesn't use it). */
+    private SimulationLod simulationLod;
+    /** Indexes the GameObjects within the scene by tag and by layer. */
+    private final ObjectIndex objectIndex = new ObjectIndex();
 
     /** A list containing all GameObject's within the scene that will be updated and/or rendered */
-    private List<GameObject> objectList;
+    private ArrayList<GameObject> objectList;
+    /** The GameObjects within the scene, or waiting to be added to it, by identity. */
+    private Set<GameObject> objectSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The additions and removals of GameObjects waiting to be applied, in the order they were requested. */
+    private ArrayList<Command> commandList = new ArrayList<>();
+    /** The GameObjects removed while applying the commands, taken out of the object list all at once. */
+    private Set<GameObject> removedObjectSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** A flag that indicates if the object list is being iterated, so changes to it must wait. */
+    private boolean isIterating;
+    /** A flag that indicates if the commands are being applied. */
+    private boolean isFlushing;
+    /** The GameObjects moved since their transform listeners were last notified. */
+    private List<GameObject> changedObjectList = new ArrayList<>();
+    /** The GameObjects being notified (swapped with the changed list on each pass). */
+    private List<GameObject> notifiedObjectList = new ArrayList<>();
+    /** The amount of transform notification passes made so far. */
+    private int transformPass;
+    /** Guards the changed list, which may be written by the worker threads. */
+    private final Object transformLock = new Object();
+    /** Keeps the Components within the scene in dense lists, one for each phase they implement. */
+    private final ComponentDispatcher dispatcher = new ComponentDispatcher(this);
 
     /** Initializes a new scene.
      *
@@ -35,110 +73,409 @@ public abstract class Scene implements IUpdatable {
     public Scene(String name){
         this.name = name;
 
-        objectList = new CopyOnWriteArrayList<>();
+        objectList = new ArrayList<>();
         physics = new Physics();
+        timerWheel = new TimerWheel();
+        prefabPool = new PrefabPool(this);
     }
 
 
-    /** Iterates over each GameObject, updating its components if their are active.
+    /** Updates all active components within the scene.
+     *
+     * The timers due on this tick are called first. The GameObject's position before the update is stored, so renders
+     * can be interpolated between ticks. Only the components that implement update or lateUpdate are called, from the
+     * dispatch lists kept since they were added. Components that implement IParallelUpdatable are updated first, split
+     * across the engine's worker threads, with all update calls finishing before the lateUpdate calls start. The
+     * remaining components are updated serially afterwards, in the order they were added. Components with a tick
+     * interval are only updated on their ticks, and, if the SimulationLod is enabled, the components of GameObjects far
+     * from the camera are updated less often, or not at all. At last, the RigidBodies kept by the EntityStorage (if
+     * any) are moved, all in a single pass.
+     *
+     * Then, the transform listeners of every GameObject moved during the tick are notified, once per GameObject.
+     * GameObjects added or removed during the update are applied at the end of it.
      *
-     * @param delta The time passed (>= 1) since the last frame.
+     * @param delta The fixed time (in seconds) passed since the last tick.
      */
     @Override
     public void update(float delta) {
-        for(GameObject object : objectList){
-            if(object.isActive()){
-                for(Component component : object.getComponentList()){
-                    if(component.isActive()) {
-                        component.update(delta);
-                        component.lateUpdate(delta);
-                    }
-                }
+        timerWheel.advance();
+
+        isIterating = true;
+
+        if(simulationLod != null){
+            simulationLod.update(camera, timerWheel.getTick());
+            simulationLod.step(delta);
+            refreshSleepingObjects();
+        }else{
+            for(GameObject object : objectList){
+                if(object.isActive()) object.storePreviousPosition();
+            }
+        }
+
+        dispatcher.sync();
+        dispatcher.update(delta, timerWheel.getTick());
+
+        if(entityStorage != null){
+            long time = Profiler.start();
+
+            entityStorage.update(delta);
+            Profiler.stop(RigidBody.class, time);
+        }
+
+        notifyTransformChanges();
+        physics.updateContacts();
+
+        isIterating = false;
+        flushCommands();
+    }
+
+    /** Marks the components of the GameObjects that have fallen asleep or woken up, so they leave or join the update
+     * phases on the next sync.
+     */
+    private void refreshSleepingObjects(){
+        List<GameObject> changedObjectList = simulationLod.getChangedObjectList();
+
+        for(GameObject object : changedObjectList){
+            for(Component component : object.getComponentList()){
+                dispatcher.markChanged(component);
             }
         }
+
+        changedObjectList.clear();
+    }
+
+    /** Queues a moved GameObject to have its transform listeners notified at the end of the tick. Called by the
+     * GameObject, at most once per tick. It may be called from the worker threads, by parallel Components.
+     *
+     * @param object    A GameObject within the scene.
+     */
+    public void queueTransformChange(GameObject object){
+        synchronized(transformLock){
+            changedObjectList.add(object);
+        }
+    }
+
+    /** Notifies the transform listeners of all GameObjects moved since the last pass, and of their children.
+     *
+     * GameObjects moved by the listeners themselves are notified on the next pass.
+     */
+    private void notifyTransformChanges(){
+        List<GameObject> objectList;
+
+        synchronized(transformLock){
+            if(changedObjectList.isEmpty()) return;
+
+            objectList = changedObjectList;
+            changedObjectList = notifiedObjectList;
+            notifiedObjectList = objectList;
+        }
+
+        transformPass++;
+
+        for(GameObject object : objectList){
+            object.notifyTransformChanged(transformPass);
+        }
+
+        objectList.clear();
     }
 
-    /** Iterates over each GameObject, rendering its components if their are active.
+    /** Renders all active components within the scene that implement render, in the order they were added.
      *
      * @param g A reference to Graphics, instantiated in the RendererHandler.
      */
     @Override
     public void render(Graphics g) {
-        for(GameObject object : objectList){
-            if(object.isActive()){
-                for(Component component : object.getComponentList()){
-                    if(component.isActive()) {
-                        component.render(g);
-                    }
-                }
-            }
-        }
+        isIterating = true;
+
+        dispatcher.sync();
+        dispatcher.render(g);
+
+        isIterating = false;
+        flushCommands();
+    }
+
+    /** Checks again which phases a component is called on, on the next update or render. Called when a component is
+     * added to or removed from a GameObject within the scene, or when its dispatch phases change.
+     *
+     * @param component A component.
+     */
+    public void refreshDispatch(Component component){
+        dispatcher.markChanged(component);
     }
 
     /** Adds a new GameObject to the Scene context.
      *
      * If the GameObject is not already presented in the Scene, then it will call the starting methods for the component
-     * as well as set the GameObject's position and add its children into the Scene.
+     * as well as set the GameObject's position and add its children into the Scene. Membership is checked by identity,
+     * in constant time.
      *
-     * TODO: GameObjects should store a reference to their Scenes.
+     * While the Scene is being updated or rendered, the addition is queued and applied at the end of it, so
+     * components can spawn GameObjects without copying the object list.
      *
      * @param object    A GameObject to add.
      * @param position  A world position.
      */
     public void addObject(GameObject object, Vector2f position){
-        if(!objectList.contains(object)){
-            object.setPosition(position);
-
-            for(Component component : object.getComponentList()){
-                component.awake();
-                component.start();
-            }
-
-            objectList.add(object);
-
-            for(GameObject children : object.getChildrenList()){
-                addObject(children);
-            }
-        }
+        if(objectSet.add(object)) request(new Command(object, position, false));
     }
 
     public void addObject(GameObject object){
-        if(!objectList.contains(object)){
-            for(Component component : object.getComponentList()){
-                component.awake();
-                component.start();
-            }
+        if(objectSet.add(object)) request(new Command(object, null, false));
+    }
 
-            objectList.add(object);
+    /** Adds many GameObjects at once, each at its current position. Same as calling addObject for each of them, but
+     * the object list grows only once.
+     *
+     * @param objects   The GameObjects to add.
+     */
+    public void addObjects(Collection<GameObject> objects){
+        commandList.ensureCapacity(commandList.size() + objects.size());
+        objectList.ensureCapacity(objectList.size() + objects.size());
 
-            for(GameObject children : object.getChildrenList()){
-                addObject(children);
-            }
+        for(GameObject object : objects){
+            if(objectSet.add(object)) commandList.add(new Command(object, object.getPosition(), false));
         }
+
+        if(!isIterating) flushCommands();
     }
 
     /** Removes a GameObject from the Scene context.
      *
-     * It will call the destroy method on all GameObject's components.
+     * It will call the destroy method on all GameObject's components and cancel all its unfinished jobs. Its children
+     * are removed as well. While the Scene is being updated or rendered, the removal is queued and applied at the end
+     * of it, along with every other queued removal, so the object list is compacted only once.
      *
      * @param object    A GameObject to remove.
      */
     public void removeObject(GameObject object){
+        if(objectSet.remove(object)) request(new Command(object, null, true));
+    }
+
+    /** Removes many GameObjects at once. Same as calling removeObject for each of them, but the object list is
+     * compacted only once.
+     *
+     * @param objects   The GameObjects to remove.
+     */
+    public void removeObjects(Collection<GameObject> objects){
+        for(GameObject object : objects){
+            if(objectSet.remove(object)) commandList.add(new Command(object, null, true));
+        }
+
+        if(!isIterating) flushCommands();
+    }
+
+    /** Checks if a GameObject is within the Scene, or waiting to be added to it.
+     *
+     * @param object    A GameObject.
+     * @return          True if the GameObject was added and not removed since.
+     */
+    public boolean containsObject(GameObject object){
+        return objectSet.contains(object);
+    }
+
+    /** Gets the GameObjects within the Scene that have a tag, without going through the others.
+     *
+     * @param tag   A tag's mask (a single bit), as returned by Settings.addTag.
+     * @return      A read-only view of the GameObjects, kept up to date as GameObjects are added, removed or retagged.
+     */
+    public Set<GameObject> getObjectsWithTag(int tag){
+        return objectIndex.getWithTag(tag);
+    }
+
+    public Set<GameObject> getObjectsWithTag(String tag){
+        return objectIndex.getWithTag(Settings.getTag(tag));
+    }
+
+    /** Finds the GameObjects within the Scene that have all tags of a mask. Only the GameObjects with the rarest of
+     * the tags are checked.
+     *
+     * @param tags      A mask of tags.
+     * @param result    The collection where the GameObjects are added.
+     */
+    public void findObjectsWithTags(int tags, Collection<GameObject> result){
+        objectIndex.findWithTags(tags, result);
+    }
+
+    /** Gets the GameObjects within the Scene that are on a layer, without going through the others.
+     *
+     * @param layer A layer's index, as returned by Settings.addLayer.
+     * @return      A read-only view of the GameObjects, kept up to date as GameObjects are added, removed or moved.
+     */
+    public Set<GameObject> getObjectsOnLayer(int layer){
+        return objectIndex.getOnLayer(layer);
+    }
+
+    public Set<GameObject> getObjectsOnLayer(String layer){
+        return objectIndex.getOnLayer(Settings.getLayer(layer));
+    }
+
+    /** Finds the GameObjects within the Scene that are on any layer of a mask.
+     *
+     * @param layerMask A mask with the bit of each layer (1 << layer) set.
+     * @param result    The collection where the GameObjects are added.
+     */
+    public void findObjectsOnLayers(int layerMask, Collection<GameObject> result){
+        objectIndex.findOnLayers(layerMask, result);
+    }
+
+    /** Updates the index after the tags of a GameObject within the Scene have changed. Called by the GameObject.
+     *
+     * @param object    A GameObject within the Scene.
+     * @param oldTags   Its previous tags.
+     */
+    public void reindexTags(GameObject object, int oldTags){
+        objectIndex.changeTags(object, oldTags);
+    }
+
+    /** Updates the index after the layer of a GameObject within the Scene has changed. Called by the GameObject.
+     *
+     * @param object    A GameObject within the Scene.
+     * @param oldLayer  Its previous layer.
+     */
+    public void reindexLayer(GameObject object, int oldLayer){
+        objectIndex.changeLayer(object, oldLayer);
+    }
+
+    /** Queues a command, applying it right away if the object list is not being iterated. */
+    private void request(Command command){
+        commandList.add(command);
+
+        if(!isIterating) flushCommands();
+    }
+
+    /** Applies all queued commands, in order.
+     *
+     * Commands requested while applying (e.g. by a start method) are applied too. Removed GameObjects are taken out of
+     * the object list in a single pass at the end.
+     */
+    private void flushCommands(){
+        if(isFlushing || commandList.isEmpty()) return;
+
+        isFlushing = true;
+
+        for(int i = 0; i < commandList.size(); i++){
+            Command command = commandList.get(i);
+
+            if(command.isRemoval){
+                applyRemove(command.object);
+            }else{
+                applyAdd(command.object, command.position);
+            }
+        }
+
+        commandList.clear();
+
+        if(!removedObjectSet.isEmpty()){
+            objectList.removeIf(removedObjectSet::contains);
+            removedObjectSet.clear();
+        }
+
+        isFlushing = false;
+    }
+
+    private void applyAdd(GameObject object, Vector2f position){
+        if(position != null){
+            object.setPosition(position);
+            object.storePreviousPosition();
+        }
+
+        object.setScene(this);
+        objectIndex.add(object);
+
+        if(simulationLod != null) simulationLod.add(object);
+
+        for(Component component : object.getComponentList()){
+            component.awake();
+            component.start();
+            dispatcher.markChanged(component);
+        }
+
+        // An object removed and added back on the same flush is still on the list.
+        if(!removedObjectSet.remove(object)) objectList.add(object);
+
+        for(GameObject children : object.getChildrenList()){
+            if(objectSet.add(children)) applyAdd(children, null);
+        }
+    }
+
+    private void applyRemove(GameObject object){
         for(Component component : object.getComponentList()){
             component.destroy();
+            dispatcher.markChanged(component);
         }
 
+        engine.getJobScheduler().cancelAll(object);
+        object.setScene(null);
+        objectIndex.remove(object);
+        prefabPool.remove(object);
+        removedObjectSet.add(object);
+
+        if(simulationLod != null) simulationLod.remove(object);
+
         for(GameObject children : object.getChildrenList()){
-            removeObject(children);
+            if(objectSet.remove(children)) applyRemove(children);
         }
+    }
+
+    /** Schedules a callback to be called once, on the first tick after a delay.
+     *
+     * @param seconds   The delay (in seconds), rounded to the nearest tick (at least one).
+     * @param callback  The callback, called on the game thread before the components are updated.
+     * @return          The scheduled timer, that can be cancelled.
+     */
+    public TimerWheel.Timer scheduleOnce(float seconds, Runnable callback){
+        return timerWheel.scheduleOnce(toTicks(seconds), callback);
+    }
+
+    /** Schedules a callback to be called repeatedly, until it is cancelled.
+     *
+     * @param seconds   The delay before the first call and between the following ones (in seconds), rounded to the
+     *                  nearest tick (at least one).
+     * @param callback  The callback, called on the game thread before the components are updated.
+     * @return          The scheduled timer, that can be cancelled.
+     */
+    public TimerWheel.Timer scheduleRepeating(float seconds, Runnable callback){
+        long ticks = toTicks(seconds);
+
+        return timerWheel.scheduleRepeating(ticks, ticks, callback);
+    }
 
-        objectList.remove(object);
+    /** Cancels a scheduled callback.
+     *
+     * @param timer A timer returned by scheduleOnce or scheduleRepeating.
+     */
+    public void cancel(TimerWheel.Timer timer){
+        timerWheel.cancel(timer);
+    }
+
+    /** Converts a time to an amount of ticks, at the engine's tick rate.
+     *
+     * @param seconds   A time (in seconds).
+     * @return          The nearest amount of ticks (at least one).
+     */
+    public static long toTicks(float seconds){
+        return Math.max(1, Math.round(seconds * engine.getTickRate()));
     }
 
     public String getName() {
         return name;
     }
 
+    /** A queued addition or removal of a GameObject. */
+    private static class Command {
+
+        private final GameObject object;
+        /** The world position to add the GameObject at (null to keep its current one). */
+        private final Vector2f position;
+        private final boolean isRemoval;
+
+        Command(GameObject object, Vector2f position, boolean isRemoval){
+            this.object = object;
+            this.position = position;
+            this.isRemoval = isRemoval;
+        }
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -151,7 +488,56 @@ public abstract class Scene implements IUpdatable {
         this.camera = camera;
     }
 
+    /** Enables the EntityStorage, so the RigidBodies without a Collider are moved from dense arrays instead of by
+     * their own update. Must be called before any GameObject is added to the scene (e.g. on its constructor).
+     */
+    public void enableEntityStorage(){
+        if(entityStorage == null) entityStorage = new EntityStorage();
+    }
+
+    /** Enables the SimulationLod, so the GameObjects far from the camera are updated less often. Must be called before
+     * any GameObject is added to the scene (e.g. on its constructor).
+     *
+     * @param cellSize          The size of the grid's cells (in world units).
+     * @param activeRadius      The distance from the camera within which GameObjects are updated every tick.
+     * @param throttledRadius   The distance from the camera within which GameObjects are updated every interval.
+     *                          GameObjects beyond it are not updated.
+     * @param throttledInterval The amount of ticks between the updates of the throttled GameObjects.
+     */
+    public void enableSimulationLod(float cellSize, float activeRadius, float throttledRadius, int throttledInterval){
+        if(simulationLod == null) simulationLod = new SimulationLod(cellSize, activeRadius, throttledRadius, throttledInterval);
+    }
+
+    /** Sets the structure in which the scene's Colliders are kept, moving the ones already added into it. A
+     * DynamicAABBTree is used by default, while a SpatialHashGrid suits levels made of Colliders of about the same size.
+     *
+     * @param broadPhase    An empty broad-phase.
+     */
+    public void setBroadPhase(IBroadPhase broadPhase){
+        physics.setBroadPhase(broadPhase);
+    }
+
+    public SimulationLod getSimulationLod() {
+        return simulationLod;
+    }
+
+    public EntityStorage getEntityStorage() {
+        return entityStorage;
+    }
+
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public PrefabPool getPrefabPool() {
+        return prefabPool;
+    }
+
     public Physics getPhysics() {
         return physics;
     }
+
+    ObjectIndex getObjectIndex() {
+        return objectIndex;
+    }
 }
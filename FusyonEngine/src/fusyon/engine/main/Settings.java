@@ -6,6 +6,19 @@ import java.util.Map;
 public class Settings {
 
     private static Map<String, Integer> inputList = new HashMap<String, Integer>();
+    /** The registered tags, related with their bit within the GameObjects' tag masks. */
+    private static Map<String, Integer> tagMap = new HashMap<String, Integer>();
+    /** The registered layers, related with their index. */
+    private static Map<String, Integer> layerMap = new HashMap<String, Integer>();
+
+    /** The maximum amount of tags, as well as of layers. */
+    public static final int maxTagCount = 32;
+    /** The layer of every GameObject, unless changed. */
+    public static final int defaultLayer = 0;
+
+    static{
+        layerMap.put("Default", defaultLayer);
+    }
 
     public static void addInput(String name, int code){
         inputList.put(name, code);
@@ -15,6 +28,80 @@ public class Settings {
         return inputList.get(name);
     }
 
+    /** Registers a tag, giving it a bit of the GameObjects' tag masks. Registering a tag again gives the same bit.
+     *
+     * @param name  A name for the tag.
+     * @return      The tag's mask (a single bit), or 0 if all of the 32 tags are registered.
+     */
+    public static int addTag(String name){
+        Integer tag = tagMap.get(name);
+
+        if(tag != null) return tag;
+
+        if(tagMap.size() == maxTagCount){
+            System.err.println("[ENGINE ERROR]: The tag " + name + " can't be registered, since there are already " + maxTagCount + " tags.");
+            return 0;
+        }
+
+        tag = 1 << tagMap.size();
+        tagMap.put(name, tag);
+
+        return tag;
+    }
+
+    /** Gets the mask of a registered tag.
+     *
+     * @param name  The name of the tag.
+     * @return      The tag's mask (a single bit), or 0 if it is not registered.
+     */
+    public static int getTag(String name){
+        Integer tag = tagMap.get(name);
+
+        if(tag == null){
+            System.err.println("[ENGINE ERROR]: The tag " + name + " is not registered.");
+            return 0;
+        }
+
+        return tag;
+    }
+
+    /** Registers a layer. The layer 0 is registered as "Default". Registering a layer again gives the same index.
+     *
+     * @param name  A name for the layer.
+     * @return      The layer's index, or -1 if all of the 32 layers are registered.
+     */
+    public static int addLayer(String name){
+        Integer layer = layerMap.get(name);
+
+        if(layer != null) return layer;
+
+        if(layerMap.size() == maxTagCount){
+            System.err.println("[ENGINE ERROR]: The layer " + name + " can't be registered, since there are already " + maxTagCount + " layers.");
+            return -1;
+        }
+
+        layer = layerMap.size();
+        layerMap.put(name, layer);
+
+        return layer;
+    }
+
+    /** Gets the index of a registered layer.
+     *
+     * @param name  The name of the layer.
+     * @return      The layer's index, or -1 if it is not registered.
+     */
+    public static int getLayer(String name){
+        Integer layer = layerMap.get(name);
+
+        if(layer == null){
+            System.err.println("[ENGINE ERROR]: The layer " + name + " is not registered.");
+            return -1;
+        }
+
+        return layer;
+    }
+
     public enum SortingLayers{
         BACKGROUND,
         DEFAULT,
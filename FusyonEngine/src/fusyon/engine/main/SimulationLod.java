@@ -0,0 +1,368 @@
+package fusyon.engine.main;
+
+import fusyon.engine.gameobject.Camera;
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.util.Vector2f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Lowers the update rate of the GameObjects far from the camera (simulation level of detail).
+ *
+ * GameObjects are kept in a uniform grid of square cells, and moved between cells when their transform listeners are
+ * notified. Each cell has a tier, given by its distance (in cells) to the camera's cell: the components of GameObjects
+ * within the active radius are updated on every tick, the ones within the throttled radius once every few ticks
+ * (receiving the time passed since their last update), and the remaining ones sleep until the camera gets close. The
+ * throttled GameObjects are spread evenly across the ticks of the interval. Tiers are only recalculated for the cells
+ * around the camera, when it changes cells, and a cell that wakes up doesn't give its GameObjects the time they slept.
+ *
+ * Sleeping GameObjects cost nothing per tick: only the awake ones are kept in the list the Scene goes through on each
+ * tick, and the GameObjects that fall asleep or wake up are handed to the Scene, which takes their components out of
+ * (or puts them back into) the update phases of its ComponentDispatcher.
+ *
+ * Without a camera, every cell is active. Rendering and the EntityStorage are not affected: a sleeping GameObject that
+ * is moved stores its previous position on its first move of the tick, so it is still interpolated from where it was.
+ */
+public class SimulationLod {
+
+    /** The update rates of a cell. */
+    public enum Tier{
+        ACTIVE,
+        THROTTLED,
+        SLEEPING
+    }
+
+    /** The size of the cells (in world units). */
+    private final float cellSize;
+    /** The distance (in cells) within which GameObjects are updated every tick. */
+    private final int activeRadius;
+    /** The distance (in cells) within which GameObjects are updated every interval. */
+    private final int throttledRadius;
+    /** The amount of ticks between the updates of the throttled GameObjects. */
+    private final int throttledInterval;
+
+    /** The cells holding at least one GameObject, by their coordinates. */
+    private final Map<Long, Cell> cellMap = new HashMap<>();
+    /** The GameObjects within active or throttled cells, in no particular order. */
+    private final List<Entry> awakeEntryList = new ArrayList<>();
+    /** The GameObjects that have fallen asleep or woken up since the Scene last took them. */
+    private final List<GameObject> changedObjectList = new ArrayList<>();
+
+    /** The cell of the camera, when the tiers were last calculated. */
+    private int cameraCellX, cameraCellY;
+    /** A flag that indicates if the tiers were calculated around a camera. */
+    private boolean hasCamera;
+    /** The current tick of the Scene. */
+    private long tick;
+    /** The amount of GameObjects added so far, used to spread them across the throttled interval. */
+    private int addedCount;
+
+    /** Initializes a new SimulationLod.
+     *
+     * @param cellSize          The size of the cells (in world units).
+     * @param activeRadius      The distance from the camera within which GameObjects are updated every tick.
+     * @param throttledRadius   The distance from the camera within which GameObjects are updated every interval.
+     * @param throttledInterval The amount of ticks between the updates of the throttled GameObjects (at least 1).
+     */
+    public SimulationLod(float cellSize, float activeRadius, float throttledRadius, int throttledInterval){
+        this.cellSize = cellSize;
+        this.activeRadius = (int) Math.ceil(activeRadius / cellSize);
+        this.throttledRadius = Math.max(this.activeRadius, (int) Math.ceil(throttledRadius / cellSize));
+        this.throttledInterval = Math.max(1, throttledInterval);
+    }
+
+    /** Recalculates the tiers of the cells around the camera, if it has changed cells. Called by the Scene at the start
+     * of each tick.
+     *
+     * @param camera    The camera of the Scene (null if there is none).
+     * @param tick      The current tick.
+     */
+    void update(Camera camera, long tick){
+        this.tick = tick;
+
+        if(camera == null){
+            if(hasCamera){
+                hasCamera = false;
+                updateAllTiers();
+            }
+
+            return;
+        }
+
+        Vector2f position = camera.getPosition();
+        int cellX = toCell(position.x);
+        int cellY = toCell(position.y);
+
+        if(hasCamera && cellX == cameraCellX && cellY == cameraCellY) return;
+
+        boolean hadCamera = hasCamera;
+        int previousCellX = cameraCellX;
+        int previousCellY = cameraCellY;
+
+        hasCamera = true;
+        cameraCellX = cellX;
+        cameraCellY = cellY;
+
+        if(!hadCamera){
+            updateAllTiers();
+            return;
+        }
+
+        // Only the cells around the previous and the current camera's cell may change tiers.
+        updateTiersAround(previousCellX, previousCellY);
+        updateTiersAround(cellX, cellY);
+    }
+
+    /** Stores the previous position of each active, awake GameObject, and calculates the time its components receive
+     * on the current tick. Called by the Scene at the start of each tick, instead of going through all its GameObjects.
+     *
+     * @param delta The fixed time (in seconds) of a tick.
+     */
+    void step(float delta){
+        for(int i = 0; i < awakeEntryList.size(); i++){
+            Entry entry = awakeEntryList.get(i);
+
+            if(!entry.object.isActive()) continue;
+
+            entry.object.storePreviousPosition();
+
+            if(entry.cell.tier == Tier.THROTTLED && (tick + entry.phase) % throttledInterval != 0){
+                entry.delta = 0;
+                continue;
+            }
+
+            // The skipped ticks are capped, so a GameObject that was inactive doesn't receive the whole time at once.
+            long ticks = Math.min(tick - entry.simulatedTick, throttledInterval);
+
+            entry.delta = Math.max(1, ticks) * delta;
+            entry.simulatedTick = tick;
+        }
+    }
+
+    /** Gets the GameObjects that have fallen asleep or woken up since the list was last cleared. The Scene refreshes
+     * the dispatch of their components and clears it.
+     *
+     * @return  The list of GameObjects, which may hold some of them more than once.
+     */
+    List<GameObject> getChangedObjectList(){
+        return changedObjectList;
+    }
+
+    /** Adds a GameObject to the cell of its position. Called by the Scene when the GameObject is added to it.
+     *
+     * @param object    A GameObject.
+     */
+    void add(GameObject object){
+        if(object.getSimulationEntry() != null) return;
+
+        Entry entry = new Entry(object, addedCount++ % throttledInterval);
+
+        entry.simulatedTick = tick;
+        object.setSimulationEntry(entry);
+        insert(entry, object.getPosition());
+
+        // The components of a GameObject being added are dispatched according to its tier already.
+        if(entry.cell.tier != Tier.SLEEPING) setAwake(entry, true);
+    }
+
+    /** Removes a GameObject from its cell. Called by the Scene when the GameObject is removed from it.
+     *
+     * @param object    A GameObject.
+     */
+    void remove(GameObject object){
+        Entry entry = object.getSimulationEntry();
+
+        if(entry == null) return;
+
+        if(entry.awakeIndex != -1) setAwake(entry, false);
+
+        extract(entry);
+        object.setSimulationEntry(null);
+    }
+
+    /** Moves a GameObject to the cell of its current position. Called when its transform listeners are notified.
+     *
+     * @param object    A GameObject within the Scene.
+     */
+    public void move(GameObject object){
+        Entry entry = object.getSimulationEntry();
+
+        if(entry == null) return;
+
+        Vector2f position = object.getPosition();
+        Cell cell = entry.cell;
+
+        if(cell.x == toCell(position.x) && cell.y == toCell(position.y)) return;
+
+        extract(entry);
+        insert(entry, position);
+
+        // A GameObject moved out of a sleeping cell starts counting time from now.
+        if(cell.tier == Tier.SLEEPING && entry.cell.tier != Tier.SLEEPING) entry.simulatedTick = tick;
+
+        if((entry.cell.tier != Tier.SLEEPING) != (entry.awakeIndex != -1)){
+            setAwake(entry, entry.cell.tier != Tier.SLEEPING);
+            changedObjectList.add(object);
+        }
+    }
+
+    /** Gets the tier of the cell at a position.
+     *
+     * @param position  A world position.
+     * @return          The tier of the cell.
+     */
+    public Tier getTier(Vector2f position){
+        return getTier(toCell(position.x), toCell(position.y));
+    }
+
+    private Tier getTier(int cellX, int cellY){
+        if(!hasCamera) return Tier.ACTIVE;
+
+        int distance = Math.max(Math.abs(cellX - cameraCellX), Math.abs(cellY - cameraCellY));
+
+        if(distance <= activeRadius) return Tier.ACTIVE;
+        if(distance <= throttledRadius) return Tier.THROTTLED;
+
+        return Tier.SLEEPING;
+    }
+
+    private void updateAllTiers(){
+        for(Cell cell : cellMap.values()){
+            updateTier(cell);
+        }
+    }
+
+    private void updateTiersAround(int cellX, int cellY){
+        for(int y = cellY - throttledRadius; y <= cellY + throttledRadius; y++){
+            for(int x = cellX - throttledRadius; x <= cellX + throttledRadius; x++){
+                Cell cell = cellMap.get(toKey(x, y));
+
+                if(cell != null) updateTier(cell);
+            }
+        }
+    }
+
+    private void updateTier(Cell cell){
+        Tier tier = getTier(cell.x, cell.y);
+
+        boolean isWakingUp = cell.tier == Tier.SLEEPING && tier != Tier.SLEEPING;
+        boolean isFallingAsleep = cell.tier != Tier.SLEEPING && tier == Tier.SLEEPING;
+
+        cell.tier = tier;
+
+        if(!isWakingUp && !isFallingAsleep) return;
+
+        for(Entry entry : cell.entryList){
+            // The GameObjects of a cell that wakes up receive a single tick on their next update.
+            if(isWakingUp) entry.simulatedTick = tick - 1;
+
+            setAwake(entry, isWakingUp);
+            changedObjectList.add(entry.object);
+        }
+    }
+
+    /** Adds a GameObject to the awake list, or takes it out by swapping it with the list's last one. */
+    private void setAwake(Entry entry, boolean isAwake){
+        if(isAwake){
+            entry.awakeIndex = awakeEntryList.size();
+            awakeEntryList.add(entry);
+            return;
+        }
+
+        Entry last = awakeEntryList.remove(awakeEntryList.size() - 1);
+
+        if(last != entry){
+            awakeEntryList.set(entry.awakeIndex, last);
+            last.awakeIndex = entry.awakeIndex;
+        }
+
+        entry.awakeIndex = -1;
+        entry.delta = 0;
+    }
+
+    private void insert(Entry entry, Vector2f position){
+        int cellX = toCell(position.x);
+        int cellY = toCell(position.y);
+        long key = toKey(cellX, cellY);
+        Cell cell = cellMap.get(key);
+
+        if(cell == null){
+            cell = new Cell(cellX, cellY, getTier(cellX, cellY));
+            cellMap.put(key, cell);
+        }
+
+        entry.cell = cell;
+        entry.cellIndex = cell.entryList.size();
+        cell.entryList.add(entry);
+    }
+
+    /** Takes an entry out of its cell, swapping it with the cell's last entry. Empty cells are discarded. */
+    private void extract(Entry entry){
+        List<Entry> entryList = entry.cell.entryList;
+        Entry last = entryList.remove(entryList.size() - 1);
+
+        if(last != entry){
+            entryList.set(entry.cellIndex, last);
+            last.cellIndex = entry.cellIndex;
+        }
+
+        if(entryList.isEmpty()) cellMap.remove(toKey(entry.cell.x, entry.cell.y));
+
+        entry.cell = null;
+    }
+
+    private int toCell(float coordinate){
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long toKey(int cellX, int cellY){
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /** The state of a GameObject within the grid. */
+    public static class Entry {
+
+        /** The GameObject kept by the entry. */
+        private final GameObject object;
+        /** The tick on which the GameObject was last updated. */
+        private long simulatedTick;
+        /** The offset of the GameObject within the throttled interval. */
+        private final int phase;
+        /** The time its components receive on the current tick (0 if they are skipped). */
+        float delta;
+
+        private Cell cell;
+        private int cellIndex;
+        /** The index of the entry within the awake list (-1 if it is sleeping). */
+        private int awakeIndex = -1;
+
+        private Entry(GameObject object, int phase){
+            this.object = object;
+            this.phase = phase;
+        }
+
+        public Tier getTier() {
+            return cell.tier;
+        }
+
+        public boolean isSleeping() {
+            return awakeIndex == -1;
+        }
+    }
+
+    /** A square of the grid. */
+    private static class Cell {
+
+        private final int x, y;
+        private Tier tier;
+        private final List<Entry> entryList = new ArrayList<>();
+
+        Cell(int x, int y, Tier tier){
+            this.x = x;
+            this.y = y;
+            this.tier = tier;
+        }
+    }
+}
@@ -19,6 +19,20 @@ public class ColliderHit {
         this.contactDirection = contactDirection;
     }
 
+    /** Changes the data of the hit, so it can be reused.
+     *
+     * @param gameObject        The hit GameObject.
+     * @param collider          The hit Collider.
+     * @param rigidBody         The hit GameObject's RigidBody (null if it has none).
+     * @param contactDirection  The normalized direction to the hit Collider.
+     */
+    public void set(GameObject gameObject, Collider collider, RigidBody rigidBody, Vector2f contactDirection){
+        this.gameObject = gameObject;
+        this.collider = collider;
+        this.rigidBody = rigidBody;
+        this.contactDirection = contactDirection;
+    }
+
     public GameObject getGameObject() {
         return gameObject;
     }
@@ -76,24 +76,39 @@ public class ColliderQuadTree {
     }
 
     public List<Collider> query(FloatRectangle bounds){
-        TreeSet<Collider> colliderSet = new TreeSet<>((o1, o2) -> o1 == o2 ? 0 : 1);
+        List<Collider> colliderList = new ArrayList<>();
 
-        if(isOverlaping(bounds, this.bounds)){
-            for(Collider collider : this.colliderList){
-                if(isOverlaping(new FloatRectangle(collider.position.x + collider.offset.x, collider.position.y + collider.offset.y, collider.size.x, collider.size.y), bounds)) {
-                    colliderSet.add(collider);
-                }
-            }
+        // A Collider overlapping several quadrants is stored in each of them, but only added once.
+        query(Math.min(bounds.x, bounds.x + bounds.width), Math.min(bounds.y, bounds.y + bounds.height),
+                Math.max(bounds.x, bounds.x + bounds.width), Math.max(bounds.y, bounds.y + bounds.height),
+                colliderList, Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        return colliderList;
+    }
 
-            if(isSubdivided){
-                colliderSet.addAll(topLeftChild.query(bounds));
-                colliderSet.addAll(topRightChild.query(bounds));
-                colliderSet.addAll(bottomLeftChild.query(bounds));
-                colliderSet.addAll(bottomRightChild.query(bounds));
+    private void query(float minX, float minY, float maxX, float maxY, List<Collider> result, Set<Collider> foundSet){
+        if(Math.max(bounds.x, bounds.x + bounds.width) < minX || Math.min(bounds.x, bounds.x + bounds.width) > maxX ||
+                Math.max(bounds.y, bounds.y + bounds.height) < minY || Math.min(bounds.y, bounds.y + bounds.height) > maxY) return;
+
+        for(Collider collider : colliderList){
+            Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+            if(Math.max(position.x + offset.x, position.x + offset.x + size.x) >= minX &&
+                    Math.min(position.x + offset.x, position.x + offset.x + size.x) <= maxX &&
+                    Math.max(position.y + offset.y, position.y + offset.y + size.y) >= minY &&
+                    Math.min(position.y + offset.y, position.y + offset.y + size.y) <= maxY &&
+                    foundSet.add(collider)){
+
+                result.add(collider);
             }
         }
 
-        return new ArrayList<>(colliderSet);
+        if(isSubdivided){
+            topLeftChild.query(minX, minY, maxX, maxY, result, foundSet);
+            topRightChild.query(minX, minY, maxX, maxY, result, foundSet);
+            bottomLeftChild.query(minX, minY, maxX, maxY, result, foundSet);
+            bottomRightChild.query(minX, minY, maxX, maxY, result, foundSet);
+        }
     }
 
     public boolean remove(Collider collider) {
@@ -119,20 +134,7 @@ public class ColliderQuadTree {
     }
 
     public List<Collider> toList(){
-        List<Collider> colliderList = new ArrayList<>();
-
-        for(Collider collider : this.colliderList){
-            colliderList.add(collider);
-        }
-
-        if(isSubdivided){
-            colliderList.addAll(topLeftChild.query(bounds));
-            colliderList.addAll(topRightChild.query(bounds));
-            colliderList.addAll(bottomLeftChild.query(bounds));
-            colliderList.addAll(bottomRightChild.query(bounds));
-        }
-
-        return colliderList;
+        return query(bounds);
     }
 
     private boolean isOverlaping(FloatRectangle a, FloatRectangle b) {
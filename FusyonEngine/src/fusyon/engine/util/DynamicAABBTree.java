@@ -0,0 +1,470 @@
+package fusyon.engine.util;
+
+import fusyon.engine.gameobject.component.Collider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** A dynamic bounding volume tree of Colliders, used as the broad-phase of the Physics.
+ *
+ * Each Collider is a leaf holding a fat bounding box: its own bounds enlarged by a margin, and further enlarged in the
+ * direction it last moved to. Moving a Collider within its fat box costs a single check, and only a Collider that
+ * leaves it is taken out of the tree and inserted again. Each inner node bounds its two children, and is refit as
+ * leaves are inserted or removed, while tree rotations keep the heights of sibling subtrees within one of each other.
+ * New leaves are placed next to the node that grows the least (by perimeter).
+ *
+ * Nodes are stored in flat arrays, indexed by their id, and reused through a free list. The id of a leaf (its proxy) is
+ * kept by the Collider, so it can be moved or removed without a search. Queries check each Collider's own bounds, so
+ * they find the same Colliders as without the margins, and may run on several threads at once.
+ */
+public class DynamicAABBTree implements IBroadPhase {
+
+    private static final int nullNode = -1;
+    /** How much further than its last displacement a moving Collider's fat box is enlarged. */
+    private static final float displacementMultiplier = 2;
+
+    /** How much the Colliders' bounds are enlarged on each side. */
+    private final float margin;
+
+    private int root = nullNode;
+    /** The first of the unused nodes, linked through their parent ids. */
+    private int freeList = nullNode;
+    private int nodeCapacity;
+    private int leafCount;
+
+    private float[] minXArray, minYArray, maxXArray, maxYArray;
+    private int[] parentArray, child1Array, child2Array, heightArray;
+    private Collider[] colliderArray;
+
+    /** The stack of nodes to visit, kept by each querying thread so queries don't allocate. */
+    private final ThreadLocal<QueryStack> queryStack = ThreadLocal.withInitial(QueryStack::new);
+
+    /** Initializes a new DynamicAABBTree.
+     *
+     * @param margin    How much the Colliders' bounds are enlarged on each side (in world units).
+     */
+    public DynamicAABBTree(float margin){
+        this.margin = margin;
+
+        nodeCapacity = 16;
+        minXArray = new float[nodeCapacity];
+        minYArray = new float[nodeCapacity];
+        maxXArray = new float[nodeCapacity];
+        maxYArray = new float[nodeCapacity];
+        parentArray = new int[nodeCapacity];
+        child1Array = new int[nodeCapacity];
+        child2Array = new int[nodeCapacity];
+        heightArray = new int[nodeCapacity];
+        colliderArray = new Collider[nodeCapacity];
+
+        linkFreeNodes(0);
+    }
+
+    /** Inserts a Collider, with a fat box around its current bounds.
+     *
+     * @param collider  A Collider that is not in the tree.
+     * @return          The id of the Collider's leaf (its proxy), used to move or remove it.
+     */
+    @Override
+    public int insert(Collider collider){
+        int leaf = allocateNode();
+        Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+        colliderArray[leaf] = collider;
+        minXArray[leaf] = Math.min(position.x + offset.x, position.x + offset.x + size.x) - margin;
+        minYArray[leaf] = Math.min(position.y + offset.y, position.y + offset.y + size.y) - margin;
+        maxXArray[leaf] = Math.max(position.x + offset.x, position.x + offset.x + size.x) + margin;
+        maxYArray[leaf] = Math.max(position.y + offset.y, position.y + offset.y + size.y) + margin;
+
+        insertLeaf(leaf);
+        leafCount++;
+
+        return leaf;
+    }
+
+    /** Removes a Collider.
+     *
+     * @param proxy The id returned when the Collider was inserted.
+     */
+    @Override
+    public void remove(int proxy){
+        removeLeaf(proxy);
+        freeNode(proxy);
+        leafCount--;
+    }
+
+    /** Updates the leaf of a Collider after it has moved or changed its size.
+     *
+     * @param proxy The id returned when the Collider was inserted.
+     * @return      True if the Collider has left its fat box and was inserted again, false if it is still within it.
+     */
+    @Override
+    public boolean move(int proxy){
+        Collider collider = colliderArray[proxy];
+        Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+        float minX = Math.min(position.x + offset.x, position.x + offset.x + size.x);
+        float minY = Math.min(position.y + offset.y, position.y + offset.y + size.y);
+        float maxX = Math.max(position.x + offset.x, position.x + offset.x + size.x);
+        float maxY = Math.max(position.y + offset.y, position.y + offset.y + size.y);
+
+        if(minXArray[proxy] <= minX && minYArray[proxy] <= minY && maxXArray[proxy] >= maxX && maxYArray[proxy] >= maxY) return false;
+
+        // The displacement is estimated from the center of the previous fat box.
+        float displacementX = ((minX + maxX) - (minXArray[proxy] + maxXArray[proxy])) / 2 * displacementMultiplier;
+        float displacementY = ((minY + maxY) - (minYArray[proxy] + maxYArray[proxy])) / 2 * displacementMultiplier;
+
+        removeLeaf(proxy);
+
+        minXArray[proxy] = minX - margin + Math.min(displacementX, 0);
+        minYArray[proxy] = minY - margin + Math.min(displacementY, 0);
+        maxXArray[proxy] = maxX + margin + Math.max(displacementX, 0);
+        maxYArray[proxy] = maxY + margin + Math.max(displacementY, 0);
+
+        insertLeaf(proxy);
+
+        return true;
+    }
+
+    @Override
+    public void query(float minX, float minY, float maxX, float maxY, IColliderVisitor visitor){
+        if(root == nullNode) return;
+
+        QueryStack queryStack = this.queryStack.get();
+        // A query started by a visitor pushes its nodes above the ones of the query that called it.
+        int base = queryStack.size;
+        int stackSize = base;
+        int[] stack = queryStack.ensureCapacity(stackSize + 1);
+
+        stack[stackSize++] = root;
+
+        try{
+            while(stackSize > base){
+                int node = stack[--stackSize];
+
+                if(minXArray[node] > maxX || maxXArray[node] < minX || minYArray[node] > maxY || maxYArray[node] < minY) continue;
+
+                if(child1Array[node] == nullNode){
+                    if(!isOverlapping(colliderArray[node], minX, minY, maxX, maxY)) continue;
+
+                    queryStack.size = stackSize;
+
+                    if(!visitor.visit(colliderArray[node])) return;
+
+                    // The visitor may have grown the stack.
+                    stack = queryStack.array;
+                }else{
+                    stack = queryStack.ensureCapacity(stackSize + 2);
+                    stack[stackSize++] = child1Array[node];
+                    stack[stackSize++] = child2Array[node];
+                }
+            }
+        }finally{
+            queryStack.size = base;
+        }
+    }
+
+    /** Gets every Collider in the tree.
+     *
+     * @return  A list containing the Colliders.
+     */
+    @Override
+    public List<Collider> toList(){
+        List<Collider> colliderList = new ArrayList<>(leafCount);
+
+        for(int node = 0; node < nodeCapacity; node++){
+            if(heightArray[node] == 0 && colliderArray[node] != null) colliderList.add(colliderArray[node]);
+        }
+
+        return colliderList;
+    }
+
+    /** Gets the fat box of a Collider.
+     *
+     * @param proxy The id returned when the Collider was inserted.
+     * @return      A new rectangle with the fat box.
+     */
+    public FloatRectangle getFatBounds(int proxy){
+        return new FloatRectangle(minXArray[proxy], minYArray[proxy], maxXArray[proxy] - minXArray[proxy], maxYArray[proxy] - minYArray[proxy]);
+    }
+
+    @Override
+    public int getSize() {
+        return leafCount;
+    }
+
+    /** Gets the height of the tree.
+     *
+     * @return  The amount of levels below the root (0 if it is a leaf or if the tree is empty).
+     */
+    public int getHeight() {
+        return root == nullNode ? 0 : heightArray[root];
+    }
+
+    public float getMargin() {
+        return margin;
+    }
+
+    private static boolean isOverlapping(Collider collider, float minX, float minY, float maxX, float maxY){
+        Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+        return Math.max(position.x + offset.x, position.x + offset.x + size.x) >= minX &&
+                Math.min(position.x + offset.x, position.x + offset.x + size.x) <= maxX &&
+                Math.max(position.y + offset.y, position.y + offset.y + size.y) >= minY &&
+                Math.min(position.y + offset.y, position.y + offset.y + size.y) <= maxY;
+    }
+
+    private int allocateNode(){
+        if(freeList == nullNode){
+            int oldCapacity = nodeCapacity;
+
+            nodeCapacity *= 2;
+            minXArray = Arrays.copyOf(minXArray, nodeCapacity);
+            minYArray = Arrays.copyOf(minYArray, nodeCapacity);
+            maxXArray = Arrays.copyOf(maxXArray, nodeCapacity);
+            maxYArray = Arrays.copyOf(maxYArray, nodeCapacity);
+            parentArray = Arrays.copyOf(parentArray, nodeCapacity);
+            child1Array = Arrays.copyOf(child1Array, nodeCapacity);
+            child2Array = Arrays.copyOf(child2Array, nodeCapacity);
+            heightArray = Arrays.copyOf(heightArray, nodeCapacity);
+            colliderArray = Arrays.copyOf(colliderArray, nodeCapacity);
+
+            linkFreeNodes(oldCapacity);
+        }
+
+        int node = freeList;
+
+        freeList = parentArray[node];
+        parentArray[node] = nullNode;
+        child1Array[node] = nullNode;
+        child2Array[node] = nullNode;
+        heightArray[node] = 0;
+
+        return node;
+    }
+
+    private void freeNode(int node){
+        parentArray[node] = freeList;
+        heightArray[node] = -1;
+        colliderArray[node] = null;
+        freeList = node;
+    }
+
+    /** Links the nodes from an index to the end of the arrays into the free list. */
+    private void linkFreeNodes(int start){
+        for(int node = start; node < nodeCapacity - 1; node++){
+            parentArray[node] = node + 1;
+            heightArray[node] = -1;
+        }
+
+        parentArray[nodeCapacity - 1] = freeList;
+        heightArray[nodeCapacity - 1] = -1;
+        freeList = start;
+    }
+
+    private void insertLeaf(int leaf){
+        if(root == nullNode){
+            root = leaf;
+            parentArray[root] = nullNode;
+            return;
+        }
+
+        float leafMinX = minXArray[leaf], leafMinY = minYArray[leaf], leafMaxX = maxXArray[leaf], leafMaxY = maxYArray[leaf];
+        int node = root;
+
+        // Descends towards the node whose box grows the least when combined with the leaf's.
+        while(child1Array[node] != nullNode){
+            int child1 = child1Array[node];
+            int child2 = child2Array[node];
+
+            float perimeter = getPerimeter(minXArray[node], minYArray[node], maxXArray[node], maxYArray[node]);
+            float combinedPerimeter = getPerimeter(Math.min(minXArray[node], leafMinX), Math.min(minYArray[node], leafMinY),
+                    Math.max(maxXArray[node], leafMaxX), Math.max(maxYArray[node], leafMaxY));
+
+            // The cost of pairing the leaf with this node, and the cost of pushing the leaf further down.
+            float cost = 2 * combinedPerimeter;
+            float inheritanceCost = 2 * (combinedPerimeter - perimeter);
+            float cost1 = getDescentCost(child1, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+            float cost2 = getDescentCost(child2, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+
+            if(cost < cost1 && cost < cost2) break;
+
+            node = cost1 < cost2 ? child1 : child2;
+        }
+
+        int sibling = node;
+        int oldParent = parentArray[sibling];
+        int newParent = allocateNode();
+
+        parentArray[newParent] = oldParent;
+        heightArray[newParent] = heightArray[sibling] + 1;
+        setUnion(newParent, leaf, sibling);
+
+        if(oldParent != nullNode){
+            if(child1Array[oldParent] == sibling){
+                child1Array[oldParent] = newParent;
+            }else{
+                child2Array[oldParent] = newParent;
+            }
+        }else{
+            root = newParent;
+        }
+
+        child1Array[newParent] = sibling;
+        child2Array[newParent] = leaf;
+        parentArray[sibling] = newParent;
+        parentArray[leaf] = newParent;
+
+        refit(parentArray[leaf]);
+    }
+
+    private void removeLeaf(int leaf){
+        if(leaf == root){
+            root = nullNode;
+            return;
+        }
+
+        int parent = parentArray[leaf];
+        int grandParent = parentArray[parent];
+        int sibling = child1Array[parent] == leaf ? child2Array[parent] : child1Array[parent];
+
+        if(grandParent != nullNode){
+            if(child1Array[grandParent] == parent){
+                child1Array[grandParent] = sibling;
+            }else{
+                child2Array[grandParent] = sibling;
+            }
+
+            parentArray[sibling] = grandParent;
+            freeNode(parent);
+            refit(grandParent);
+        }else{
+            root = sibling;
+            parentArray[sibling] = nullNode;
+            freeNode(parent);
+        }
+    }
+
+    /** Balances and refits the nodes from a node up to the root. */
+    private void refit(int node){
+        while(node != nullNode){
+            node = balance(node);
+
+            int child1 = child1Array[node];
+            int child2 = child2Array[node];
+
+            heightArray[node] = 1 + Math.max(heightArray[child1], heightArray[child2]);
+            setUnion(node, child1, child2);
+
+            node = parentArray[node];
+        }
+    }
+
+    /** Rotates a node's taller child up if its children's heights differ by more than one.
+     *
+     * @return  The node now at the rotated node's place.
+     */
+    private int balance(int a){
+        if(child1Array[a] == nullNode || heightArray[a] < 2) return a;
+
+        int b = child1Array[a];
+        int c = child2Array[a];
+        int balance = heightArray[c] - heightArray[b];
+
+        if(balance > 1) return rotate(a, c, b, false);
+        if(balance < -1) return rotate(a, b, c, true);
+
+        return a;
+    }
+
+    /** Rotates a node's taller child up, making the node its child.
+     *
+     * @param a         The node.
+     * @param up        Its taller child.
+     * @param other     Its other child.
+     * @param isFirst   True if the taller child is the node's first child.
+     * @return          The taller child, now at the node's place.
+     */
+    private int rotate(int a, int up, int other, boolean isFirst){
+        int f = child1Array[up];
+        int g = child2Array[up];
+
+        child1Array[up] = a;
+        parentArray[up] = parentArray[a];
+        parentArray[a] = up;
+
+        int upParent = parentArray[up];
+
+        if(upParent != nullNode){
+            if(child1Array[upParent] == a){
+                child1Array[upParent] = up;
+            }else{
+                child2Array[upParent] = up;
+            }
+        }else{
+            root = up;
+        }
+
+        // The taller grandchild stays under the rotated child, and the other one takes its place under the node.
+        int kept = heightArray[f] > heightArray[g] ? f : g;
+        int moved = kept == f ? g : f;
+
+        child2Array[up] = kept;
+
+        if(isFirst){
+            child1Array[a] = moved;
+        }else{
+            child2Array[a] = moved;
+        }
+
+        parentArray[moved] = a;
+
+        setUnion(a, other, moved);
+        setUnion(up, a, kept);
+        heightArray[a] = 1 + Math.max(heightArray[other], heightArray[moved]);
+        heightArray[up] = 1 + Math.max(heightArray[a], heightArray[kept]);
+
+        return up;
+    }
+
+    /** Gets the cost of descending into a child to pair it with a leaf. */
+    private float getDescentCost(int child, float leafMinX, float leafMinY, float leafMaxX, float leafMaxY){
+        float combinedPerimeter = getPerimeter(Math.min(minXArray[child], leafMinX), Math.min(minYArray[child], leafMinY),
+                Math.max(maxXArray[child], leafMaxX), Math.max(maxYArray[child], leafMaxY));
+
+        if(child1Array[child] == nullNode) return combinedPerimeter;
+
+        return combinedPerimeter - getPerimeter(minXArray[child], minYArray[child], maxXArray[child], maxYArray[child]);
+    }
+
+    private void setUnion(int node, int a, int b){
+        minXArray[node] = Math.min(minXArray[a], minXArray[b]);
+        minYArray[node] = Math.min(minYArray[a], minYArray[b]);
+        maxXArray[node] = Math.max(maxXArray[a], maxXArray[b]);
+        maxYArray[node] = Math.max(maxYArray[a], maxYArray[b]);
+    }
+
+    private static float getPerimeter(float minX, float minY, float maxX, float maxY){
+        return 2 * ((maxX - minX) + (maxY - minY));
+    }
+
+    /** The nodes left to visit by the queries running on a thread, the innermost query's on top. */
+    private static class QueryStack {
+
+        private int[] array = new int[64];
+        /** The amount of nodes held by the queries waiting for a visitor, above which a nested query starts. */
+        private int size;
+
+        /** Grows the array to hold a certain amount of nodes.
+         *
+         * @param capacity  The amount of nodes.
+         * @return          The array.
+         */
+        int[] ensureCapacity(int capacity){
+            if(capacity > array.length) array = Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+
+            return array;
+        }
+    }
+}
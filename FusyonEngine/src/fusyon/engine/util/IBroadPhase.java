@@ -0,0 +1,82 @@
+package fusyon.engine.util;
+
+import fusyon.engine.gameobject.component.Collider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A structure that stores the Colliders of a Scene to find the ones within an area (the broad-phase of the Physics).
+ *
+ * Each Collider inserted is given an id (its proxy), kept by the Collider to be moved or removed without a search.
+ * Queries check each Collider's own bounds, so every implementation finds the same Colliders.
+ */
+public interface IBroadPhase {
+
+    /** Inserts a Collider.
+     *
+     * @param collider  A Collider that is not in the broad-phase.
+     * @return          The Collider's proxy id.
+     */
+    int insert(Collider collider);
+
+    /** Removes a Collider.
+     *
+     * @param proxy The id returned when the Collider was inserted.
+     */
+    void remove(int proxy);
+
+    /** Updates a Collider after it has moved or changed its size.
+     *
+     * @param proxy The id returned when the Collider was inserted.
+     * @return      True if the structure has changed, false if the Collider has stayed in place within it.
+     */
+    boolean move(int proxy);
+
+    /** Visits the Colliders whose bounds overlap an area, edges included, without allocating.
+     *
+     * @param minX      The area's left edge.
+     * @param minY      The area's top edge.
+     * @param maxX      The area's right edge.
+     * @param maxY      The area's bottom edge.
+     * @param visitor   The visitor called for each Collider found, each one once.
+     */
+    void query(float minX, float minY, float maxX, float maxY, IColliderVisitor visitor);
+
+    /** Finds the Colliders whose bounds overlap an area, edges included.
+     *
+     * @param minX      The area's left edge.
+     * @param minY      The area's top edge.
+     * @param maxX      The area's right edge.
+     * @param maxY      The area's bottom edge.
+     * @param result    A reusable list where the Colliders found are added, each one once.
+     */
+    default void query(float minX, float minY, float maxX, float maxY, List<Collider> result){
+        query(minX, minY, maxX, maxY, result::add);
+    }
+
+    /** Finds the Colliders whose bounds overlap an area, edges included.
+     *
+     * @param bounds    An area (its width and height may be negative).
+     * @return          A list containing the Colliders found.
+     */
+    default List<Collider> query(FloatRectangle bounds){
+        List<Collider> colliderList = new ArrayList<>();
+
+        query(Math.min(bounds.x, bounds.x + bounds.width), Math.min(bounds.y, bounds.y + bounds.height),
+                Math.max(bounds.x, bounds.x + bounds.width), Math.max(bounds.y, bounds.y + bounds.height), colliderList);
+
+        return colliderList;
+    }
+
+    /** Gets every Collider in the broad-phase.
+     *
+     * @return  A list containing the Colliders.
+     */
+    List<Collider> toList();
+
+    /** Gets the amount of Colliders in the broad-phase.
+     *
+     * @return  The amount of Colliders.
+     */
+    int getSize();
+}
@@ -3,5 +3,18 @@ package fusyon.engine.util;
 public interface ICollider {
 
     void onCollisionEnter(ColliderHit colliderHit);
+
+    /** Called on each tick after the first one in which the Collider keeps touching another one.
+     *
+     * @param colliderHit   The other Collider's data. It is reused after the call, so it must not be kept.
+     */
+    default void onCollisionStay(ColliderHit colliderHit){}
+
+    /** Called on the tick in which the Collider stops touching another one (or either of them is removed).
+     *
+     * @param colliderHit   The other Collider's data. It is reused after the call, so it must not be kept.
+     */
+    default void onCollisionExit(ColliderHit colliderHit){}
+
     void onMouseEnter();
 }
@@ -0,0 +1,19 @@
+package fusyon.engine.util;
+
+import fusyon.engine.gameobject.component.Collider;
+
+/** Receives the Colliders found by a broad-phase query, one at a time, as they are found.
+ *
+ * Unlike a list of results, a visitor lets a query run without allocating, and stop as soon as it has found what it
+ * needs. The broad-phase must not be changed while it is being visited, but a visitor may start another query (e.g.
+ * through the Physics' overlap methods), which runs to its end before the outer one goes on.
+ */
+public interface IColliderVisitor {
+
+    /** Called for each Collider found, once per query.
+     *
+     * @param collider  A Collider whose bounds overlap the query's area.
+     * @return          True to keep querying, false to stop.
+     */
+    boolean visit(Collider collider);
+}
@@ -0,0 +1,373 @@
+package fusyon.engine.util;
+
+import fusyon.engine.gameobject.component.Collider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** A uniform grid of square cells storing the Colliders of a Scene, suited to levels where most Colliders have about the
+ * same size (e.g. tiles).
+ *
+ * Each Collider is added to every cell its bounds cover, so the cell size should be close to the Colliders' size. Only
+ * cells holding Colliders are stored, in a hash table keyed by their packed coordinates (a primitive long, so looking a
+ * cell up doesn't allocate). Moving a Collider within the same cells doesn't change the grid. A Collider covering several
+ * of the cells of a query is only returned once, from the first cell (on both axes) that it shares with the query.
+ *
+ * Queries keep no state in the grid, so they can run on several threads at once, or within each other's visitors.
+ */
+public class SpatialHashGrid implements IBroadPhase {
+
+    private static final int nullProxy = -1;
+
+    /** The size of the cells (in world units). */
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    /** The Collider of each proxy (null if the proxy is unused). */
+    private Collider[] colliderArray;
+    /** The range of cells each proxy was added to. */
+    private int[] minCellXArray, minCellYArray, maxCellXArray, maxCellYArray;
+    /** The next unused proxy after each unused one. */
+    private int[] nextFreeArray;
+    private int freeList = nullProxy;
+    private int proxyCapacity;
+    private int colliderCount;
+
+    /** The packed coordinates of the cell in each slot of the table. */
+    private long[] keyArray;
+    /** The proxies in each slot's cell (null if the slot is empty). */
+    private int[][] cellArray;
+    /** The amount of proxies in each slot's cell. */
+    private int[] cellCountArray;
+    private int cellCount;
+    /** The number of bits of a slot index (the table has 2 ^ tableBits slots). */
+    private int tableBits;
+
+    /** Initializes a new SpatialHashGrid.
+     *
+     * @param cellSize  The size of the cells (in world units).
+     */
+    public SpatialHashGrid(float cellSize){
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+
+        proxyCapacity = 16;
+        colliderArray = new Collider[proxyCapacity];
+        minCellXArray = new int[proxyCapacity];
+        minCellYArray = new int[proxyCapacity];
+        maxCellXArray = new int[proxyCapacity];
+        maxCellYArray = new int[proxyCapacity];
+        nextFreeArray = new int[proxyCapacity];
+        linkFreeProxies(0);
+
+        tableBits = 6;
+        keyArray = new long[1 << tableBits];
+        cellArray = new int[1 << tableBits][];
+        cellCountArray = new int[1 << tableBits];
+    }
+
+    @Override
+    public int insert(Collider collider){
+        if(freeList == nullProxy) growProxies();
+
+        int proxy = freeList;
+
+        freeList = nextFreeArray[proxy];
+        colliderArray[proxy] = collider;
+        colliderCount++;
+
+        Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+        int minCellX = toCell(Math.min(position.x + offset.x, position.x + offset.x + size.x));
+        int minCellY = toCell(Math.min(position.y + offset.y, position.y + offset.y + size.y));
+        int maxCellX = toCell(Math.max(position.x + offset.x, position.x + offset.x + size.x));
+        int maxCellY = toCell(Math.max(position.y + offset.y, position.y + offset.y + size.y));
+
+        minCellXArray[proxy] = minCellX;
+        minCellYArray[proxy] = minCellY;
+        maxCellXArray[proxy] = maxCellX;
+        maxCellYArray[proxy] = maxCellY;
+
+        for(int y = minCellY; y <= maxCellY; y++){
+            for(int x = minCellX; x <= maxCellX; x++){
+                addToCell(x, y, proxy);
+            }
+        }
+
+        return proxy;
+    }
+
+    @Override
+    public void remove(int proxy){
+        for(int y = minCellYArray[proxy]; y <= maxCellYArray[proxy]; y++){
+            for(int x = minCellXArray[proxy]; x <= maxCellXArray[proxy]; x++){
+                removeFromCell(x, y, proxy);
+            }
+        }
+
+        colliderArray[proxy] = null;
+        nextFreeArray[proxy] = freeList;
+        freeList = proxy;
+        colliderCount--;
+    }
+
+    @Override
+    public boolean move(int proxy){
+        Collider collider = colliderArray[proxy];
+        Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+        int minCellX = toCell(Math.min(position.x + offset.x, position.x + offset.x + size.x));
+        int minCellY = toCell(Math.min(position.y + offset.y, position.y + offset.y + size.y));
+        int maxCellX = toCell(Math.max(position.x + offset.x, position.x + offset.x + size.x));
+        int maxCellY = toCell(Math.max(position.y + offset.y, position.y + offset.y + size.y));
+
+        int oldMinCellX = minCellXArray[proxy], oldMinCellY = minCellYArray[proxy];
+        int oldMaxCellX = maxCellXArray[proxy], oldMaxCellY = maxCellYArray[proxy];
+
+        if(minCellX == oldMinCellX && minCellY == oldMinCellY && maxCellX == oldMaxCellX && maxCellY == oldMaxCellY) return false;
+
+        // Only the cells entered or left change.
+        for(int y = oldMinCellY; y <= oldMaxCellY; y++){
+            for(int x = oldMinCellX; x <= oldMaxCellX; x++){
+                if(x < minCellX || x > maxCellX || y < minCellY || y > maxCellY) removeFromCell(x, y, proxy);
+            }
+        }
+
+        for(int y = minCellY; y <= maxCellY; y++){
+            for(int x = minCellX; x <= maxCellX; x++){
+                if(x < oldMinCellX || x > oldMaxCellX || y < oldMinCellY || y > oldMaxCellY) addToCell(x, y, proxy);
+            }
+        }
+
+        minCellXArray[proxy] = minCellX;
+        minCellYArray[proxy] = minCellY;
+        maxCellXArray[proxy] = maxCellX;
+        maxCellYArray[proxy] = maxCellY;
+
+        return true;
+    }
+
+    @Override
+    public void query(float minX, float minY, float maxX, float maxY, IColliderVisitor visitor){
+        if(cellCount == 0) return;
+
+        int minCellX = toCell(minX), minCellY = toCell(minY);
+        int maxCellX = toCell(maxX), maxCellY = toCell(maxY);
+        long width = (long) maxCellX - minCellX + 1, height = (long) maxCellY - minCellY + 1;
+
+        // An area covering more cells than are stored is checked against the stored cells instead.
+        if(width > cellCount || height > cellCount || width * height > cellCount){
+            for(int slot = 0; slot < cellArray.length; slot++){
+                if(cellArray[slot] == null) continue;
+
+                int cellX = (int) (keyArray[slot] >> 32);
+                int cellY = (int) keyArray[slot];
+
+                if(cellX >= minCellX && cellX <= maxCellX && cellY >= minCellY && cellY <= maxCellY &&
+                        !queryCell(slot, cellX, cellY, minCellX, minCellY, minX, minY, maxX, maxY, visitor)) return;
+            }
+
+            return;
+        }
+
+        for(int y = minCellY; y <= maxCellY; y++){
+            for(int x = minCellX; x <= maxCellX; x++){
+                int slot = findSlot(toKey(x, y));
+
+                if(cellArray[slot] != null && !queryCell(slot, x, y, minCellX, minCellY, minX, minY, maxX, maxY, visitor)) return;
+            }
+        }
+    }
+
+    @Override
+    public List<Collider> toList(){
+        List<Collider> colliderList = new ArrayList<>(colliderCount);
+
+        for(Collider collider : colliderArray){
+            if(collider != null) colliderList.add(collider);
+        }
+
+        return colliderList;
+    }
+
+    @Override
+    public int getSize() {
+        return colliderCount;
+    }
+
+    /** Gets the amount of cells holding at least one Collider.
+     *
+     * @return  The amount of cells.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /** Visits the Colliders of a cell for which it is the first cell shared with the query, so each Collider is only
+     * visited from one cell.
+     *
+     * @return  False if the visitor has stopped the query.
+     */
+    private boolean queryCell(int slot, int cellX, int cellY, int minCellX, int minCellY, float minX, float minY, float maxX, float maxY, IColliderVisitor visitor){
+        int[] cell = cellArray[slot];
+
+        for(int i = 0; i < cellCountArray[slot]; i++){
+            int proxy = cell[i];
+
+            if(Math.max(minCellXArray[proxy], minCellX) != cellX || Math.max(minCellYArray[proxy], minCellY) != cellY) continue;
+
+            Collider collider = colliderArray[proxy];
+            Vector2f position = collider.position, offset = collider.offset, size = collider.size;
+
+            if(Math.max(position.x + offset.x, position.x + offset.x + size.x) >= minX &&
+                    Math.min(position.x + offset.x, position.x + offset.x + size.x) <= maxX &&
+                    Math.max(position.y + offset.y, position.y + offset.y + size.y) >= minY &&
+                    Math.min(position.y + offset.y, position.y + offset.y + size.y) <= maxY){
+
+                if(!visitor.visit(collider)) return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void addToCell(int cellX, int cellY, int proxy){
+        long key = toKey(cellX, cellY);
+        int slot = findSlot(key);
+
+        if(cellArray[slot] == null){
+            // The table is kept at most half full, so probes stay short.
+            if((cellCount + 1) * 2 > cellArray.length){
+                growTable();
+                slot = findSlot(key);
+            }
+
+            keyArray[slot] = key;
+            cellArray[slot] = new int[4];
+            cellCountArray[slot] = 0;
+            cellCount++;
+        }
+
+        int count = cellCountArray[slot];
+
+        if(count == cellArray[slot].length) cellArray[slot] = Arrays.copyOf(cellArray[slot], count * 2);
+
+        cellArray[slot][count] = proxy;
+        cellCountArray[slot] = count + 1;
+    }
+
+    private void removeFromCell(int cellX, int cellY, int proxy){
+        int slot = findSlot(toKey(cellX, cellY));
+        int[] cell = cellArray[slot];
+
+        if(cell == null) return;
+
+        int last = --cellCountArray[slot];
+
+        for(int i = 0; i <= last; i++){
+            if(cell[i] == proxy){
+                cell[i] = cell[last];
+                break;
+            }
+        }
+
+        if(last == 0) removeSlot(slot);
+    }
+
+    /** Finds the slot of a cell, or the empty slot where it would be added. */
+    private int findSlot(long key){
+        int mask = cellArray.length - 1;
+        int slot = getHomeSlot(key);
+
+        while(cellArray[slot] != null && keyArray[slot] != key){
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /** Empties a slot, shifting back the cells probed past it so every cell stays reachable from its home slot. */
+    private void removeSlot(int slot){
+        int mask = cellArray.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        while(cellArray[next] != null){
+            int home = getHomeSlot(keyArray[next]);
+
+            if(((next - home) & mask) >= ((next - hole) & mask)){
+                keyArray[hole] = keyArray[next];
+                cellArray[hole] = cellArray[next];
+                cellCountArray[hole] = cellCountArray[next];
+                hole = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        cellArray[hole] = null;
+        cellCountArray[hole] = 0;
+        cellCount--;
+    }
+
+    private void growTable(){
+        long[] oldKeyArray = keyArray;
+        int[][] oldCellArray = cellArray;
+        int[] oldCellCountArray = cellCountArray;
+
+        tableBits++;
+        keyArray = new long[1 << tableBits];
+        cellArray = new int[1 << tableBits][];
+        cellCountArray = new int[1 << tableBits];
+
+        for(int i = 0; i < oldCellArray.length; i++){
+            if(oldCellArray[i] == null) continue;
+
+            int slot = findSlot(oldKeyArray[i]);
+
+            keyArray[slot] = oldKeyArray[i];
+            cellArray[slot] = oldCellArray[i];
+            cellCountArray[slot] = oldCellCountArray[i];
+        }
+    }
+
+    private void growProxies(){
+        int oldCapacity = proxyCapacity;
+
+        proxyCapacity *= 2;
+        colliderArray = Arrays.copyOf(colliderArray, proxyCapacity);
+        minCellXArray = Arrays.copyOf(minCellXArray, proxyCapacity);
+        minCellYArray = Arrays.copyOf(minCellYArray, proxyCapacity);
+        maxCellXArray = Arrays.copyOf(maxCellXArray, proxyCapacity);
+        maxCellYArray = Arrays.copyOf(maxCellYArray, proxyCapacity);
+        nextFreeArray = Arrays.copyOf(nextFreeArray, proxyCapacity);
+
+        linkFreeProxies(oldCapacity);
+    }
+
+    /** Links the proxies from an index to the end of the arrays into the free list. */
+    private void linkFreeProxies(int start){
+        for(int proxy = start; proxy < proxyCapacity - 1; proxy++){
+            nextFreeArray[proxy] = proxy + 1;
+        }
+
+        nextFreeArray[proxyCapacity - 1] = freeList;
+        freeList = start;
+    }
+
+    private int getHomeSlot(long key){
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - tableBits));
+    }
+
+    private int toCell(float coordinate){
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private static long toKey(int cellX, int cellY){
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
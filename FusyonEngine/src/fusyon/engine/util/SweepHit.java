@@ -0,0 +1,29 @@
+package fusyon.engine.util;
+
+import fusyon.engine.gameobject.GameObject;
+import fusyon.engine.gameobject.component.Collider;
+import fusyon.engine.gameobject.component.RigidBody;
+
+/** The first Collider hit by a Collider swept along a displacement, with the time and side of the contact. */
+public class SweepHit extends ColliderHit {
+
+    /** The fraction of the displacement travelled before the contact, from 0 to 1. */
+    private final float time;
+    /** The normal of the hit side, pointing back towards the swept Collider (along a single axis). */
+    private final Vector2f normal;
+
+    public SweepHit(GameObject gameObject, Collider collider, RigidBody rigidBody, float time, Vector2f normal) {
+        super(gameObject, collider, rigidBody, new Vector2f(-normal.x, -normal.y));
+
+        this.time = time;
+        this.normal = normal;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public Vector2f getNormal() {
+        return normal;
+    }
+}
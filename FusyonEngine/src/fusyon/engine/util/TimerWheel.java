@@ -0,0 +1,238 @@
+package fusyon.engine.util;
+
+/** A hierarchical timing wheel, which calls delayed and repeating callbacks on the tick they are due.
+ *
+ * Timers are stored by their due tick in one of four wheels: the first has a slot for each of the next 256 ticks, and
+ * each of the others has 64 slots, each slot covering a whole turn of the wheel below it. When a wheel completes a
+ * turn, the timers of the next slot above are moved (cascaded) down. Scheduling, cancelling and dispatching a timer
+ * are O(1), and a tick without due timers costs a single slot check, no matter how many timers are waiting. Timers due
+ * in more than 2^26 ticks are kept in an overflow list, checked once every 2^26 ticks.
+ *
+ * Each timer is a node of a doubly linked list, so it can be cancelled without searching for it. The wheel is not
+ * thread safe, and must only be used from the game thread.
+ */
+public class TimerWheel {
+
+    private static final int rootBits = 8;
+    private static final int levelBits = 6;
+    private static final int levelCount = 3;
+    private static final int rootSize = 1 << rootBits;
+    private static final int levelSize = 1 << levelBits;
+    /** The amount of bits needed to address every tick covered by the wheels (26). */
+    private static final int rangeBits = rootBits + levelBits * levelCount;
+
+    /** The slots of the first wheel, one for each tick. */
+    private final Timer[] rootSlots = new Timer[rootSize];
+    /** The slots of the other wheels, indexed by level and then by slot. */
+    private final Timer[][] levelSlots = new Timer[levelCount][levelSize];
+    /** The timers due after the range covered by the wheels. */
+    private final Timer overflowSlot = new Timer(null, null, 0);
+
+    /** The last tick processed. */
+    private long tick;
+    /** The amount of scheduled timers. */
+    private int size;
+
+    /** Initializes a new TimerWheel, at tick 0. */
+    public TimerWheel(){
+        for(int i = 0; i < rootSize; i++){
+            rootSlots[i] = new Timer(null, null, 0);
+        }
+
+        for(int level = 0; level < levelCount; level++){
+            for(int i = 0; i < levelSize; i++){
+                levelSlots[level][i] = new Timer(null, null, 0);
+            }
+        }
+    }
+
+    /** Schedules a callback to be called once.
+     *
+     * @param delay     The amount of ticks to wait (at least 1). A delay of 1 calls it on the next tick.
+     * @param callback  The callback to be called.
+     * @return          The scheduled timer, that can be cancelled.
+     */
+    public Timer scheduleOnce(long delay, Runnable callback){
+        return schedule(delay, 0, callback);
+    }
+
+    /** Schedules a callback to be called repeatedly, until the timer is cancelled.
+     *
+     * @param delay     The amount of ticks to wait before the first call (at least 1).
+     * @param interval  The amount of ticks between calls (at least 1).
+     * @param callback  The callback to be called.
+     * @return          The scheduled timer, that can be cancelled.
+     */
+    public Timer scheduleRepeating(long delay, long interval, Runnable callback){
+        return schedule(delay, Math.max(1, interval), callback);
+    }
+
+    /** Cancels a timer, so its callback won't be called anymore. Cancelling a timer that is not scheduled does nothing.
+     *
+     * @param timer A timer returned by this wheel.
+     */
+    public void cancel(Timer timer){
+        if(timer == null || timer.wheel != this || !timer.isScheduled()) return;
+
+        timer.unlink();
+        size--;
+    }
+
+    /** Advances one tick, calling the callbacks of every timer due on it.
+     *
+     * Callbacks may schedule or cancel any timer, including their own.
+     */
+    public void advance(){
+        tick++;
+
+        if((tick & ((1L << rangeBits) - 1)) == 0) cascade(overflowSlot);
+
+        for(int level = levelCount - 1; level >= 0; level--){
+            int shift = rootBits + levelBits * level;
+
+            if((tick & ((1L << shift) - 1)) == 0){
+                cascade(levelSlots[level][(int) ((tick >> shift) & (levelSize - 1))]);
+            }
+        }
+
+        Timer slot = rootSlots[(int) (tick & (rootSize - 1))];
+        Timer timer;
+
+        while((timer = slot.next) != slot){
+            timer.unlink();
+
+            if(timer.interval > 0){
+                timer.deadline += timer.interval;
+                insert(timer);
+            }else{
+                size--;
+            }
+
+            timer.callback.run();
+        }
+    }
+
+    private Timer schedule(long delay, long interval, Runnable callback){
+        Timer timer = new Timer(this, callback, interval);
+
+        timer.deadline = tick + Math.max(1, delay);
+        insert(timer);
+        size++;
+
+        return timer;
+    }
+
+    /** Moves all timers from a slot to the wheels where they now belong.
+     *
+     * The slot's list is detached before the timers are inserted, since timers from the overflow list may go back to it.
+     */
+    private void cascade(Timer slot){
+        if(slot.next == slot) return;
+
+        Timer timer = slot.next;
+
+        slot.previous.next = null;
+        slot.previous = slot.next = slot;
+
+        while(timer != null){
+            Timer next = timer.next;
+
+            timer.previous = timer.next = null;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    /** Inserts a timer in the lowest wheel that covers its due tick.
+     *
+     * A timer is stored in a wheel if its due tick only differs from the current one in the bits addressed by that
+     * wheel or below, so it is always cascaded down before it is due.
+     */
+    private void insert(Timer timer){
+        long deadline = timer.deadline;
+        Timer slot;
+
+        if((deadline >> rootBits) == (tick >> rootBits)){
+            slot = rootSlots[(int) (deadline & (rootSize - 1))];
+        }else{
+            slot = overflowSlot;
+
+            for(int level = 0; level < levelCount; level++){
+                int shift = rootBits + levelBits * level;
+
+                if((deadline >> (shift + levelBits)) == (tick >> (shift + levelBits))){
+                    slot = levelSlots[level][(int) ((deadline >> shift) & (levelSize - 1))];
+                    break;
+                }
+            }
+        }
+
+        timer.link(slot);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** A callback scheduled on a TimerWheel. It is also a node of the list of timers due on the same slot. */
+    public static class Timer {
+
+        /** The wheel where the timer was scheduled (null for the slots' list heads). */
+        private final TimerWheel wheel;
+        /** The callback called when the timer is due. */
+        private final Runnable callback;
+        /** The amount of ticks between calls (0 if it is called only once). */
+        private final long interval;
+        /** The tick on which the timer is due. */
+        private long deadline;
+
+        private Timer previous, next;
+
+        private Timer(TimerWheel wheel, Runnable callback, long interval){
+            this.wheel = wheel;
+            this.callback = callback;
+            this.interval = interval;
+
+            // List heads point to themselves when their slot is empty.
+            if(wheel == null) previous = next = this;
+        }
+
+        /** Cancels the timer, so its callback won't be called anymore. */
+        public void cancel(){
+            wheel.cancel(this);
+        }
+
+        /** Checks if the timer is waiting to be called.
+         *
+         * @return  True if the timer is scheduled, false if it has been cancelled or was called once.
+         */
+        public boolean isScheduled(){
+            return next != null;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        private void link(Timer slot){
+            previous = slot.previous;
+            next = slot;
+            slot.previous.next = this;
+            slot.previous = this;
+        }
+
+        private void unlink(){
+            previous.next = next;
+            next.previous = previous;
+            previous = next = null;
+        }
+    }
+}
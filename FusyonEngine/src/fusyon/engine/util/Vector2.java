@@ -1,13 +1,16 @@
 package fusyon.engine.util;
 
-import java.util.Objects;
-
+/** A two-dimensional vector of integers.
+ *
+ * As with Vector2f, the basic operations return a new vector, and add and subtract also have in-place and
+ * out-parameter variants. The zero and one constants are shared, so they can't be changed through set.
+ */
 public class Vector2 {
 
     public int x, y;
 
-    public static final Vector2 zero = new Vector2(0, 0);
-    public static final Vector2 one = new Vector2(1, 1);
+    public static final Vector2 zero = new Constant(0, 0);
+    public static final Vector2 one = new Constant(1, 1);
 
     public Vector2(int x, int y){
         this.x = x;
@@ -19,6 +22,27 @@ public class Vector2 {
         this.y = (int) vector.y;
     }
 
+    /** Changes both components of the vector. Every in-place and out-parameter method writes through it.
+     *
+     * @param x The new x component.
+     * @param y The new y component.
+     * @return  The vector itself.
+     */
+    public Vector2 set(int x, int y){
+        this.x = x;
+        this.y = y;
+
+        return this;
+    }
+
+    public Vector2 set(Vector2 vector){
+        return set(vector.x, vector.y);
+    }
+
+    public Vector2 copy(){
+        return new Vector2(x, y);
+    }
+
     public boolean compare(Vector2 vector){
         if(x == vector.x && y == vector.y){
             return true;
@@ -41,6 +65,22 @@ public class Vector2 {
         return new Vector2(x, y);
     }
 
+    public Vector2 add(Vector2 vector, Vector2 out){
+        return out.set(x + vector.x, y + vector.y);
+    }
+
+    public Vector2 subtract(Vector2 vector, Vector2 out){
+        return out.set(x - vector.x, y - vector.y);
+    }
+
+    public Vector2 addLocal(Vector2 vector){
+        return add(vector, this);
+    }
+
+    public Vector2 subtractLocal(Vector2 vector){
+        return subtract(vector, this);
+    }
+
     public Vector2 multiply(float value){
         int x = (int) (this.x * value);
         int y = (int) (this.y * value);
@@ -74,7 +114,7 @@ public class Vector2 {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Vector2)) return false;
         Vector2 vector2 = (Vector2) o;
         return x == vector2.x &&
                 y == vector2.y;
@@ -82,6 +122,19 @@ public class Vector2 {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
+    }
+
+    /** A vector shared as a constant, that can't be changed through set. */
+    private static final class Constant extends Vector2 {
+
+        private Constant(int x, int y){
+            super(x, y);
+        }
+
+        @Override
+        public Vector2 set(int x, int y) {
+            throw new UnsupportedOperationException("[ENGINE ERROR]: A constant vector can't be modified.");
+        }
     }
 }
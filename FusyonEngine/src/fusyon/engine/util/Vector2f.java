@@ -1,13 +1,22 @@
 package fusyon.engine.util;
 
-import java.util.Objects;
-
+/** A two-dimensional vector of floats.
+ *
+ * The basic operations (add, subtract, multiply, divide and normalize) return a new vector. Each of them also has an
+ * in-place variant (suffixed with Local), which changes and returns the vector itself, and an out-parameter variant,
+ * which writes into a given vector and returns it, so hot paths can reuse their vectors instead of allocating.
+ *
+ * The zero and one constants are shared, so they must never be modified. Changing them through set or any in-place
+ * or out-parameter method throws an UnsupportedOperationException, but their x and y fields remain public and
+ * writable like those of any vector: assigning them directly (e.g. {@code Vector2f.zero.x = 1}) is not caught, and
+ * changes the constant everywhere. Copy a constant to get a vector that can be modified.
+ */
 public class Vector2f {
 
     public float x, y;
 
-    public static final Vector2f zero = new Vector2f(0, 0);
-    public static final Vector2f one = new Vector2f(1, 1);
+    public static final Vector2f zero = new Constant(0, 0);
+    public static final Vector2f one = new Constant(1, 1);
 
     public Vector2f(float x, float y){
         this.x = x;
@@ -19,6 +28,31 @@ public class Vector2f {
         this.y = vector.y;
     }
 
+    /** Changes both components of the vector. Every in-place and out-parameter method writes through it.
+     *
+     * @param x The new x component.
+     * @param y The new y component.
+     * @return  The vector itself.
+     */
+    public Vector2f set(float x, float y){
+        this.x = x;
+        this.y = y;
+
+        return this;
+    }
+
+    public Vector2f set(Vector2f vector){
+        return set(vector.x, vector.y);
+    }
+
+    /** Creates a copy of the vector, which can be freely modified.
+     *
+     * @return  A new vector with the same components.
+     */
+    public Vector2f copy(){
+        return new Vector2f(x, y);
+    }
+
     public boolean compare(Vector2f v){
         if(x == v.x && y == v.y){
             return true;
@@ -55,16 +89,61 @@ public class Vector2f {
         return new Vector2f(x, y);
     }
 
+    public Vector2f add(Vector2f vector, Vector2f out){
+        return out.set(x + vector.x, y + vector.y);
+    }
+
+    public Vector2f subtract(Vector2f vector, Vector2f out){
+        return out.set(x - vector.x, y - vector.y);
+    }
+
+    public Vector2f multiply(float value, Vector2f out){
+        return out.set(x * value, y * value);
+    }
+
+    public Vector2f divide(float value, Vector2f out){
+        return out.set(x / value, y / value);
+    }
+
+    public Vector2f addLocal(Vector2f vector){
+        return add(vector, this);
+    }
+
+    public Vector2f subtractLocal(Vector2f vector){
+        return subtract(vector, this);
+    }
+
+    public Vector2f multiplyLocal(float value){
+        return multiply(value, this);
+    }
+
+    public Vector2f divideLocal(float value){
+        return divide(value, this);
+    }
+
     public float magnitude(){
         return (float) Math.sqrt(x * x + y * y);
     }
 
     public Vector2f normalize(){
+        return normalize(new Vector2f(0, 0));
+    }
+
+    /** Writes the vector's direction into another vector.
+     *
+     * @param out   The vector to write into (may be this one).
+     * @return      The given vector, holding a unit vector, or (0, 0) if this vector's magnitude is 0.
+     */
+    public Vector2f normalize(Vector2f out){
         float magnitude = magnitude();
 
-        if(magnitude == 0)  return new Vector2f(0, 0);
+        if(magnitude == 0) return out.set(0, 0);
+
+        return out.set(x / magnitude, y / magnitude);
+    }
 
-        return new Vector2f(x / magnitude, y / magnitude);
+    public Vector2f normalizeLocal(){
+        return normalize(this);
     }
 
     @Override
@@ -75,14 +154,28 @@ public class Vector2f {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Vector2 vector2 = (Vector2) o;
-        return x == vector2.x &&
-                y == vector2.y;
+        if (!(o instanceof Vector2f)) return false;
+        Vector2f vector2f = (Vector2f) o;
+        return x == vector2f.x &&
+                y == vector2f.y;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        // Adding 0 turns -0 into 0, since both are equal.
+        return 31 * Float.hashCode(x + 0f) + Float.hashCode(y + 0f);
+    }
+
+    /** A vector shared as a constant, that can't be changed through set (its fields can still be assigned). */
+    private static final class Constant extends Vector2f {
+
+        private Constant(float x, float y){
+            super(x, y);
+        }
+
+        @Override
+        public Vector2f set(float x, float y) {
+            throw new UnsupportedOperationException("[ENGINE ERROR]: A constant vector can't be modified.");
+        }
     }
 }
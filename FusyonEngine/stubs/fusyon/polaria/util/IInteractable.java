@@ -0,0 +1,5 @@
+package fusyon.polaria.util;
+
+/** A compile-time placeholder for the game's IInteractable, which is not part of this repository (left out of the jar). */
+public interface IInteractable {
+}
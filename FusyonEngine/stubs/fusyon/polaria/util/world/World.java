@@ -0,0 +1,5 @@
+package fusyon.polaria.util.world;
+
+/** A compile-time placeholder for the game's World, which is not part of this repository (left out of the jar). */
+public class World {
+}